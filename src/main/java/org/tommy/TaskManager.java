@@ -1,10 +1,16 @@
 package org.tommy;
 
+import org.tommy.base.Status;
 import org.tommy.exception.PersistenceException;
 import org.tommy.models.Task;
 import org.tommy.persist.TaskSaver;
+import org.tommy.persist.TaskSnapshot;
+import org.tommy.persist.TaskStats;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The TaskManager acts as a service layer that delegates task operations
@@ -69,6 +75,51 @@ public class TaskManager {
         return DeleteTask(T.getId());
     }
 
+    /**
+     * Adds several tasks at once; either all of them are added or none.
+     *
+     * @param tasks the tasks to add.
+     * @return the IDs of the new tasks, in the same order.
+     * @throws PersistenceException if writing to storage fails.
+     */
+    public List<Integer> addTasks(Collection<Task> tasks) throws PersistenceException {
+        return taskSaver.addTasks(tasks).stream().map(Task::getId).toList();
+    }
+
+    /**
+     * Updates several tasks at once; either all of them are updated or none.
+     *
+     * @param tasks the task objects with updated fields.
+     * @return the number of updated tasks.
+     * @throws PersistenceException if a task does not exist or the update fails.
+     */
+    public int updateTasks(Collection<Task> tasks) throws PersistenceException {
+        return taskSaver.updateTasks(tasks).size();
+    }
+
+    /**
+     * Deletes several tasks at once; either all of them are deleted or none.
+     *
+     * @param taskIds the IDs of the tasks to delete.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task does not exist or deletion fails.
+     */
+    public int deleteTasks(int... taskIds) throws PersistenceException {
+        return taskSaver.deleteTasks(taskIds);
+    }
+
+    /**
+     * Moves several tasks to the given status at once; either all of them change or none.
+     *
+     * @param status  the new status.
+     * @param taskIds the IDs of the tasks.
+     * @return the number of updated tasks.
+     * @throws PersistenceException if a task does not exist or the update fails.
+     */
+    public int updateStatus(Status status, int... taskIds) throws PersistenceException {
+        return taskSaver.updateStatus(status, taskIds).size();
+    }
+
     /**
      * Retrieves a task by ID.
      *
@@ -89,4 +140,106 @@ public class TaskManager {
     public List<Task> getTasks(){
         return taskSaver.getTasks();
     }
+
+    /**
+     * Retrieves one page of tasks in ID order, starting after the given ID.
+     * Pass the ID of the last task of a page to get the next one.
+     *
+     * @param afterId the ID after which the page starts; {@link Integer#MIN_VALUE} for the first page.
+     * @param limit   the maximum number of tasks.
+     * @return list of up to {@code limit} tasks.
+     */
+    public List<Task> getTasks(int afterId, int limit){
+        return taskSaver.getTasks(afterId, limit);
+    }
+
+    /**
+     * Returns all tasks as a stream in ID order, without copying the store where the TaskSaver allows it.
+     *
+     * @return the task stream.
+     */
+    public Stream<Task> streamTasks(){
+        return taskSaver.streamTasks();
+    }
+
+    /**
+     * Retrieves all tasks with the given status, letting the TaskSaver filter natively where it can.
+     *
+     * @param status the status to filter by.
+     * @return list of matching tasks.
+     */
+    public List<Task> getTasksByStatus(Status status){
+        return taskSaver.getTasksByStatus(status);
+    }
+
+    /**
+     * Retrieves the tasks created in the given range, oldest first.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return list of matching tasks.
+     */
+    public List<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to){
+        return taskSaver.getTasksCreatedBetween(from, to);
+    }
+
+    /**
+     * Retrieves the tasks last updated in the given range, least recently updated first.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return list of matching tasks.
+     */
+    public List<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to){
+        return taskSaver.getTasksUpdatedBetween(from, to);
+    }
+
+    /**
+     * Retrieves the most recently updated tasks, newest first.
+     *
+     * @param limit the maximum number of tasks.
+     * @return list of up to {@code limit} tasks.
+     */
+    public List<Task> getRecentlyUpdated(int limit){
+        return taskSaver.getRecentlyUpdated(limit);
+    }
+
+    /**
+     * Returns an immutable, point-in-time view of all tasks, for listings and exports that must stay
+     * consistent while other threads keep changing tasks.
+     *
+     * @return the snapshot.
+     */
+    public TaskSnapshot snapshot(){
+        return taskSaver.snapshot();
+    }
+
+    /**
+     * Finds tasks by words in their description, best match first.
+     *
+     * @param query the search terms; {@code OR} separates alternatives and a trailing {@code *} matches a prefix.
+     * @return list of matching tasks.
+     */
+    public List<Task> search(String query){
+        return taskSaver.search(query);
+    }
+
+    /**
+     * Returns the number of tasks per status and the number created and completed today, from counters the
+     * TaskSaver keeps up to date instead of by listing the tasks.
+     *
+     * @return the statistics.
+     */
+    public TaskStats getStats(){
+        return taskSaver.getStats();
+    }
+
+    /**
+     * Releases the resources held by the underlying TaskSaver.
+     *
+     * @throws PersistenceException if pending data cannot be written.
+     */
+    public void close() throws PersistenceException {
+        taskSaver.close();
+    }
 }
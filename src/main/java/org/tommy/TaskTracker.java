@@ -2,10 +2,20 @@ package org.tommy;
 
 import org.tommy.base.CliMode;
 import org.tommy.base.OperationMode;
-import org.tommy.persist.FileSaver;
+import org.tommy.configuration.AppConfig;
+import org.tommy.parser.ConsoleParser;
+import org.tommy.parser.FileCommandProvider;
 import org.tommy.persist.TaskSaver;
+import org.tommy.persist.TaskSaverFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Entry point of the Task Tracking application.
@@ -13,6 +23,8 @@ import java.io.FileNotFoundException;
  */
 public class TaskTracker {
 
+    private static final int DEFAULT_SCRIPT_BATCH = 50_000;
+
     private final TaskManager taskManager;
     private final OperationMode operationMode;
 
@@ -37,17 +49,44 @@ public class TaskTracker {
     }
 
 
+    /**
+     * Creates a tracker that runs the commands of a script file through {@link CliMode}.
+     *
+     * Changes are persisted once per {@code script.batch.size} commands rather than once per command: the
+     * storage engine is created with a group commit of that size and no time limit, and the last partial batch
+     * is written when the tracker closes. With {@code commit.durability=ALWAYS} every change is still written on
+     * its own.
+     *
+     * @param script    the script to run.
+     * @param appConfig the configuration.
+     * @return the tracker.
+     * @throws FileNotFoundException if the script or the data file is not found.
+     */
+    public static TaskTracker forScript(Path script, AppConfig appConfig) throws FileNotFoundException {
+        int batch = Math.max(1, appConfig.getIntProperty("script.batch.size", DEFAULT_SCRIPT_BATCH));
+        AppConfig batched = appConfig
+                .withProperty("commit.window.millis", String.valueOf(TimeUnit.DAYS.toMillis(1)))
+                .withProperty("commit.max.batch", String.valueOf(batch));
+        CliMode mode = new CliMode(new FileCommandProvider(script), new ConsoleParser());
+        return new TaskTracker(mode, TaskSaverFactory.create(batched));
+    }
+
     /**
      * Starts the task tracker by invoking the operation mode's start logic.
      */
     public void run(){
-        operationMode.start(taskManager);
+        try {
+            operationMode.start(taskManager);
+        } finally {
+            taskManager.close();
+        }
     }
 
     /**
      * Main method. Determines the mode (e.g., "console") and launches the TaskTracker accordingly.
      *
-     * @param args command line arguments, where args[0] can specify the mode (e.g., "console")
+     * @param args command line arguments, where args[0] can specify the mode (e.g., "console"),
+     *             or is "script" followed by the path of a script file
      */
     public static void main(String[] args) {
         String mode="";
@@ -58,10 +97,29 @@ public class TaskTracker {
         switch (mode.toLowerCase()){
             case "console":
                 try {
-                    taskTracker = new TaskTracker(new CliMode(), new FileSaver());
+                    taskTracker = new TaskTracker(new CliMode(), TaskSaverFactory.create(AppConfig.getInstance()));
+                    taskTracker.run();
+                } catch (FileNotFoundException e) {
+                    throw new RuntimeException(e);
+                }
+                break;
+            case "script":
+                if(args.length < 2){
+                    System.out.println("Please provide a script file.");
+                    System.exit(1);
+                }
+                PrintStream console = System.out;
+                // One write per buffer instead of one per printed line.
+                System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                        1 << 16), false, StandardCharsets.UTF_8));
+                try {
+                    taskTracker = forScript(Path.of(args[1]), AppConfig.getInstance());
                     taskTracker.run();
                 } catch (FileNotFoundException e) {
                     throw new RuntimeException(e);
+                } finally {
+                    System.out.flush();
+                    System.setOut(console);
                 }
                 break;
             default:
@@ -7,13 +7,20 @@ import org.tommy.parser.CommandProvider;
 import org.tommy.parser.ConsoleCommandProvider;
 import org.tommy.parser.ConsoleParser;
 import org.tommy.parser.Parser;
+import org.tommy.persist.TaskStats;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CliMode implements OperationMode{
 
+    private static final int RANGE_PAGE_SIZE = 1000;
+
     private final CommandProvider commandProvider;
     private final Parser parser;
     private boolean running = false;
@@ -30,8 +37,13 @@ public class CliMode implements OperationMode{
      * task-cli add "Buy groceries"
      * task-cli update 1 "Buy groceries and cook"
      * task-cli delete 1
+     * task-cli delete 10-500
      * task-cli list [done|not-done|in-progress]
-     * task-cli mark-done 1
+     * task-cli list --since 24h --recent 20
+     * task-cli list --limit 50 --page 2
+     * task-cli search groceries OR cook*
+     * task-cli stats
+     * task-cli mark-done 1 2 3
      * task-cli exit
      * </pre>
      *
@@ -39,206 +51,505 @@ public class CliMode implements OperationMode{
      * {@link ConsoleParser} to parse them into arguments. It delegates task
      * operations to {@link TaskManager}, which handles persistence and updates.
      *
+     * {@code delete}, {@code mark-done} and {@code mark-in-progress} take several IDs and ID ranges;
+     * the tasks are changed together, so either all of them are changed or, if one does not exist, none.
+     *
      * This implementation loops until the user issues the `exit` command.
      */
 
     public CliMode(){
-        this.commandProvider = new ConsoleCommandProvider();
-        this.parser = new ConsoleParser();
+        this(new ConsoleCommandProvider(), new ConsoleParser());
+    }
+
+    /**
+     * Creates a CLI mode that reads its commands from the given source, e.g. a
+     * {@link org.tommy.parser.FileCommandProvider} to run a script. The loop then also ends
+     * when the source has no more commands.
+     *
+     * @param commandProvider the source of commands.
+     * @param parser          the parser splitting a command into arguments.
+     */
+    public CliMode(CommandProvider commandProvider, Parser parser){
+        this.commandProvider = commandProvider;
+        this.parser = parser;
     }
 
 
     /**
-     * Starts the CLI loop, processing user commands until 'exit' is received.
+     * Starts the CLI loop, processing user commands until 'exit' is received. A command that fails is reported,
+     * with its line number when the commands come from a script, and the loop goes on with the next one.
      */
     @Override
     public void start(TaskManager taskManager) {
         running = true;
         while(running && commandProvider.hasNextCommand()){
             String command = commandProvider.getNextCommand();
-            List<String> args = parser.parseArguments(command);
-            if(args.size() <2 || !args.get(0).equals("task-cli")){
+            try{
+                execute(taskManager, command);
+            }catch (NumberFormatException e){
+                report("Invalid number: " + e.getMessage());
+            }catch (RuntimeException e){
+                report(e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        }
+    }
+
+    private void report(String error) {
+        int line = commandProvider.getLineNumber();
+        System.out.println(line > 0 ? "Line " + line + ": " + error : error);
+    }
+
+    /**
+     * Runs a single command.
+     */
+    private void execute(TaskManager taskManager, String command) {
+        List<String> args = parser.parseArguments(command);
+        if(args.size() <2 || !args.get(0).equals("task-cli")){
+            String message = """
+                    Unknown command.
+                    Please Type task-cli help for more information.
+                    """;
+            System.out.println(message);
+            return;
+        }
+        if(args.get(1).equals("add")){
+            if(args.size() < 3){
                 String message = """
-                        Unknown command.
-                        Please Type task-cli help for more information.
-                        """;
+                    Unknown operation.
+                    Please Type task-cli help for more information.
+                    """;
                 System.out.println(message);
-                continue;
+                return;
             }
-            if(args.get(1).equals("add")){
-                if(args.size() < 3){
-                    String message = """
-                        Unknown operation.
-                        Please Type task-cli help for more information.
-                        """;
-                    System.out.println(message);
-                    continue;
-                }
-                if(args.size() >3){
-                    String message = """
-                        Too many arguments.
-                        Please Type task-cli help for more information.
-                        """;
-                    System.out.println(message);
-                    continue;
-                }
-                Task task = new Task(0, Status.NOT_DONE, args.get(2));
-                try{
-                    int id = taskManager.addTask(task);
-                    System.out.printf("Task added successfully. (ID: %d)%n", id);
-                }catch (PersistenceException e){
-                    System.out.println(e.getMessage());
-                }
-                continue;
+            if(args.size() >3){
+                String message = """
+                    Too many arguments.
+                    Please Type task-cli help for more information.
+                    """;
+                System.out.println(message);
+                return;
             }
-            if(args.get(1).equals("list")){
-                List<Task> tasks = taskManager.getTasks();
-                if(args.size() < 3) {
-                    printTasks(tasks);
-                    continue;
+            Task task = new Task(0, Status.NOT_DONE, args.get(2));
+            try{
+                int id = taskManager.addTask(task);
+                System.out.printf("Task added successfully. (ID: %d)%n", id);
+            }catch (PersistenceException e){
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+        if(args.get(1).equals("list")){
+            List<String> options = new ArrayList<>(args.subList(2, args.size()));
+            Paging paging;
+            try{
+                paging = Paging.extract(options);
+            }catch (NumberFormatException e){
+                System.out.println("Invalid value: " + e.getMessage());
+                return;
+            }catch (IllegalArgumentException e){
+                System.out.println(e.getMessage());
+                return;
+            }
+            if(options.isEmpty()) {
+                if(paging == null){
+                    printTasks(taskManager.streamTasks());
+                }else{
+                    listPage(taskManager, paging);
                 }
-                switch (args.get(2)) {
-                    case "done" -> {
-                        tasks = tasks.stream()
-                                .filter(t -> t.getStatus().equals(Status.DONE))
-                                .collect(Collectors.toCollection(ArrayList::new));
-                        if(tasks.isEmpty()){
-                            System.out.println("No tasks are Done");
-                            continue;
-                        }
-                        printTasks(tasks);
-                    }
-                    case "not-done" ->{
-                        tasks = tasks.stream()
-                                .filter(t -> t.getStatus().equals(Status.NOT_DONE))
-                                .collect(Collectors.toCollection(ArrayList::new));
-                        if(tasks.isEmpty()){
-                            System.out.println("No tasks are Not Done");
-                            continue;
-                        }
-                        printTasks(tasks);
+                return;
+            }
+            if(options.get(0).startsWith("--")){
+                listByTime(taskManager, options, paging);
+                return;
+            }
+            switch (options.get(0)) {
+                case "done" -> {
+                    List<Task> tasks = taskManager.getTasksByStatus(Status.DONE);
+                    if(tasks.isEmpty()){
+                        System.out.println("No tasks are Done");
+                        return;
                     }
-                    case "in-progress" ->{
-                        tasks = tasks.stream()
-                                .filter(t -> t.getStatus().equals(Status.IN_PROGRESS))
-                                .collect(Collectors.toCollection(ArrayList::new));
-                        if(tasks.isEmpty()){
-                            System.out.println("No tasks are In Progress");
-                            continue;
-                        }
-                        printTasks(tasks);
+                    printTasks(tasks, paging);
+                }
+                case "not-done" ->{
+                    List<Task> tasks = taskManager.getTasksByStatus(Status.NOT_DONE);
+                    if(tasks.isEmpty()){
+                        System.out.println("No tasks are Not Done");
+                        return;
                     }
-                    default ->{
-                            System.out.println("Unknown status: " + args.get(2));
-                            System.out.println("Available filters: done, not-done, in-progress");
+                    printTasks(tasks, paging);
+                }
+                case "in-progress" ->{
+                    List<Task> tasks = taskManager.getTasksByStatus(Status.IN_PROGRESS);
+                    if(tasks.isEmpty()){
+                        System.out.println("No tasks are In Progress");
+                        return;
                     }
+                    printTasks(tasks, paging);
+                }
+                default ->{
+                        System.out.println("Unknown status: " + options.get(0));
+                        System.out.println("Available filters: done, not-done, in-progress");
                 }
-                continue;
             }
-            if(args.get(1).equals("help")){
+            return;
+        }
+        if(args.get(1).equals("help")){
+            String message = """
+                    task-cli add <task>
+                    task-cli update <taskId> <task>
+                    task-cli delete <taskId>... | <fromId>-<toId>
+                    task-cli list [<filter>] [--limit <n>] [--page <n>]
+                    task-cli list [--since <time>] [--until <time>] [--recent <n>] [--limit <n>] [--page <n>]
+                    task-cli search <terms>
+                    task-cli stats
+                    task-cli help
+                    task-cli mark-in-progress <taskId>... | <fromId>-<toId>
+                    task-cli mark-done <taskId>... | <fromId>-<toId>
+                    task-cli exit
+                    """;
+            System.out.println(message);
+            return;
+        }
+        if(args.get(1).equals("update")){
+            if(args.size() < 4){
                 String message = """
-                        task-cli add <task>
-                        task-cli update <taskId> <task>
-                        task-cli delete <taskId>
-                        task-cli list [<filter>]
-                        task-cli help
-                        task-cli mark-in-progress <taskId>
-                        task-cli mark-done <taskId>
-                        task-cli exit
+                        Please provide a task ID and a new task.
                         """;
                 System.out.println(message);
-                continue;
-            }
-            if(args.get(1).equals("update")){
-                if(args.size() < 4){
-                    String message = """
-                            Please provide a task ID and a new task.
-                            """;
-                    System.out.println(message);
-                    continue;
+                return;
+            }
+            int id = Integer.parseInt(args.get(2));
+            Task task = taskManager.getTask(id).withTask(args.get(3));
+            try{
+                taskManager.updateTask(id, task);
+                System.out.println("Task updated successfully.");
+            }catch (PersistenceException e){
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+        if(args.get(1).equals("delete")) {
+            if (args.size() < 3) {
+                String message = """
+                        Please provide a task ID.
+                        """;
+                System.out.println(message);
+                return;
+            }
+            int[] ids = resolveIds(taskManager, args.subList(2, args.size()));
+            if(ids == null){
+                return;
+            }
+            try{
+                if(ids.length == 1){
+                    taskManager.DeleteTask(ids[0]);
+                    System.out.println("Task deleted successfully.");
+                }else{
+                    int count = taskManager.deleteTasks(ids);
+                    System.out.printf("%d tasks deleted successfully.%n", count);
                 }
-                int id = Integer.parseInt(args.get(2));
-                Task task = taskManager.getTask(id);
-                task.setTask(args.get(3));
-                try{
-                    taskManager.updateTask(id, task);
-                    System.out.println("Task updated successfully.");
-                }catch (PersistenceException e){
-                    System.out.println(e.getMessage());
-                }
-                continue;
-            }
-            if(args.get(1).equals("delete")) {
-                if (args.size() < 3) {
-                    String message = """
-                            Please provide a task ID.
-                            """;
-                    System.out.println(message);
-                    continue;
+            }catch (PersistenceException e){
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+        if(args.get(1).equals("mark-in-progress")){
+            if(args.size() < 3){
+                String message = """
+                        Please provide a task ID.
+                        """;
+                System.out.println(message);
+                return;
+            }
+            int[] ids = resolveIds(taskManager, args.subList(2, args.size()));
+            if(ids == null){
+                return;
+            }
+            try{
+                if(ids.length == 1){
+                    Task task = taskManager.getTask(ids[0]).withStatus(Status.IN_PROGRESS);
+                    taskManager.updateTask(ids[0], task);
+                    System.out.println("Task marked in progress successfully.");
+                }else{
+                    int count = taskManager.updateStatus(Status.IN_PROGRESS, ids);
+                    System.out.printf("%d tasks marked in progress successfully.%n", count);
                 }
-                int id = Integer.parseInt(args.get(2));
-                try{
-                    taskManager.DeleteTask(id);
-                    System.out.println("Task deleted successfully.");
-                }catch (PersistenceException e){
-                    System.out.println(e.getMessage());
+            }catch (PersistenceException e){
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+        if(args.get(1).equals("mark-done")){
+            if(args.size() < 3){
+                String message = """
+                        Please provide a task ID.
+                        """;
+                System.out.println(message);
+                return;
+            }
+            int[] ids = resolveIds(taskManager, args.subList(2, args.size()));
+            if(ids == null){
+                return;
+            }
+            try{
+                if(ids.length == 1){
+                    Task task = taskManager.getTask(ids[0]).withStatus(Status.DONE);
+                    taskManager.updateTask(ids[0], task);
+                    System.out.println("Task marked done successfully.");
+                }else{
+                    int count = taskManager.updateStatus(Status.DONE, ids);
+                    System.out.printf("%d tasks marked done successfully.%n", count);
                 }
-                continue;
+            }catch (PersistenceException e){
+                System.out.println(e.getMessage());
             }
-            if(args.get(1).equals("mark-in-progress")){
-                if(args.size() < 3){
-                    String message = """
-                            Please provide a task ID.
-                            """;
-                    System.out.println(message);
-                    continue;
+            return;
+        }
+        if(args.get(1).equals("search")){
+            if(args.size() < 3){
+                String message = """
+                        Please provide search terms.
+                        """;
+                System.out.println(message);
+                return;
+            }
+            List<Task> tasks = taskManager.search(String.join(" ", args.subList(2, args.size())));
+            if(tasks.isEmpty()){
+                System.out.println("No matching tasks");
+                return;
+            }
+            printTasks(tasks, null);
+            return;
+        }
+        if(args.get(1).equals("stats")){
+            TaskStats stats = taskManager.getStats();
+            System.out.printf("Total: %d%n", stats.total());
+            for (Status status : Status.values()) {
+                System.out.printf("%s: %d%n", status.getStatus(), stats.count(status));
+            }
+            System.out.printf("Created today: %d%n", stats.createdToday());
+            System.out.printf("Completed today: %d%n", stats.completedToday());
+            return;
+        }
+        if(args.get(1).equals("exit")){
+            commandProvider.close();
+            System.out.println("Goodbye! :)");
+            running = false;
+        }
+    }
+
+    /**
+     * Lists tasks by their last update, handling the {@code --since}, {@code --until} and {@code --recent} options.
+     * Times are either relative to now ({@code 30m}, {@code 24h}, {@code 7d}) or ISO dates or date-times.
+     */
+    private void listByTime(TaskManager taskManager, List<String> options, Paging paging) {
+        LocalDateTime since = null;
+        LocalDateTime until = null;
+        Integer recent = null;
+        try {
+            for (int i = 0; i < options.size(); i += 2) {
+                if (i + 1 >= options.size()) {
+                    System.out.println("Missing value for " + options.get(i));
+                    return;
                 }
-                int id = Integer.parseInt(args.get(2));
-                try{
-                    Task task = taskManager.getTask(id);
-                    task.setStatus(Status.IN_PROGRESS);
-                    taskManager.updateTask(id, task);
-                    System.out.println("Task marked in progress successfully.");
-                }catch (PersistenceException e){
-                    System.out.println(e.getMessage());
+                String value = options.get(i + 1);
+                switch (options.get(i)) {
+                    case "--since" -> since = parseTime(value);
+                    case "--until" -> until = parseTime(value);
+                    case "--recent" -> recent = Integer.parseInt(value);
+                    default -> {
+                        System.out.println("Unknown option: " + options.get(i));
+                        System.out.println("Available options: --since, --until, --recent");
+                        return;
+                    }
                 }
-                continue;
             }
-            if(args.get(1).equals("mark-done")){
-                if(args.size() < 3){
-                    String message = """
-                            Please provide a task ID.
-                            """;
-                    System.out.println(message);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            System.out.println("Invalid value: " + e.getMessage());
+            return;
+        }
+        List<Task> tasks;
+        if (recent == null) {
+            tasks = taskManager.getTasksUpdatedBetween(since, until);
+        } else if (since == null && until == null) {
+            tasks = taskManager.getRecentlyUpdated(recent);
+        } else {
+            // The range comes oldest first, so the newest N tasks of the period are at its end.
+            List<Task> updated = taskManager.getTasksUpdatedBetween(since, until).stream()
+                    .filter(t -> t.getUpdatedAt() != null)
+                    .toList();
+            int count = Math.max(0, Math.min(recent, updated.size()));
+            tasks = new ArrayList<>(updated.subList(updated.size() - count, updated.size()));
+            Collections.reverse(tasks);
+        }
+        if (tasks.isEmpty()) {
+            System.out.println("No tasks were updated in that period");
+            return;
+        }
+        printTasks(tasks, paging);
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        if (value.matches("\\d+[mhd]")) {
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            LocalDateTime now = LocalDateTime.now();
+            return switch (value.charAt(value.length() - 1)) {
+                case 'm' -> now.minusMinutes(amount);
+                case 'h' -> now.minusHours(amount);
+                default -> now.minusDays(amount);
+            };
+        }
+        if (value.contains("T")) {
+            return LocalDateTime.parse(value);
+        }
+        return LocalDate.parse(value).atStartOfDay();
+    }
+
+    /**
+     * Turns the ID arguments of a bulk command into task IDs. A range {@code from-to} stands for the tasks
+     * that exist within it, which are looked up a page at a time with the ID cursor; single IDs are taken as
+     * given, so that a missing task is reported by the command.
+     *
+     * @return the IDs, or {@code null} after printing why the arguments were rejected.
+     */
+    private int[] resolveIds(TaskManager taskManager, List<String> values) {
+        List<Integer> ids = new ArrayList<>();
+        try {
+            for (String value : values) {
+                int dash = value.indexOf('-', 1);
+                if (dash < 0) {
+                    ids.add(Integer.parseInt(value));
                     continue;
                 }
-                int id = Integer.parseInt(args.get(2));
-                try{
-                    Task task = taskManager.getTask(id);
-                    task.setStatus(Status.DONE);
-                    taskManager.updateTask(id, task);
-                    System.out.println("Task marked done successfully.");
-                }catch (PersistenceException e){
-                    System.out.println(e.getMessage());
+                int from = Integer.parseInt(value.substring(0, dash));
+                int to = Integer.parseInt(value.substring(dash + 1));
+                if (from > to) {
+                    System.out.println("Invalid range: " + value);
+                    return null;
+                }
+                int afterId = from == Integer.MIN_VALUE ? from : from - 1;
+                while (true) {
+                    List<Task> page = taskManager.getTasks(afterId, RANGE_PAGE_SIZE);
+                    for (Task task : page) {
+                        if (task.getId() > to) {
+                            break;
+                        }
+                        ids.add(task.getId());
+                    }
+                    if (page.size() < RANGE_PAGE_SIZE || page.get(page.size() - 1).getId() >= to) {
+                        break;
+                    }
+                    afterId = page.get(page.size() - 1).getId();
                 }
-                continue;
             }
-            if(args.get(1).equals("exit")){
-                commandProvider.close();
-                System.out.println("Goodbye! :)");
-                break;
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value: " + e.getMessage());
+            return null;
+        }
+        if (ids.isEmpty()) {
+            System.out.println("No tasks in the given range");
+            return null;
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Lists one page of all tasks. The pages before it are skipped with the ID cursor, so only
+     * {@code page * limit} tasks are read no matter how large the store is.
+     */
+    private void listPage(TaskManager taskManager, Paging paging) {
+        int afterId = Integer.MIN_VALUE;
+        for (int page = 1; page < paging.page(); page++) {
+            List<Task> skipped = taskManager.getTasks(afterId, paging.limit());
+            if (skipped.size() < paging.limit()) {
+                System.out.println("No tasks on page " + paging.page());
+                return;
             }
+            afterId = skipped.get(skipped.size() - 1).getId();
+        }
+        List<Task> tasks = taskManager.getTasks(afterId, paging.limit() + 1);
+        if (tasks.isEmpty()) {
+            System.out.println("No tasks on page " + paging.page());
+            return;
+        }
+        printPage(tasks.subList(0, Math.min(tasks.size(), paging.limit())), paging, tasks.size() > paging.limit());
+    }
 
+    /**
+     * Prints a list of tasks to the console, or only the requested page of it.
+     */
+    private void printTasks(List<Task> tasks, Paging paging) {
+        if (paging == null) {
+            printTasks(tasks.stream());
+            return;
+        }
+        long from = (long) (paging.page() - 1) * paging.limit();
+        if (from >= tasks.size()) {
+            System.out.println("No tasks on page " + paging.page());
+            return;
+        }
+        int to = (int) Math.min(tasks.size(), from + paging.limit());
+        printPage(tasks.subList((int) from, to), paging, to < tasks.size());
+    }
+
+    private void printPage(List<Task> tasks, Paging paging, boolean more) {
+        printTasks(tasks.stream());
+        if (more) {
+            System.out.printf("Page %d. Use --page %d for more.%n", paging.page(), paging.page() + 1);
         }
     }
 
     /**
-     * Prints a list of tasks to the console.
+     * Prints tasks to the console as they are streamed, without collecting them first.
      */
-    private void printTasks(List<Task> tasks) {
+    private void printTasks(Stream<Task> tasks) {
         tasks.forEach(System.out::println);
     }
 
+    /**
+     * The {@code --limit} and {@code --page} options of {@code list}. Pages are numbered from 1.
+     */
+    private record Paging(int limit, int page) {
+
+        private static final int DEFAULT_LIMIT = 20;
+
+        /**
+         * Removes the paging options from the given options.
+         *
+         * @return the paging, or {@code null} if neither option was given.
+         * @throws IllegalArgumentException if a value is missing, not a number or not positive.
+         */
+        static Paging extract(List<String> options) {
+            Integer limit = null;
+            Integer page = null;
+            for (int i = 0; i < options.size(); ) {
+                String option = options.get(i);
+                if (!option.equals("--limit") && !option.equals("--page")) {
+                    i++;
+                    continue;
+                }
+                if (i + 1 >= options.size()) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                int value = Integer.parseInt(options.get(i + 1));
+                if (value < 1) {
+                    throw new IllegalArgumentException(option + " must be at least 1");
+                }
+                if (option.equals("--limit")) {
+                    limit = value;
+                } else {
+                    page = value;
+                }
+                options.subList(i, i + 2).clear();
+            }
+            if (limit == null && page == null) {
+                return null;
+            }
+            return new Paging(limit == null ? DEFAULT_LIMIT : limit, page == null ? 1 : page);
+        }
+    }
+
 
     /**
      * Gracefully ends the CLI mode (currently unused).
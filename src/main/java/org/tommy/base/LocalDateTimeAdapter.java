@@ -1,12 +1,15 @@
 package org.tommy.base;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-public class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
 
     /**
      * A Gson adapter to serialize and deserialize {@link LocalDateTime}
@@ -14,24 +17,33 @@ public class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, Json
      *
      * This adapter ensures that {@code LocalDateTime} is properly
      * written to and read from JSON as a human-readable string.
+     * It works directly on the JSON token stream, without building an intermediate {@code JsonElement}.
      */
 
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
     /**
-     * Converts a JSON string to a {@link LocalDateTime} using ISO format.
+     * Reads an ISO formatted JSON string as a {@link LocalDateTime}.
      */
     @Override
-    public LocalDateTime deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        return LocalDateTime.parse(jsonElement.getAsString(),formatter);
+    public LocalDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return LocalDateTime.parse(in.nextString(), formatter);
     }
 
     /**
-     * Converts a {@link LocalDateTime} to a JSON string using ISO format.
+     * Writes a {@link LocalDateTime} as a JSON string using ISO format.
      */
     @Override
-    public JsonElement serialize(LocalDateTime localDateTime, Type type, JsonSerializationContext jsonSerializationContext) {
-        return new JsonPrimitive(localDateTime.format(formatter));
+    public void write(JsonWriter out, LocalDateTime localDateTime) throws IOException {
+        if (localDateTime == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(formatter.format(localDateTime));
     }
 }
@@ -35,6 +35,40 @@ public class AppConfig {
         }
     }
 
+    /**
+     * Private constructor that wraps an already loaded set of properties.
+     *
+     * @param properties The properties backing this configuration.
+     */
+    private AppConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Creates a standalone {@code AppConfig} backed by the given properties instead of the classpath file.
+     * Useful for wiring components against a specific configuration, e.g. in tests.
+     *
+     * @param properties The properties to expose.
+     * @return A new {@code AppConfig} instance.
+     */
+    public static AppConfig fromProperties(Properties properties) {
+        return new AppConfig(properties);
+    }
+
+    /**
+     * Returns a copy of this configuration with one property set to another value.
+     * The copy falls back to this configuration for all other keys.
+     *
+     * @param key   The property key.
+     * @param value The value to use instead.
+     * @return A new {@code AppConfig} instance.
+     */
+    public AppConfig withProperty(String key, String value) {
+        Properties overridden = new Properties(properties);
+        overridden.setProperty(key, value);
+        return new AppConfig(overridden);
+    }
+
     /**
      * Returns the singleton instance of the {@code AppConfig}.
      *
@@ -54,4 +88,53 @@ public class AppConfig {
         return properties.getProperty(key);
     }
 
+    /**
+     * Retrieves a property value by its key, falling back to a default when absent.
+     *
+     * @param key          The property key.
+     * @param defaultValue The value returned if the key is not configured.
+     * @return The configured value, or {@code defaultValue}.
+     */
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue).trim();
+    }
+
+    /**
+     * Retrieves a property as an {@code int}, falling back to a default when absent.
+     *
+     * @param key          The property key.
+     * @param defaultValue The value returned if the key is not configured.
+     * @return The configured value, or {@code defaultValue}.
+     * @throws NumberFormatException if the configured value is not a valid integer.
+     */
+    public int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Retrieves a property as a {@code long}, falling back to a default when absent.
+     *
+     * @param key          The property key.
+     * @param defaultValue The value returned if the key is not configured.
+     * @return The configured value, or {@code defaultValue}.
+     * @throws NumberFormatException if the configured value is not a valid long.
+     */
+    public long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * Retrieves a property as a {@code boolean}, falling back to a default when absent.
+     *
+     * @param key          The property key.
+     * @param defaultValue The value returned if the key is not configured.
+     * @return The configured value, or {@code defaultValue}.
+     */
+    public boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
 }
@@ -4,38 +4,46 @@ import org.apache.commons.lang3.StringUtils;
 import org.tommy.base.Status;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
-public class Task {
+public final class Task {
 
     /**
      * Represents a task in the task tracker application.
      * Each task has a unique ID, description, status, and timestamps indicating creation and last update time.
+     *
+     * Tasks are immutable: the {@code with*} methods return a changed copy and leave the original alone, so a
+     * stored task can be handed to any number of readers without defensive copies. Timestamps are held as
+     * epoch nanoseconds (UTC) in primitive longs, which keeps a task at a single allocation; the
+     * {@link LocalDateTime} accessors convert on demand. Nanoseconds rather than micros or millis keep the full
+     * precision of the timestamps already found in data files.
      */
 
+    /** Epoch value standing for a missing timestamp. */
+    public static final long NO_TIME = Long.MIN_VALUE;
 
     /** Unique identifier for the task. */
     private final int id;
 
     /** Current status of the task (e.g., NOT_DONE, IN_PROGRESS, DONE). */
-    private Status status;
+    private final Status status;
 
     /** Description of the task. */
-    private String task;
+    private final String task;
 
-    /** Timestamp indicating when the task was created. */
-    private LocalDateTime createdAt;
+    /** When the task was created, in epoch nanoseconds, or {@link #NO_TIME}. */
+    private final long createdAt;
 
-    /** Timestamp indicating when the task was last updated. */
-    private LocalDateTime updatedAt;
+    /** When the task was last updated, in epoch nanoseconds, or {@link #NO_TIME}. */
+    private final long updatedAt;
 
     /**
      * Constructs a new Task with only an ID.
-     * Used when ID is known but other attributes will be set later.
      *
      * @param id The unique identifier for the task.
      */
     public Task(int id){
-        this.id = id;
+        this(id, null, null);
     }
 
     /**
@@ -46,9 +54,7 @@ public class Task {
      * @param task   The task description.
      */
     public Task(int id, Status status, String task) {
-        this.id = id;
-        this.status = status;
-        this.task = task;
+        this(id, status, task, NO_TIME, NO_TIME);
     }
 
     /**
@@ -58,8 +64,61 @@ public class Task {
      * @param id   The unique identifier.
      */
     public Task(String task, int id) {
-        this.task = task;
+        this(id, null, task);
+    }
+
+    /**
+     * Constructs a Task with all attributes.
+     *
+     * @param id        The unique identifier.
+     * @param status    The status of the task.
+     * @param task      The task description.
+     * @param createdAt Creation time in epoch nanoseconds, or {@link #NO_TIME}.
+     * @param updatedAt Last update time in epoch nanoseconds, or {@link #NO_TIME}.
+     */
+    public Task(int id, Status status, String task, long createdAt, long updatedAt) {
         this.id = id;
+        this.status = status;
+        this.task = task;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Converts a timestamp to epoch nanoseconds, reading it as UTC.
+     *
+     * @param time the timestamp, or {@code null}.
+     * @return the epoch nanoseconds, or {@link #NO_TIME} for {@code null}.
+     */
+    public static long toEpochNanos(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    /**
+     * Converts epoch nanoseconds back to a timestamp.
+     *
+     * @param nanos the epoch nanoseconds, or {@link #NO_TIME}.
+     * @return the timestamp, or {@code null} for {@link #NO_TIME}.
+     */
+    public static LocalDateTime fromEpochNanos(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the current time in epoch nanoseconds, on the same scale as {@link #toEpochNanos(LocalDateTime)}
+     * applied to {@link LocalDateTime#now()}.
+     *
+     * @return the current time.
+     */
+    public static long now() {
+        return toEpochNanos(LocalDateTime.now());
     }
 
     /**
@@ -80,15 +139,6 @@ public class Task {
         return status;
     }
 
-    /**
-     * Sets the status of the task.
-     *
-     * @param status The new status.
-     */
-    public void setStatus(Status status) {
-        this.status = status;
-    }
-
     /**
      * Returns the task description.
      *
@@ -99,48 +149,103 @@ public class Task {
     }
 
     /**
-     * Sets the task description.
+     * Returns the creation timestamp.
      *
-     * @param task The new task description.
+     * @return Creation time, or {@code null} if unknown.
      */
-    public void setTask(String task) {
-        this.task = task;
+    public LocalDateTime getCreatedAt() {
+        return fromEpochNanos(createdAt);
     }
 
     /**
-     * Returns the creation timestamp.
+     * Returns the creation time in epoch nanoseconds.
      *
-     * @return Creation time.
+     * @return Creation time, or {@link #NO_TIME} if unknown.
      */
-    public LocalDateTime getCreatedAt() {
+    public long getCreatedAtNanos() {
         return createdAt;
     }
 
     /**
-     * Sets the creation timestamp.
+     * Returns the last updated timestamp.
      *
-     * @param createdAt Time of creation.
+     * @return Last update time, or {@code null} if unknown.
      */
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+    public LocalDateTime getUpdatedAt() {
+        return fromEpochNanos(updatedAt);
     }
 
     /**
-     * Returns the last updated timestamp.
+     * Returns the last update time in epoch nanoseconds.
      *
-     * @return Last update time.
+     * @return Last update time, or {@link #NO_TIME} if unknown.
      */
-    public LocalDateTime getUpdatedAt() {
+    public long getUpdatedAtNanos() {
         return updatedAt;
     }
 
     /**
-     * Sets the last updated timestamp.
+     * Returns a copy of this task with another ID.
+     *
+     * @param id The new ID.
+     * @return The changed task.
+     */
+    public Task withId(int id) {
+        return id == this.id ? this : new Task(id, status, task, createdAt, updatedAt);
+    }
+
+    /**
+     * Returns a copy of this task with another status.
+     *
+     * @param status The new status.
+     * @return The changed task.
+     */
+    public Task withStatus(Status status) {
+        return status == this.status ? this : new Task(id, status, task, createdAt, updatedAt);
+    }
+
+    /**
+     * Returns a copy of this task with another description.
+     *
+     * @param task The new task description.
+     * @return The changed task.
+     */
+    public Task withTask(String task) {
+        return task == this.task ? this : new Task(id, status, task, createdAt, updatedAt);
+    }
+
+    /**
+     * Returns a copy of this task with another creation time.
+     *
+     * @param createdAt Time of creation.
+     * @return The changed task.
+     */
+    public Task withCreatedAt(LocalDateTime createdAt) {
+        return withTimes(toEpochNanos(createdAt), updatedAt);
+    }
+
+    /**
+     * Returns a copy of this task with another last update time.
      *
      * @param updatedAt Time of last update.
+     * @return The changed task.
      */
-    public void setUpdatedAt(LocalDateTime updatedAt) {
-        this.updatedAt = updatedAt;
+    public Task withUpdatedAt(LocalDateTime updatedAt) {
+        return withTimes(createdAt, toEpochNanos(updatedAt));
+    }
+
+    /**
+     * Returns a copy of this task with other timestamps.
+     *
+     * @param createdAt Creation time in epoch nanoseconds, or {@link #NO_TIME}.
+     * @param updatedAt Last update time in epoch nanoseconds, or {@link #NO_TIME}.
+     * @return The changed task.
+     */
+    public Task withTimes(long createdAt, long updatedAt) {
+        if (createdAt == this.createdAt && updatedAt == this.updatedAt) {
+            return this;
+        }
+        return new Task(id, status, task, createdAt, updatedAt);
     }
 
     @Override
@@ -12,4 +12,13 @@ public interface CommandProvider {
     boolean hasNextCommand();
     String getNextCommand();
     void close();
+
+    /**
+     * Returns the line of the source that held the last command returned, to point at it in error messages.
+     *
+     * @return the line number, starting at 1, or 0 if the source has no lines to point at.
+     */
+    default int getLineNumber() {
+        return 0;
+    }
 }
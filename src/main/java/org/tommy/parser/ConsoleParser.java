@@ -7,6 +7,8 @@ import java.util.regex.Pattern;
 
 public class ConsoleParser implements Parser{
 
+    private static final Pattern TOKEN = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+
     /**
      * A parser implementation for parsing command-line arguments from a single string input.
      *
@@ -24,7 +26,7 @@ public class ConsoleParser implements Parser{
      */
     @Override
     public List<String> parseArguments(String args) {
-        Matcher matcher = Pattern.compile("\"([^\"]*)\"|(\\S+)").matcher(args);
+        Matcher matcher = TOKEN.matcher(args);
         List<String> tokens = new ArrayList<>();
         while(matcher.find()){
             if(matcher.group(1) != null){
@@ -1,30 +1,129 @@
 package org.tommy.parser;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
 /**
- * A placeholder implementation of {@link CommandProvider} for reading commands from a file.
+ * A {@link CommandProvider} that reads commands from a script file, one command per line.
  *
- * This class is not yet implemented and currently returns default values.
- * Intended for future extension to support batch execution of commands from a file.
+ * The file is streamed through a large read buffer, so scripts of any length are replayed without being loaded
+ * into memory and with few system calls. Blank lines and lines starting with {@code #} are skipped. The file is
+ * closed as soon as its last command has been read.
  */
 public class FileCommandProvider implements CommandProvider{
 
+    /** Default size of the read buffer in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private BufferedReader reader;
+    private String next;
+    private int nextLine;
+    private int linesRead;
+    private int lineNumber;
+
+    /**
+     * Opens a script file with the default buffer size.
+     *
+     * @param script The script to read.
+     * @throws FileNotFoundException If the script cannot be opened.
+     */
+    public FileCommandProvider(Path script) throws FileNotFoundException {
+        this(script, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a script file.
+     *
+     * @param script     The script to read.
+     * @param bufferSize The size of the read buffer in bytes.
+     * @throws FileNotFoundException If the script cannot be opened.
+     */
+    public FileCommandProvider(Path script, int bufferSize) throws FileNotFoundException {
+        this.reader = new BufferedReader(new InputStreamReader(
+                new BufferedInputStream(new FileInputStream(script.toFile()), bufferSize), StandardCharsets.UTF_8));
+    }
+
     /**
-     * Indicates whether there are more commands available.
+     * Indicates whether the script has another command, reading ahead to it if necessary.
      *
-     * @return {@code false}, since this implementation is not yet complete.
+     * @return {@code true} if {@link #getNextCommand()} will return a command.
+     * @throws UncheckedIOException If the script cannot be read.
      */
     @Override
     public boolean hasNextCommand() {
+        if (next != null) {
+            return true;
+        }
+        if (reader == null) {
+            return false;
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                linesRead++;
+                String command = line.strip();
+                if (!command.isEmpty() && command.charAt(0) != '#') {
+                    next = command;
+                    nextLine = linesRead;
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        close();
         return false;
     }
 
+    /**
+     * Returns the next command of the script.
+     *
+     * @return The command, without surrounding whitespace.
+     * @throws NoSuchElementException If the script has no more commands.
+     */
     @Override
     public String getNextCommand() {
-        return "";
+        if (!hasNextCommand()) {
+            throw new NoSuchElementException("No more commands in the script");
+        }
+        String command = next;
+        next = null;
+        lineNumber = nextLine;
+        return command;
+    }
+
+    /**
+     * Returns the line of the script that held the last command returned, counting blank and comment lines.
+     *
+     * @return the line number, starting at 1, or 0 before the first command.
+     */
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
     }
 
+    /**
+     * Closes the script file. Commands already read ahead are still returned.
+     */
     @Override
     public void close() {
-
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            reader = null;
+        }
     }
 }
@@ -0,0 +1,802 @@
+package org.tommy.persist;
+
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Implements the {@link TaskSaver} interface as a disk-resident B+tree keyed by task ID.
+ *
+ * Nodes are {@link BufferPool#PAGE_SIZE} pages accessed through a {@link BufferPool} of
+ * {@code btree.cache.pages} pages, so heap usage is bounded by the cache size rather than the number of tasks.
+ * Leaves hold {@link TaskRecordLayout} records and are chained for range scans; descriptions live in a
+ * {@link TextHeap}. Deletions remove entries from their leaf without rebalancing.
+ *
+ * The tree file defaults to {@code <json.file.path>.btree} and can be moved with {@code btree.file.path}.
+ * When it does not exist yet, the tasks of the JSON file and its journal are migrated into it once; the meta page
+ * is written last, so a migration interrupted by a crash is started over on the next start.
+ * Every mutation writes the pages it changed and then the meta page to the file, so that it is handed to the
+ * operating system before the call returns; with {@code commit.durability=BATCH} or {@code ALWAYS} the file is
+ * also forced to disk.
+ *
+ * <pre>
+ * meta page 0: magic, version, root page, page count, next ID
+ * node header: type (1 byte), key count (2 bytes), next leaf page (4 bytes), padding up to 16 bytes
+ * leaf:        records of {@link TaskRecordLayout#RECORD_SIZE} bytes, sorted by ID
+ * internal:    child0, then (key_i, child_i+1) pairs; child_i holds IDs in [key_i-1, key_i)
+ * </pre>
+ */
+public class BTreeSaver implements TaskSaver {
+
+    static final int MAGIC = 0x54544254;
+    static final int VERSION = 1;
+
+    private static final int META_MAGIC = 0;
+    private static final int META_VERSION = 4;
+    private static final int META_ROOT = 8;
+    private static final int META_PAGE_COUNT = 12;
+    private static final int META_NEXT_ID = 16;
+
+    private static final byte LEAF = 0;
+    private static final byte INTERNAL = 1;
+    private static final int NODE_TYPE = 0;
+    private static final int NODE_COUNT = 1;
+    private static final int NODE_NEXT_LEAF = 3;
+    private static final int NODE_HEADER = 16;
+
+    static final int LEAF_CAPACITY = (BufferPool.PAGE_SIZE - NODE_HEADER) / TaskRecordLayout.RECORD_SIZE;
+    static final int INTERNAL_CAPACITY = (BufferPool.PAGE_SIZE - NODE_HEADER - 4) / 8;
+
+    private static final int DEFAULT_CACHE_PAGES = 256;
+
+    /**
+     * A node split propagated to the parent: the separator key and the new right sibling.
+     */
+    private record Split(int key, int page) {}
+
+    /**
+     * A change of the tree, run by {@link #mutate(Mutation)}.
+     */
+    @FunctionalInterface
+    private interface Mutation<T> {
+        T run() throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final BufferPool pool;
+    private final TextHeap heap;
+    private final boolean forceEveryWrite;
+    private int root;
+    private int pageCount;
+    private int nextId;
+    /** Running task counts, built by the first {@link #getStats()} and then kept up to date; {@code null} before. */
+    private TaskCounters counters;
+
+    /**
+     * Constructs a BTreeSaver using the application configuration.
+     *
+     * @throws PersistenceException if the files cannot be opened or migrated.
+     */
+    public BTreeSaver() throws PersistenceException {
+        this(AppConfig.getInstance());
+    }
+
+    /**
+     * Constructs a BTreeSaver using the given configuration, migrating {@code json.file.path}
+     * if the tree file does not exist yet.
+     *
+     * @param appConfig the configuration.
+     * @throws PersistenceException if the files cannot be opened or migrated.
+     */
+    public BTreeSaver(AppConfig appConfig) throws PersistenceException {
+        Path jsonFile = Paths.get(appConfig.getProperty("json.file.path"));
+        Path treeFile = Paths.get(appConfig.getProperty("btree.file.path", jsonFile + ".btree"));
+        this.forceEveryWrite = !Durability.OS.name()
+                .equalsIgnoreCase(appConfig.getProperty("commit.durability", Durability.OS.name()));
+        try {
+            this.channel = FileChannel.open(treeFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Path heapFile = treeFile.resolveSibling(treeFile.getFileName() + ".text");
+            boolean fresh = readMagic() == 0;
+            if (fresh) {
+                // Empty, or left behind by a migration that did not finish: start over.
+                channel.truncate(0);
+                Files.deleteIfExists(heapFile);
+            }
+            this.pool = new BufferPool(channel, appConfig.getIntProperty("btree.cache.pages", DEFAULT_CACHE_PAGES));
+            this.heap = new TextHeap(heapFile);
+            if (fresh) {
+                root = 1;
+                pageCount = 2;
+                nextId = 1;
+                BufferPool.Page leaf = pool.allocate(root);
+                leaf.data().put(NODE_TYPE, LEAF);
+                pool.unpin(leaf);
+                migrate(jsonFile);
+                pool.flush();
+                heap.force();
+                channel.force(true);
+                // The meta page is written last, so a file is only taken as valid once its migration is complete.
+                writeMeta();
+                pool.flush();
+                channel.force(true);
+            } else {
+                BufferPool.Page meta = pool.pin(0);
+                ByteBuffer data = meta.data();
+                if (data.getInt(META_MAGIC) != MAGIC || data.getInt(META_VERSION) != VERSION) {
+                    throw new PersistenceException("Not a task tree file: " + treeFile);
+                }
+                root = data.getInt(META_ROOT);
+                pageCount = data.getInt(META_PAGE_COUNT);
+                nextId = data.getInt(META_NEXT_ID);
+                pool.unpin(meta);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Reads the magic number of the tree file, or {@code 0} if the file is too short to hold the meta page.
+     */
+    private int readMagic() throws IOException {
+        if (channel.size() < BufferPool.PAGE_SIZE) {
+            return 0;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+        channel.read(magic, META_MAGIC);
+        return magic.hasRemaining() ? 0 : magic.getInt(0);
+    }
+
+    private void migrate(Path jsonFile) throws IOException {
+        TaskStore store = FileSaver.readStore(jsonFile);
+        for (Task task : store.tasks()) {
+            if (task.getId() >= 1) {
+                insert(toRecord(task));
+            }
+        }
+        nextId = Math.max(nextId, store.getNextId());
+    }
+
+    private void writeMeta() throws IOException {
+        BufferPool.Page meta = pool.pin(0);
+        meta.markDirty();
+        ByteBuffer data = meta.data();
+        data.putInt(META_MAGIC, MAGIC);
+        data.putInt(META_VERSION, VERSION);
+        data.putInt(META_ROOT, root);
+        data.putInt(META_PAGE_COUNT, pageCount);
+        data.putInt(META_NEXT_ID, nextId);
+        pool.unpin(meta);
+    }
+
+    /**
+     * Runs a change of the tree and syncs it. If the change or the sync fails, the pages, the root, the page count
+     * and the next ID are put back as they were, so that no part of the change remains; the running counts are
+     * dropped and counted again on the next {@link #getStats()}. Descriptions already appended to the heap are
+     * left there unreferenced.
+     */
+    private <T> T mutate(Mutation<T> mutation) throws PersistenceException {
+        int oldRoot = root;
+        int oldPageCount = pageCount;
+        int oldNextId = nextId;
+        pool.begin();
+        boolean done = false;
+        try {
+            T result = mutation.run();
+            sync();
+            done = true;
+            return result;
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        } finally {
+            if (done) {
+                pool.commit();
+            } else {
+                pool.rollback();
+                root = oldRoot;
+                pageCount = oldPageCount;
+                nextId = oldNextId;
+                counters = null;
+            }
+        }
+    }
+
+    /**
+     * Writes the changed pages and then the meta page to the file, forcing it to disk if the durability asks for it.
+     * Descriptions are written to the heap as they are appended, so they are in the file before the pages that
+     * point to them.
+     */
+    private void sync() throws IOException {
+        writeMeta();
+        if (forceEveryWrite) {
+            heap.force();
+        }
+        pool.flush();
+        if (forceEveryWrite) {
+            channel.force(false);
+        }
+    }
+
+    // ---- node accessors ----
+
+    private static boolean isLeaf(ByteBuffer node) {
+        return node.get(NODE_TYPE) == LEAF;
+    }
+
+    private static int count(ByteBuffer node) {
+        return node.getShort(NODE_COUNT);
+    }
+
+    private static void setCount(ByteBuffer node, int count) {
+        node.putShort(NODE_COUNT, (short) count);
+    }
+
+    private static int recordAt(int index) {
+        return NODE_HEADER + index * TaskRecordLayout.RECORD_SIZE;
+    }
+
+    private static int leafKey(ByteBuffer leaf, int index) {
+        return leaf.getInt(recordAt(index) + TaskRecordLayout.ID);
+    }
+
+    private static int child(ByteBuffer node, int index) {
+        return node.getInt(NODE_HEADER + index * 8);
+    }
+
+    private static int internalKey(ByteBuffer node, int index) {
+        return node.getInt(NODE_HEADER + 4 + index * 8);
+    }
+
+    /**
+     * Binary search over the records of a leaf.
+     *
+     * @return the index of the key, or {@code -(insertionPoint + 1)} if absent.
+     */
+    private static int search(ByteBuffer leaf, int id) {
+        int low = 0;
+        int high = count(leaf) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int key = leafKey(leaf, mid);
+            if (key < id) {
+                low = mid + 1;
+            } else if (key > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Returns the index of the child of an internal node that covers the given ID.
+     */
+    private static int childIndex(ByteBuffer node, int id) {
+        int low = 0;
+        int high = count(node) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (internalKey(node, mid) <= id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Descends from the root to the leaf that covers the given ID and returns it pinned.
+     */
+    private BufferPool.Page findLeaf(int id) throws IOException {
+        BufferPool.Page page = pool.pin(root);
+        while (!isLeaf(page.data())) {
+            int next = child(page.data(), childIndex(page.data(), id));
+            pool.unpin(page);
+            page = pool.pin(next);
+        }
+        return page;
+    }
+
+    // ---- insertion ----
+
+    private void insert(TaskRecordLayout.TaskRecord record) throws IOException {
+        Split split = insert(root, record);
+        if (split != null) {
+            int newRoot = pageCount++;
+            BufferPool.Page page = pool.allocate(newRoot);
+            ByteBuffer node = page.data();
+            node.put(NODE_TYPE, INTERNAL);
+            setCount(node, 1);
+            node.putInt(NODE_HEADER, root);
+            node.putInt(NODE_HEADER + 4, split.key());
+            node.putInt(NODE_HEADER + 8, split.page());
+            pool.unpin(page);
+            root = newRoot;
+        }
+    }
+
+    private Split insert(int pageNumber, TaskRecordLayout.TaskRecord record) throws IOException {
+        BufferPool.Page page = pool.pin(pageNumber);
+        try {
+            ByteBuffer node = page.data();
+            if (isLeaf(node)) {
+                return insertIntoLeaf(page, record);
+            }
+            int index = childIndex(node, record.id());
+            Split split = insert(child(node, index), record);
+            return split == null ? null : insertIntoInternal(page, index, split);
+        } finally {
+            pool.unpin(page);
+        }
+    }
+
+    private Split insertIntoLeaf(BufferPool.Page page, TaskRecordLayout.TaskRecord record) throws IOException {
+        ByteBuffer leaf = page.data();
+        page.markDirty();
+        int position = search(leaf, record.id());
+        if (position >= 0) {
+            TaskRecordLayout.write(leaf, recordAt(position), record);
+            return null;
+        }
+        int index = -(position + 1);
+        int count = count(leaf);
+        if (count < LEAF_CAPACITY) {
+            shift(leaf, recordAt(index), recordAt(index + 1), (count - index) * TaskRecordLayout.RECORD_SIZE);
+            TaskRecordLayout.write(leaf, recordAt(index), record);
+            setCount(leaf, count + 1);
+            return null;
+        }
+
+        // Gather all records including the new one, then split. Appends at the right edge leave
+        // the left leaf full, so sequentially assigned IDs pack leaves densely.
+        ByteBuffer all = ByteBuffer.allocate((count + 1) * TaskRecordLayout.RECORD_SIZE);
+        all.put(0, leaf, recordAt(0), index * TaskRecordLayout.RECORD_SIZE);
+        TaskRecordLayout.write(all, index * TaskRecordLayout.RECORD_SIZE, record);
+        all.put((index + 1) * TaskRecordLayout.RECORD_SIZE, leaf, recordAt(index),
+                (count - index) * TaskRecordLayout.RECORD_SIZE);
+        boolean append = index == count && leaf.getInt(NODE_NEXT_LEAF) == 0;
+        int leftCount = append ? count : (count + 1) / 2;
+        int rightCount = count + 1 - leftCount;
+
+        int rightNumber = pageCount++;
+        BufferPool.Page right = pool.allocate(rightNumber);
+        try {
+            ByteBuffer rightLeaf = right.data();
+            rightLeaf.put(NODE_TYPE, LEAF);
+            rightLeaf.put(recordAt(0), all, leftCount * TaskRecordLayout.RECORD_SIZE,
+                    rightCount * TaskRecordLayout.RECORD_SIZE);
+            setCount(rightLeaf, rightCount);
+            rightLeaf.putInt(NODE_NEXT_LEAF, leaf.getInt(NODE_NEXT_LEAF));
+
+            leaf.put(recordAt(0), all, 0, leftCount * TaskRecordLayout.RECORD_SIZE);
+            setCount(leaf, leftCount);
+            leaf.putInt(NODE_NEXT_LEAF, rightNumber);
+            return new Split(leafKey(rightLeaf, 0), rightNumber);
+        } finally {
+            pool.unpin(right);
+        }
+    }
+
+    private Split insertIntoInternal(BufferPool.Page page, int index, Split split) throws IOException {
+        ByteBuffer node = page.data();
+        page.markDirty();
+        int count = count(node);
+        if (count < INTERNAL_CAPACITY) {
+            int from = NODE_HEADER + 4 + index * 8;
+            shift(node, from, from + 8, (count - index) * 8);
+            node.putInt(from, split.key());
+            node.putInt(from + 4, split.page());
+            setCount(node, count + 1);
+            return null;
+        }
+
+        int[] keys = new int[count + 1];
+        int[] children = new int[count + 2];
+        for (int i = 0, k = 0; i < count + 1; i++) {
+            keys[i] = i == index ? split.key() : internalKey(node, k++);
+        }
+        for (int i = 0, c = 0; i < count + 2; i++) {
+            children[i] = i == index + 1 ? split.page() : child(node, c++);
+        }
+        int middle = index == count ? count - 1 : (count + 1) / 2;
+
+        writeInternal(node, keys, children, 0, middle);
+        int rightNumber = pageCount++;
+        BufferPool.Page right = pool.allocate(rightNumber);
+        try {
+            ByteBuffer rightNode = right.data();
+            rightNode.put(NODE_TYPE, INTERNAL);
+            writeInternal(rightNode, keys, children, middle + 1, keys.length);
+        } finally {
+            pool.unpin(right);
+        }
+        return new Split(keys[middle], rightNumber);
+    }
+
+    /**
+     * Writes keys {@code [from, to)} and children {@code [from, to]} into an internal node.
+     */
+    private static void writeInternal(ByteBuffer node, int[] keys, int[] children, int from, int to) {
+        node.putInt(NODE_HEADER, children[from]);
+        for (int i = from; i < to; i++) {
+            node.putInt(NODE_HEADER + 4 + (i - from) * 8, keys[i]);
+            node.putInt(NODE_HEADER + 8 + (i - from) * 8, children[i + 1]);
+        }
+        setCount(node, to - from);
+    }
+
+    private static void shift(ByteBuffer node, int from, int to, int length) {
+        if (length > 0) {
+            node.put(to, node.duplicate(), from, length);
+        }
+    }
+
+    // ---- conversions ----
+
+    private TaskRecordLayout.TaskRecord toRecord(Task task) throws IOException {
+        TextHeap.Slice text = task.getTask() == null ? new TextHeap.Slice(-1, 0) : heap.append(task.getTask());
+        return new TaskRecordLayout.TaskRecord(task.getId(), task.getStatus(),
+                task.getCreatedAtNanos(), task.getUpdatedAtNanos(),
+                text.offset(), text.length());
+    }
+
+    private Task toTask(TaskRecordLayout.TaskRecord record) throws IOException {
+        String text = record.textOffset() < 0 ? null : heap.read(record.textOffset(), record.textLength());
+        return new Task(record.id(), record.status(), text, record.createdAt(), record.updatedAt());
+    }
+
+    // ---- TaskSaver ----
+
+    /**
+     * Adds a new task under the next ID.
+     *
+     * @param task the task to add (without ID).
+     * @return the created task with ID and timestamps.
+     * @throws PersistenceException if writing fails.
+     */
+    @Override
+    public synchronized Task addTask(Task task) throws PersistenceException {
+        return mutate(() -> create(task, Task.now()));
+    }
+
+    /**
+     * Removes a task from its leaf.
+     *
+     * @param taskId the ID of the task to delete.
+     * @return the ID of the deleted task.
+     * @throws PersistenceException if the task is not found or writing fails.
+     */
+    @Override
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        return mutate(() -> {
+            remove(taskId);
+            return taskId;
+        });
+    }
+
+    /**
+     * Updates a task in its leaf. A changed description is appended to the heap.
+     *
+     * @param task the task with updated fields.
+     * @return the updated task.
+     * @throws PersistenceException if the task is not found or writing fails.
+     */
+    @Override
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        return mutate(() -> change(task, Task.now()));
+    }
+
+    /**
+     * Adds several tasks under consecutive IDs and writes the tree once for the whole batch.
+     *
+     * @param tasks the tasks to add (without IDs).
+     * @return the created tasks, in the same order.
+     * @throws PersistenceException if writing fails; no task is added then.
+     */
+    @Override
+    public synchronized List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        long currentTime = Task.now();
+        return mutate(() -> {
+            List<Task> created = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                created.add(create(task, currentTime));
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Updates several tasks in their leaves and writes the tree once. All tasks are checked before any is changed.
+     *
+     * @param tasks the tasks with updated fields.
+     * @return the updated tasks, in the same order.
+     * @throws PersistenceException if a task is not found or writing fails; no task is changed then.
+     */
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        long currentTime = Task.now();
+        return mutate(() -> {
+            for (Task task : tasks) {
+                require(task.getId());
+            }
+            List<Task> updated = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                updated.add(change(task, currentTime));
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Removes several tasks from their leaves and writes the tree once. All IDs are checked first.
+     *
+     * @param taskIds the IDs of the tasks to delete; repeated IDs count once.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task is not found or writing fails; no task is deleted then.
+     */
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        return mutate(() -> {
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (int taskId : taskIds) {
+                require(taskId);
+                ids.add(taskId);
+            }
+            for (int taskId : ids) {
+                remove(taskId);
+            }
+            return ids.size();
+        });
+    }
+
+    private void require(int id) throws IOException {
+        BufferPool.Page page = findLeaf(id);
+        try {
+            if (search(page.data(), id) < 0) {
+                throw new PersistenceException("Task with id: " + id + " not found.");
+            }
+        } finally {
+            pool.unpin(page);
+        }
+    }
+
+    /**
+     * Inserts a new task under the next ID, without writing the tree.
+     */
+    private Task create(Task task, long currentTime) throws IOException {
+        Task created = new Task(nextId, task.getStatus(), task.getTask(), currentTime, currentTime);
+        insert(toRecord(created));
+        if (counters != null) {
+            counters.add(created);
+        }
+        nextId++;
+        return created;
+    }
+
+    /**
+     * Removes a task from its leaf, without writing the tree.
+     */
+    private void remove(int taskId) throws IOException {
+        BufferPool.Page page = findLeaf(taskId);
+        try {
+            ByteBuffer leaf = page.data();
+            int index = search(leaf, taskId);
+            if (index < 0) {
+                throw new PersistenceException("Task with id: " + taskId + " not found.");
+            }
+            if (counters != null) {
+                TaskRecordLayout.TaskRecord record = TaskRecordLayout.read(leaf, recordAt(index));
+                counters.remove(taskId, record.status(), record.createdAt(), record.updatedAt());
+            }
+            page.markDirty();
+            int count = count(leaf);
+            shift(leaf, recordAt(index + 1), recordAt(index), (count - index - 1) * TaskRecordLayout.RECORD_SIZE);
+            setCount(leaf, count - 1);
+        } finally {
+            pool.unpin(page);
+        }
+    }
+
+    /**
+     * Updates a task in its leaf, without writing the tree.
+     */
+    private Task change(Task task, long currentTime) throws IOException {
+        BufferPool.Page page = findLeaf(task.getId());
+        try {
+            ByteBuffer leaf = page.data();
+            int index = search(leaf, task.getId());
+            if (index < 0) {
+                throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+            }
+            int at = recordAt(index);
+            page.markDirty();
+            TaskRecordLayout.TaskRecord record = TaskRecordLayout.read(leaf, at);
+            String current = record.textOffset() < 0 ? null : heap.read(record.textOffset(), record.textLength());
+            if (!Objects.equals(current, task.getTask())) {
+                TextHeap.Slice text = task.getTask() == null ? new TextHeap.Slice(-1, 0)
+                        : heap.append(task.getTask());
+                leaf.putLong(at + TaskRecordLayout.TEXT_OFFSET, text.offset());
+                leaf.putInt(at + TaskRecordLayout.TEXT_LENGTH, text.length());
+            }
+            leaf.put(at + TaskRecordLayout.STATUS, TaskRecordLayout.encodeStatus(task.getStatus()));
+            leaf.putLong(at + TaskRecordLayout.UPDATED_AT, currentTime);
+            Task updated = toTask(TaskRecordLayout.read(leaf, at));
+            if (counters != null) {
+                counters.replace(record.id(), record.status(), record.createdAt(), record.updatedAt(),
+                        updated.getStatus(), updated.getCreatedAtNanos(), updated.getUpdatedAtNanos());
+            }
+            return updated;
+        } finally {
+            pool.unpin(page);
+        }
+    }
+
+    /**
+     * Retrieves a task by ID with a single root-to-leaf descent.
+     *
+     * @param id the ID of the task.
+     * @return the task with the given ID.
+     * @throws NoSuchElementException if no task is found.
+     */
+    @Override
+    public synchronized Task getTask(int id) throws NoSuchElementException {
+        try {
+            BufferPool.Page page = findLeaf(id);
+            try {
+                int index = search(page.data(), id);
+                if (index < 0) {
+                    throw new NoSuchElementException(String.format("Task with %d not found", id));
+                }
+                return toTask(TaskRecordLayout.read(page.data(), recordAt(index)));
+            } finally {
+                pool.unpin(page);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns all tasks in ID order by walking the leaf chain.
+     *
+     * @return the task list.
+     */
+    @Override
+    public synchronized List<Task> getTasks() {
+        return scan(Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the tasks with IDs in {@code [fromId, toId]} in ID order, visiting only the leaves in that range.
+     *
+     * @param fromId the smallest ID to include.
+     * @param toId   the largest ID to include.
+     * @return the tasks in range.
+     */
+    public synchronized List<Task> getTasksInRange(int fromId, int toId) {
+        return scan(fromId, toId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns one page of tasks, descending to the leaf that holds the cursor and following the leaf chain.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return up to {@code limit} tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasks(int afterId, int limit) {
+        if (afterId == Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return scan(afterId + 1, Integer.MAX_VALUE, limit);
+    }
+
+    private List<Task> scan(int fromId, int toId, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        if (limit <= 0) {
+            return tasks;
+        }
+        try {
+            BufferPool.Page page = findLeaf(fromId);
+            while (page != null) {
+                ByteBuffer leaf = page.data();
+                int count = count(leaf);
+                int start = search(leaf, fromId);
+                for (int i = start >= 0 ? start : -(start + 1); i < count; i++) {
+                    if (leafKey(leaf, i) > toId || tasks.size() >= limit) {
+                        pool.unpin(page);
+                        return tasks;
+                    }
+                    tasks.add(toTask(TaskRecordLayout.read(leaf, recordAt(i))));
+                }
+                int next = leaf.getInt(NODE_NEXT_LEAF);
+                pool.unpin(page);
+                page = next == 0 ? null : pool.pin(next);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the running task counts. The first call counts the tasks in one pass over the leaves, reading only
+     * the fixed-size fields of their records and neither building tasks nor reading descriptions; after that the
+     * counts are updated by every mutation, so the tree is not scanned again.
+     *
+     * @return the statistics.
+     */
+    @Override
+    public synchronized TaskStats getStats() {
+        if (counters == null) {
+            TaskCounters counted = new TaskCounters();
+            try {
+                BufferPool.Page page = findLeaf(Integer.MIN_VALUE);
+                while (page != null) {
+                    ByteBuffer leaf = page.data();
+                    for (int i = 0, count = count(leaf); i < count; i++) {
+                        int at = recordAt(i);
+                        counted.add(leaf.getInt(at + TaskRecordLayout.ID),
+                                TaskRecordLayout.decodeStatus(leaf.get(at + TaskRecordLayout.STATUS)),
+                                leaf.getLong(at + TaskRecordLayout.CREATED_AT),
+                                leaf.getLong(at + TaskRecordLayout.UPDATED_AT));
+                    }
+                    int next = leaf.getInt(NODE_NEXT_LEAF);
+                    pool.unpin(page);
+                    page = next == 0 ? null : pool.pin(next);
+                }
+            } catch (IOException e) {
+                throw new PersistenceException(e);
+            }
+            counters = counted;
+        }
+        return counters.stats();
+    }
+
+    /**
+     * Returns the buffer pool, e.g. to inspect its hit and miss counters.
+     *
+     * @return the buffer pool.
+     */
+    public BufferPool getBufferPool() {
+        return pool;
+    }
+
+    /**
+     * Writes all dirty pages, forces the files to disk and closes them.
+     *
+     * @throws PersistenceException if writing or closing fails.
+     */
+    @Override
+    public synchronized void close() throws PersistenceException {
+        try {
+            writeMeta();
+            pool.flush();
+            heap.force();
+            channel.force(true);
+            heap.close();
+            channel.close();
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+}
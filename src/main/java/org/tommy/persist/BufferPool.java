@@ -0,0 +1,265 @@
+package org.tommy.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A fixed-size cache of file pages with least-recently-used eviction.
+ *
+ * Callers {@link #pin(int)} a page while they work on it and {@link #unpin(Page)} it afterwards; pinned pages
+ * are never evicted. Dirty pages are written back when they are evicted or on {@link #flush()}, so heap usage
+ * stays at roughly {@code capacity * PAGE_SIZE} bytes regardless of the file size.
+ *
+ * Changes between {@link #begin()} and {@link #commit()} can be taken back with {@link #rollback()}: the first
+ * {@link Page#markDirty()} of a page keeps a copy of its contents, so callers mark a page dirty before changing
+ * it. Pages changed since {@code begin()} are not evicted, so the file never holds half of a change.
+ *
+ * Not thread-safe; the owning storage engine serializes access.
+ */
+public class BufferPool {
+
+    /** Size of a page in bytes. */
+    public static final int PAGE_SIZE = 4096;
+
+    /**
+     * A cached page.
+     */
+    public static final class Page {
+        private final BufferPool pool;
+        private final int number;
+        private final ByteBuffer data;
+        private boolean dirty;
+        private int pins;
+
+        private Page(BufferPool pool, int number, ByteBuffer data) {
+            this.pool = pool;
+            this.number = number;
+            this.data = data;
+        }
+
+        /**
+         * Returns the page number within the file.
+         *
+         * @return the page number.
+         */
+        public int number() {
+            return number;
+        }
+
+        /**
+         * Returns the page contents. Absolute accessors should be used; the position is not meaningful.
+         *
+         * @return the page buffer.
+         */
+        public ByteBuffer data() {
+            return data;
+        }
+
+        /**
+         * Marks the page as modified so it is written back before being evicted. Within a change started with
+         * {@link BufferPool#begin()}, this must be called before the page is modified.
+         */
+        public void markDirty() {
+            if (pool.saved != null && !pool.saved.containsKey(number)) {
+                byte[] contents = new byte[PAGE_SIZE];
+                data.get(0, contents);
+                pool.saved.put(number, contents);
+            }
+            dirty = true;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int capacity;
+    private final LinkedHashMap<Integer, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Contents of the pages changed since {@link #begin()} as they were before, by page number, with {@code null}
+     * for pages allocated since; {@code null} outside a change.
+     */
+    private Map<Integer, byte[]> saved;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a buffer pool over the given file.
+     *
+     * @param channel  the file holding the pages.
+     * @param capacity the maximum number of unpinned pages kept in memory.
+     */
+    public BufferPool(FileChannel channel, int capacity) {
+        this.channel = channel;
+        this.capacity = Math.max(2, capacity);
+    }
+
+    /**
+     * Returns the given page, reading it from the file if it is not cached, and pins it.
+     * Pages past the end of the file read as zeros.
+     *
+     * @param number the page number.
+     * @return the pinned page.
+     * @throws IOException if the page cannot be read or a dirty victim cannot be written back.
+     */
+    public Page pin(int number) throws IOException {
+        Page page = pages.get(number);
+        if (page != null) {
+            hits++;
+        } else {
+            misses++;
+            evictIfFull();
+            ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+            long position = (long) number * PAGE_SIZE;
+            while (data.hasRemaining()) {
+                if (channel.read(data, position + data.position()) < 0) {
+                    break;
+                }
+            }
+            page = new Page(this, number, data);
+            pages.put(number, page);
+        }
+        page.pins++;
+        return page;
+    }
+
+    /**
+     * Adds a new, zeroed page to the cache without reading it, pins it and marks it dirty.
+     *
+     * @param number the page number.
+     * @return the pinned page.
+     * @throws IOException if a dirty victim cannot be written back.
+     */
+    public Page allocate(int number) throws IOException {
+        evictIfFull();
+        Page page = new Page(this, number, ByteBuffer.allocate(PAGE_SIZE));
+        page.dirty = true;
+        if (saved != null) {
+            saved.put(number, null);
+        }
+        page.pins = 1;
+        pages.put(number, page);
+        return page;
+    }
+
+    /**
+     * Releases a page obtained from {@link #pin(int)} or {@link #allocate(int)}.
+     *
+     * @param page the page to release.
+     */
+    public void unpin(Page page) {
+        page.pins--;
+    }
+
+    private void evictIfFull() throws IOException {
+        Iterator<Map.Entry<Integer, Page>> iterator = pages.entrySet().iterator();
+        while (pages.size() >= capacity && iterator.hasNext()) {
+            Page victim = iterator.next().getValue();
+            if (victim.pins > 0 || saved != null && saved.containsKey(victim.number)) {
+                continue;
+            }
+            if (victim.dirty) {
+                write(victim);
+            }
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private void write(Page page) throws IOException {
+        ByteBuffer data = page.data.duplicate().clear();
+        long position = (long) page.number * PAGE_SIZE;
+        while (data.hasRemaining()) {
+            channel.write(data, position + data.position());
+        }
+        page.dirty = false;
+    }
+
+    /**
+     * Starts a change that can be taken back with {@link #rollback()}.
+     */
+    public void begin() {
+        saved = new HashMap<>();
+    }
+
+    /**
+     * Ends the change started with {@link #begin()}, keeping its pages. They stay dirty until written back.
+     */
+    public void commit() {
+        saved = null;
+    }
+
+    /**
+     * Puts the pages changed since {@link #begin()} back as they were and drops the pages allocated since.
+     * The restored pages are left dirty, so that they overwrite whatever of the change reached the file.
+     */
+    public void rollback() {
+        for (Map.Entry<Integer, byte[]> entry : saved.entrySet()) {
+            if (entry.getValue() == null) {
+                pages.remove(entry.getKey());
+            } else {
+                Page page = pages.get(entry.getKey());
+                page.data.put(0, entry.getValue());
+                page.dirty = true;
+            }
+        }
+        saved = null;
+    }
+
+    /**
+     * Writes all dirty pages back to the file. Page 0, which holds the header of the file, is written last, so
+     * that it never points to pages that are not written yet.
+     *
+     * @throws IOException if writing fails.
+     */
+    public void flush() throws IOException {
+        for (Page page : pages.values()) {
+            if (page.dirty && page.number != 0) {
+                write(page);
+            }
+        }
+        Page header = pages.get(0);
+        if (header != null && header.dirty) {
+            write(header);
+        }
+    }
+
+    /**
+     * Returns the number of pages currently cached.
+     *
+     * @return the number of cached pages.
+     */
+    public int size() {
+        return pages.size();
+    }
+
+    /**
+     * Returns the number of page requests served from the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of page requests that had to read the file.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of pages evicted to make room for others.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,11 @@
+package org.tommy.persist;
+
+/**
+ * Eviction policies of {@link CachingTaskSaver}.
+ */
+public enum CachePolicy {
+    /** Evicts the task that was read least recently. */
+    LRU,
+    /** Evicts the task that was read least often, the least recently cached one among equals. */
+    LFU
+}
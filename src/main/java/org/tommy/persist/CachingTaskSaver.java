@@ -0,0 +1,372 @@
+package org.tommy.persist;
+
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A {@link TaskSaver} decorator that keeps recently read tasks in a bounded in-memory cache, so that repeated
+ * {@link #getTask(int)} calls do not reach a slow store such as the database or the B+tree.
+ *
+ * The cache holds at most {@code capacity} tasks and evicts by {@link CachePolicy}. Mutations are written
+ * through to the wrapped store first and then drop the affected tasks from the cache, so the next read fetches
+ * the stored version. Tasks are immutable, so cached instances are handed out as they are. Only
+ * {@link #getTask(int)} is cached; listings, filters and searches go to the wrapped store as they are.
+ *
+ * Changes made to the store behind the decorator's back, such as another process writing the JSON file, are not
+ * seen until the task is evicted or changed through the decorator. Stale tasks are still caught on update by the
+ * stores that check {@code updatedAt}.
+ *
+ * Thread-safe.
+ */
+public class CachingTaskSaver implements TaskSaver {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * A cached task and the number of times it has been read.
+     */
+    private static final class Entry {
+        private final Task task;
+        private int frequency = 1;
+
+        private Entry(Task task) {
+            this.task = task;
+        }
+    }
+
+    private final TaskSaver delegate;
+    private final int capacity;
+    private final CachePolicy policy;
+    private final Map<Integer, Entry> entries;
+    /** Cached IDs by read count, each set in caching order; only used for {@link CachePolicy#LFU}. */
+    private final TreeMap<Integer, LinkedHashSet<Integer>> frequencies = new TreeMap<>();
+    /** Counts the mutations, so that a read racing with one does not cache the task it loaded before it. */
+    private long writes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Wraps a task saver using the {@code cache.size} and {@code cache.policy} settings of the given configuration.
+     *
+     * @param delegate  the task saver to cache.
+     * @param appConfig the configuration.
+     * @throws PersistenceException if the policy is unknown.
+     */
+    public CachingTaskSaver(TaskSaver delegate, AppConfig appConfig) throws PersistenceException {
+        this(delegate, appConfig.getIntProperty("cache.size", DEFAULT_CAPACITY), policyOf(appConfig));
+    }
+
+    /**
+     * Wraps a task saver.
+     *
+     * @param delegate the task saver to cache.
+     * @param capacity the maximum number of cached tasks.
+     * @param policy   the eviction policy.
+     */
+    public CachingTaskSaver(TaskSaver delegate, int capacity, CachePolicy policy) {
+        this.delegate = delegate;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.entries = policy == CachePolicy.LRU ? new LinkedHashMap<>(16, 0.75f, true) : new HashMap<>();
+    }
+
+    private static CachePolicy policyOf(AppConfig appConfig) {
+        String policy = appConfig.getProperty("cache.policy", CachePolicy.LRU.name());
+        try {
+            return CachePolicy.valueOf(policy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new PersistenceException("Unknown cache policy: " + policy);
+        }
+    }
+
+    /**
+     * Returns the cached task with the given ID and counts the read, or {@code null} if it is not cached.
+     */
+    private Task lookup(int id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (policy == CachePolicy.LFU) {
+            unlink(id, entry);
+            entry.frequency++;
+            frequencies.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<>()).add(id);
+        }
+        return entry.task;
+    }
+
+    private void store(Task task) {
+        if (entries.size() >= capacity) {
+            evict();
+        }
+        entries.put(task.getId(), new Entry(task));
+        if (policy == CachePolicy.LFU) {
+            frequencies.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(task.getId());
+        }
+    }
+
+    private void evict() {
+        int victim;
+        if (policy == CachePolicy.LRU) {
+            victim = entries.keySet().iterator().next();
+        } else {
+            victim = frequencies.firstEntry().getValue().iterator().next();
+        }
+        invalidate(victim);
+        evictions++;
+    }
+
+    /**
+     * Drops a changed task from the cache and marks reads still in flight as stale.
+     */
+    private void written(int id) {
+        writes++;
+        invalidate(id);
+    }
+
+    private void invalidate(int id) {
+        Entry entry = entries.remove(id);
+        if (entry != null && policy == CachePolicy.LFU) {
+            unlink(id, entry);
+        }
+    }
+
+    private void unlink(int id, Entry entry) {
+        LinkedHashSet<Integer> ids = frequencies.get(entry.frequency);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            frequencies.remove(entry.frequency);
+        }
+    }
+
+    /**
+     * Adds a task to the wrapped store; it is cached once it is read.
+     *
+     * @param task the task to add.
+     * @return the created task.
+     * @throws PersistenceException if the wrapped store fails.
+     */
+    @Override
+    public Task addTask(Task task) throws PersistenceException {
+        return delegate.addTask(task);
+    }
+
+    /**
+     * Deletes a task from the wrapped store and from the cache.
+     *
+     * @param taskId the ID of the task to delete.
+     * @return the ID of the deleted task.
+     * @throws PersistenceException if the wrapped store fails.
+     */
+    @Override
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        try {
+            return delegate.deleteTask(taskId);
+        } finally {
+            written(taskId);
+        }
+    }
+
+    /**
+     * Updates a task in the wrapped store and drops it from the cache.
+     *
+     * @param task the task with updated fields.
+     * @return the updated task.
+     * @throws PersistenceException if the wrapped store fails.
+     */
+    @Override
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        try {
+            return delegate.updateTask(task);
+        } finally {
+            written(task.getId());
+        }
+    }
+
+    @Override
+    public List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        return delegate.addTasks(tasks);
+    }
+
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        try {
+            return delegate.updateTasks(tasks);
+        } finally {
+            tasks.forEach(task -> written(task.getId()));
+        }
+    }
+
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        try {
+            return delegate.deleteTasks(taskIds);
+        } finally {
+            for (int id : taskIds) {
+                written(id);
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Task> updateStatus(Status status, int... taskIds) throws PersistenceException {
+        try {
+            return delegate.updateStatus(status, taskIds);
+        } finally {
+            for (int id : taskIds) {
+                written(id);
+            }
+        }
+    }
+
+    /**
+     * Returns a task from the cache, or reads it from the wrapped store and caches it. The wrapped store is read
+     * without holding the cache's lock, so a slow read does not hold up hits on other tasks; the task is only
+     * cached if no mutation went through the decorator while it was read.
+     *
+     * @param id the ID of the task.
+     * @return the task with the given ID.
+     * @throws NoSuchElementException if the wrapped store has no such task.
+     */
+    @Override
+    public Task getTask(int id) throws NoSuchElementException {
+        long version;
+        synchronized (this) {
+            Task task = lookup(id);
+            if (task != null) {
+                hits++;
+                return task;
+            }
+            misses++;
+            version = writes;
+        }
+        Task task = delegate.getTask(id);
+        synchronized (this) {
+            if (task != null && version == writes && !entries.containsKey(id)) {
+                store(task);
+            }
+        }
+        return task;
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return delegate.getTasks();
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return delegate.getTasks(afterId, limit);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return delegate.streamTasks();
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return delegate.getTasksByStatus(status);
+    }
+
+    @Override
+    public List<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.getTasksCreatedBetween(from, to);
+    }
+
+    @Override
+    public List<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.getTasksUpdatedBetween(from, to);
+    }
+
+    @Override
+    public List<Task> getRecentlyUpdated(int limit) {
+        return delegate.getRecentlyUpdated(limit);
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        return delegate.snapshot();
+    }
+
+    @Override
+    public List<Task> search(String query) {
+        return delegate.search(query);
+    }
+
+    @Override
+    public TaskStats getStats() {
+        return delegate.getStats();
+    }
+
+    /**
+     * Empties the cache and closes the wrapped store.
+     *
+     * @throws PersistenceException if the wrapped store cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws PersistenceException {
+        entries.clear();
+        frequencies.clear();
+        delegate.close();
+    }
+
+    /**
+     * Returns the wrapped task saver.
+     *
+     * @return the wrapped task saver.
+     */
+    public TaskSaver getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns the number of tasks currently cached.
+     *
+     * @return the number of cached tasks.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of reads served from the cache.
+     *
+     * @return the hit count.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of reads that went to the wrapped store.
+     *
+     * @return the miss count.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of tasks evicted to make room for others.
+     *
+     * @return the eviction count.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,413 @@
+package org.tommy.persist;
+
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A struct-of-arrays variant of {@link TaskStore} that holds tasks in parallel primitive columns.
+ *
+ * Each task is a row: its ID, status ordinal, {@code createdAt} and {@code updatedAt} as epoch nanoseconds
+ * (encoded as by {@link TaskRecordLayout}), and the offset and length of its UTF-8 description in a shared
+ * byte arena. A row costs 30 bytes plus the description, instead of a {@code Task} with its {@code String}
+ * and two {@code LocalDateTime} objects. Rows are kept contiguous (a delete moves the last row into the hole),
+ * so status and time scans walk plain arrays.
+ *
+ * Rows are read through a reusable {@link Row} flyweight; {@link Row#toTask()} materializes a {@code Task}
+ * when one is needed. Updated descriptions are appended to the arena, which is compacted once more than
+ * half of it is garbage.
+ *
+ * Not thread-safe; callers serialize access.
+ */
+public class ColumnarTaskStore {
+
+    private static final int INITIAL_ROWS = 64;
+    private static final int MIN_COMPACTION_BYTES = 4096;
+
+    private int nextId;
+    private int rows;
+    private int[] ids = new int[INITIAL_ROWS];
+    private byte[] statuses = new byte[INITIAL_ROWS];
+    private long[] createdAt = new long[INITIAL_ROWS];
+    private long[] updatedAt = new long[INITIAL_ROWS];
+    private int[] textOffsets = new int[INITIAL_ROWS];
+    private int[] textLengths = new int[INITIAL_ROWS];
+    private byte[] arena = new byte[INITIAL_ROWS * 32];
+    private int arenaLength;
+    private int arenaGarbage;
+    private int[] rowOf = new int[INITIAL_ROWS];
+    private final Map<Integer, Integer> sparseRows = new HashMap<>();
+
+    /**
+     * A flyweight view of one row. The same instance is repositioned between rows during a scan, so it must
+     * not be kept; call {@link #toTask()} to keep a task.
+     */
+    public final class Row {
+        private int row;
+
+        private Row at(int row) {
+            this.row = row;
+            return this;
+        }
+
+        /**
+         * Returns the ID of the current row.
+         *
+         * @return the task ID.
+         */
+        public int getId() {
+            return ids[row];
+        }
+
+        /**
+         * Returns the status of the current row.
+         *
+         * @return the status.
+         */
+        public Status getStatus() {
+            return TaskRecordLayout.decodeStatus(statuses[row]);
+        }
+
+        /**
+         * Returns the description of the current row.
+         *
+         * @return the description, decoded from the arena.
+         */
+        public String getTask() {
+            return textOffsets[row] < 0 ? null
+                    : new String(arena, textOffsets[row], textLengths[row], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the creation time of the current row.
+         *
+         * @return the creation time.
+         */
+        public LocalDateTime getCreatedAt() {
+            return Task.fromEpochNanos(createdAt[row]);
+        }
+
+        /**
+         * Returns the last update time of the current row.
+         *
+         * @return the last update time.
+         */
+        public LocalDateTime getUpdatedAt() {
+            return Task.fromEpochNanos(updatedAt[row]);
+        }
+
+        /**
+         * Copies the row into a new {@code Task}.
+         *
+         * @return the materialized task.
+         */
+        public Task toTask() {
+            return new Task(getId(), getStatus(), getTask(), createdAt[row], updatedAt[row]);
+        }
+    }
+
+    public ColumnarTaskStore() {
+        this.nextId = 1;
+    }
+
+    /**
+     * Builds a columnar store from the given tasks.
+     *
+     * @param nextId the next task ID to assign.
+     * @param tasks  the tasks to copy into columns.
+     */
+    public ColumnarTaskStore(int nextId, Collection<Task> tasks) {
+        this.nextId = nextId;
+        for (Task task : tasks) {
+            addTask(task);
+        }
+    }
+
+    /**
+     * Returns the next available task ID.
+     *
+     * @return the next ID.
+     */
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Sets the next task ID.
+     *
+     * @param nextId the ID to be set.
+     */
+    public void setNextId(int nextId) {
+        this.nextId = nextId;
+    }
+
+    /**
+     * Returns the number of tasks.
+     *
+     * @return the task count.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Adds a task as a new row.
+     *
+     * @param task the task to add.
+     * @return true if the task was added, false if a task with its ID already exists.
+     */
+    public boolean addTask(Task task) {
+        if (rowFor(task.getId()) >= 0) {
+            return false;
+        }
+        if (rows == ids.length) {
+            growRows();
+        }
+        int row = rows++;
+        ids[row] = task.getId();
+        write(row, task);
+        setRow(task.getId(), row);
+        return true;
+    }
+
+    /**
+     * Overwrites the row of an existing task with the task's current fields.
+     *
+     * @param task the task with updated fields.
+     * @return true if the task exists, false otherwise.
+     */
+    public boolean updateTask(Task task) {
+        int row = rowFor(task.getId());
+        if (row < 0) {
+            return false;
+        }
+        arenaGarbage += textLengths[row];
+        write(row, task);
+        compactArenaIfWasteful();
+        return true;
+    }
+
+    /**
+     * Deletes the row of a task, moving the last row into its place.
+     *
+     * @param id the task ID.
+     * @return true if the task existed.
+     */
+    public boolean deleteTask(int id) {
+        int row = rowFor(id);
+        if (row < 0) {
+            return false;
+        }
+        arenaGarbage += textLengths[row];
+        int last = --rows;
+        if (row != last) {
+            ids[row] = ids[last];
+            statuses[row] = statuses[last];
+            createdAt[row] = createdAt[last];
+            updatedAt[row] = updatedAt[last];
+            textOffsets[row] = textOffsets[last];
+            textLengths[row] = textLengths[last];
+            setRow(ids[row], row);
+        }
+        setRow(id, -1);
+        compactArenaIfWasteful();
+        return true;
+    }
+
+    /**
+     * Returns a task materialized from its row.
+     *
+     * @param id the task ID.
+     * @return the task, or {@code null} if there is none.
+     */
+    public Task getTask(int id) {
+        int row = rowFor(id);
+        return row < 0 ? null : new Row().at(row).toTask();
+    }
+
+    /**
+     * Counts the tasks with the given status by scanning the status column.
+     *
+     * @param status the status.
+     * @return the number of matching tasks.
+     */
+    public int countByStatus(Status status) {
+        byte wanted = TaskRecordLayout.encodeStatus(status);
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] == wanted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visits every row with the given status.
+     *
+     * @param status  the status.
+     * @param visitor receives the flyweight positioned on each matching row.
+     */
+    public void forEachWithStatus(Status status, Consumer<Row> visitor) {
+        byte wanted = TaskRecordLayout.encodeStatus(status);
+        Row view = new Row();
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] == wanted) {
+                visitor.accept(view.at(row));
+            }
+        }
+    }
+
+    /**
+     * Visits every row last updated in the given range, scanning only the {@code updatedAt} column.
+     *
+     * @param from    the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to      the exclusive upper bound, or {@code null} for no upper bound.
+     * @param visitor receives the flyweight positioned on each matching row.
+     */
+    public void forEachUpdatedBetween(LocalDateTime from, LocalDateTime to, Consumer<Row> visitor) {
+        long lower = from == null ? Long.MIN_VALUE + 1 : Task.toEpochNanos(from);
+        long upper = to == null ? Long.MAX_VALUE : Task.toEpochNanos(to);
+        Row view = new Row();
+        for (int row = 0; row < rows; row++) {
+            long time = updatedAt[row];
+            if (time != TaskRecordLayout.NO_TIME && time >= lower && time < upper) {
+                visitor.accept(view.at(row));
+            }
+        }
+    }
+
+    /**
+     * Visits every row in storage order.
+     *
+     * @param visitor receives the flyweight positioned on each row.
+     */
+    public void forEach(Consumer<Row> visitor) {
+        Row view = new Row();
+        for (int row = 0; row < rows; row++) {
+            visitor.accept(view.at(row));
+        }
+    }
+
+    /**
+     * Materializes all tasks, in ID order.
+     *
+     * @return a new list of tasks.
+     */
+    public List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>(rows);
+        forEach(row -> tasks.add(row.toTask()));
+        tasks.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return tasks;
+    }
+
+    /**
+     * Converts the columns back into a row-oriented {@link TaskStore}.
+     *
+     * @return a new task store holding copies of all tasks.
+     */
+    public TaskStore toTaskStore() {
+        return new TaskStore(nextId, getTasks());
+    }
+
+    /**
+     * Returns the number of bytes held by the columns, the arena and the ID index.
+     *
+     * @return the approximate heap footprint of the data.
+     */
+    public long getHeapBytes() {
+        long perRow = Integer.BYTES * 3L + Byte.BYTES + Long.BYTES * 2L;
+        return perRow * ids.length + arena.length + (long) Integer.BYTES * rowOf.length;
+    }
+
+    private void write(int row, Task task) {
+        statuses[row] = TaskRecordLayout.encodeStatus(task.getStatus());
+        createdAt[row] = task.getCreatedAtNanos();
+        updatedAt[row] = task.getUpdatedAtNanos();
+        if (task.getTask() == null) {
+            textOffsets[row] = -1;
+            textLengths[row] = 0;
+            return;
+        }
+        byte[] text = task.getTask().getBytes(StandardCharsets.UTF_8);
+        if (arenaLength + text.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + text.length));
+        }
+        System.arraycopy(text, 0, arena, arenaLength, text.length);
+        textOffsets[row] = arenaLength;
+        textLengths[row] = text.length;
+        arenaLength += text.length;
+    }
+
+    private void compactArenaIfWasteful() {
+        if (arenaGarbage < MIN_COMPACTION_BYTES || arenaGarbage * 2 < arenaLength) {
+            return;
+        }
+        byte[] compacted = new byte[Math.max(INITIAL_ROWS, arenaLength - arenaGarbage)];
+        int length = 0;
+        for (int row = 0; row < rows; row++) {
+            if (textOffsets[row] < 0) {
+                continue;
+            }
+            System.arraycopy(arena, textOffsets[row], compacted, length, textLengths[row]);
+            textOffsets[row] = length;
+            length += textLengths[row];
+        }
+        arena = compacted;
+        arenaLength = length;
+        arenaGarbage = 0;
+    }
+
+    private void growRows() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        textOffsets = Arrays.copyOf(textOffsets, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+    }
+
+    private int rowFor(int id) {
+        if (id >= 0 && id < rowOf.length) {
+            return rowOf[id] - 1;
+        }
+        Integer row = sparseRows.get(id);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Records the row of an ID in the ID index; {@code -1} removes it. IDs are indexed by a direct array
+     * while they stay within a few times the number of rows, and by a map otherwise.
+     */
+    private void setRow(int id, int row) {
+        if (id >= 0 && id >= rowOf.length && id < Math.max(nextId, rows) * 2L + INITIAL_ROWS) {
+            rowOf = Arrays.copyOf(rowOf, Math.max(id + 1, rowOf.length * 2));
+            sparseRows.entrySet().removeIf(entry -> {
+                int sparseId = entry.getKey();
+                if (sparseId >= 0 && sparseId < rowOf.length) {
+                    rowOf[sparseId] = entry.getValue() + 1;
+                    return true;
+                }
+                return false;
+            });
+        }
+        if (id >= 0 && id < rowOf.length) {
+            rowOf[id] = row + 1;
+            sparseRows.remove(id);
+        } else if (row < 0) {
+            sparseRows.remove(id);
+        } else {
+            sparseRows.put(id, row);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.tommy.persist;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Deduplicates task descriptions, so that tasks with the same text share a single {@link String}.
+ *
+ * Recurring and templated tasks ("Deploy service X") repeat the same description many times; interning
+ * them keeps one copy per distinct text instead of one per task. The pool only holds its entries weakly,
+ * so a description disappears from it once no task refers to it any more and no reference counting is
+ * needed when tasks change or are deleted.
+ *
+ * The canonical strings use the JDK's compact string representation, one byte per character for
+ * Latin-1 text, which covers nearly all descriptions; the shared instance also caches its hash code,
+ * which makes repeated lookups by the serializer cheap.
+ *
+ * Thread-safe.
+ */
+public class DescriptionPool {
+
+    private final WeakHashMap<String, WeakReference<String>> canonical = new WeakHashMap<>();
+    private long lookups;
+    private long hits;
+
+    /**
+     * Returns the shared instance of a description, adding it to the pool if it is new.
+     *
+     * @param description the description; may be {@code null}.
+     * @return the pooled string equal to {@code description}, or {@code null}.
+     */
+    public synchronized String intern(String description) {
+        if (description == null) {
+            return null;
+        }
+        lookups++;
+        WeakReference<String> reference = canonical.get(description);
+        String pooled = reference == null ? null : reference.get();
+        if (pooled != null) {
+            hits++;
+            return pooled;
+        }
+        canonical.put(description, new WeakReference<>(description));
+        return description;
+    }
+
+    /**
+     * Returns the number of distinct descriptions currently in the pool.
+     *
+     * @return the number of pooled descriptions.
+     */
+    public synchronized int size() {
+        return canonical.size();
+    }
+
+    /**
+     * Returns how many interned descriptions were already in the pool and so did not need their own copy.
+     *
+     * @return the number of deduplicated descriptions.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of descriptions interned so far.
+     *
+     * @return the number of lookups.
+     */
+    public synchronized long getLookups() {
+        return lookups;
+    }
+}
@@ -0,0 +1,15 @@
+package org.tommy.persist;
+
+/**
+ * Durability policy applied when a {@link GroupCommitter} hands mutations to storage.
+ *
+ * The policy is selected with {@code commit.durability} in {@code configuration.properties}:
+ * - {@code ALWAYS}: every mutation is written and forced to disk before the call returns; nothing is coalesced.
+ * - {@code BATCH}: mutations are coalesced and each batch is forced to disk once.
+ * - {@code OS}: mutations are coalesced and written, leaving it to the operating system to flush its buffers.
+ */
+public enum Durability {
+    ALWAYS,
+    BATCH,
+    OS
+}
@@ -1,43 +1,166 @@
 package org.tommy.persist;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import org.tommy.base.LocalDateTimeAdapter;
+import org.tommy.base.Status;
 import org.tommy.configuration.AppConfig;
 import org.tommy.exception.PersistenceException;
 import org.tommy.models.Task;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * Implements the {@link TaskSaver} interface to persist tasks using a JSON file.
  * Handles reading from and writing to the file system using Gson.
+ *
+ * By default every mutation rewrites the whole JSON file. When {@code journal.enabled} is set,
+ * mutations are instead appended to a {@link TaskJournal} next to the JSON file, and a background
+ * compactor folds the journal into a fresh snapshot once it grows past
+ * {@code journal.compaction.threshold.bytes}.
+ *
+ * Snapshots are compressed with the {@link SnapshotCodec} selected by {@code snapshot.codec}; any codec,
+ * as well as plain JSON, is recognized when the file is read.
+ *
+ * The in-memory {@link TaskStore} is authoritative: writes only flow out to disk and the file is never
+ * re-read after a write. It is reloaded on an explicit {@link #reload()}, or, unless
+ * {@code file.watch.changes} is disabled, when its modification time or size shows that another
+ * process has rewritten it.
+ *
+ * Writes go through a {@link GroupCommitter}: with {@code commit.window.millis} above zero, mutations
+ * arriving within the window (or until {@code commit.max.batch} are pending) are coalesced into one write,
+ * forced to disk according to the {@link Durability} selected by {@code commit.durability}.
+ *
+ * Several processes may share the JSON file. Every write happens under an exclusive {@link StoreLock} on
+ * {@code <json.file.path>.lock} and increments the store's version, which is written at the head of the file.
+ * Before mutating, a saver takes the lock and reloads if the version on disk moved on, so concurrent adds
+ * never reuse an ID; an update whose {@code updatedAt} no longer matches the stored task is rejected with a
+ * {@link PersistenceException}. In journal mode the lock is held for the saver's whole lifetime instead.
+ *
+ * The saver is safe for concurrent use. Reads do not take the saver's monitor: they go straight to the
+ * thread-safe {@link TaskStore}, which is swapped atomically on reload. Mutations are serialized on the
+ * monitor, since each of them ends in one ordered write to the shared file or journal.
  */
 public class FileSaver implements TaskSaver{
 
+    /** Suffix of the active journal file, appended to {@code json.file.path}. */
+    static final String JOURNAL_SUFFIX = ".journal";
+
+    /** Suffix of a journal that has been rotated out and is being folded into the snapshot. */
+    static final String COMPACTING_SUFFIX = ".journal.compacting";
+
+    /** Suffix of the lock file serializing writers of the JSON file. */
+    static final String LOCK_SUFFIX = ".lock";
+
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
     private final Gson gson;
+    private final TaskStoreTypeAdapter storeAdapter = new TaskStoreTypeAdapter();
+    private final SnapshotCodec codec;
     private final AppConfig appConfig;
-    private TaskStore taskStore;
+    private final Path dataFile;
+    private final TaskJournal journal;
+    private final long compactionThreshold;
+    private final ExecutorService compactor;
+    private final boolean watchChanges;
+    private final PersistenceMetrics metrics;
+    private final GroupCommitter committer;
+    private final StoreLock storeLock;
+    private Future<?> compaction;
+    private volatile TaskStore taskStore;
+    private volatile FileTime knownModifiedTime;
+    private volatile long knownSize;
 
     /**
      * Constructs a new FileSaver and loads existing tasks from the configured JSON file.
-     * Initializes Gson with support for LocalDateTime serialization.
+     * Initializes Gson with the streaming task adapters from {@link TaskCodec}.
      *
      * @throws FileNotFoundException if the configured JSON file is not found.
      */
     public FileSaver() throws FileNotFoundException {
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .setPrettyPrinting().create();
-        this.appConfig = AppConfig.getInstance();
+        this(AppConfig.getInstance());
+    }
+
+    /**
+     * Constructs a new FileSaver using the given configuration.
+     *
+     * @param appConfig the configuration providing {@code json.file.path} and journal settings.
+     * @throws FileNotFoundException if the configured JSON file is not found.
+     * @throws PersistenceException  if the journal cannot be opened or replayed.
+     */
+    public FileSaver(AppConfig appConfig) throws FileNotFoundException {
+        this.gson = TaskCodec.create(appConfig.getBooleanProperty("json.pretty.print", true));
+        this.appConfig = appConfig;
+        this.codec = SnapshotCodec.fromName(appConfig.getProperty("snapshot.codec", SnapshotCodec.NONE.name()));
+        this.dataFile = Paths.get(appConfig.getProperty("json.file.path"));
+        this.compactionThreshold = appConfig.getLongProperty("journal.compaction.threshold.bytes",
+                DEFAULT_COMPACTION_THRESHOLD);
+        this.watchChanges = appConfig.getBooleanProperty("file.watch.changes", true);
+        Durability durability = Durability.valueOf(
+                appConfig.getProperty("commit.durability", Durability.OS.name()).toUpperCase());
+        this.metrics = new PersistenceMetrics(durability);
+        this.committer = new GroupCommitter(this, this::writeBatch,
+                appConfig.getLongProperty("commit.window.millis", 0),
+                appConfig.getIntProperty("commit.max.batch", 1000),
+                durability, metrics);
+        try {
+            this.storeLock = new StoreLock(siblingOf(LOCK_SUFFIX));
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
         this.taskStore = loadFromFile();
+        if (appConfig.getBooleanProperty("journal.enabled", false)) {
+            try {
+                if (!storeLock.tryAcquire()) {
+                    storeLock.close();
+                    throw new PersistenceException("Task file " + dataFile + " is in use by another process");
+                }
+                Path compacting = siblingOf(COMPACTING_SUFFIX);
+                if (TaskJournal.replay(compacting, taskStore) > 0) {
+                    // A previous compaction did not finish; fold its journal in before going on.
+                    writeSnapshot(taskStore, dataFile, true);
+                }
+                Files.deleteIfExists(compacting);
+                TaskJournal.replay(siblingOf(JOURNAL_SUFFIX), taskStore);
+                this.journal = new TaskJournal(siblingOf(JOURNAL_SUFFIX));
+            } catch (IOException e) {
+                throw new PersistenceException(e);
+            }
+            this.compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "task-journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.journal = null;
+            this.compactor = null;
+        }
     }
 
     /**
@@ -48,13 +171,154 @@ public class FileSaver implements TaskSaver{
      * @throws FileNotFoundException if the file is not found.
      */
     private TaskStore loadFromFile() throws FileNotFoundException {
-        TaskStore taskStore = gson.fromJson(new FileReader(appConfig.getProperty("json.file.path")), TaskStore.class);
+        TaskStore taskStore;
+        try (Reader reader = SnapshotCodec.newReader(dataFile)) {
+            rememberFileState();
+            taskStore = gson.fromJson(reader, TaskStore.class);
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
         if(taskStore == null) {
             taskStore = new TaskStore(1, new ArrayList<>());
         }
         return taskStore;
     }
 
+    /**
+     * Reads a data file together with its journal, as a journaled FileSaver would load it. The other engines
+     * migrate through this, so that changes still waiting in the journal are not lost when switching engines.
+     *
+     * @param dataFile the JSON data file.
+     * @return the stored tasks; empty if neither the file nor a journal exists.
+     * @throws IOException if reading fails.
+     */
+    static TaskStore readStore(Path dataFile) throws IOException {
+        TaskStore store = null;
+        if (Files.exists(dataFile) && Files.size(dataFile) > 0) {
+            try (Reader reader = SnapshotCodec.newReader(dataFile)) {
+                store = TaskCodec.create(false).fromJson(reader, TaskStore.class);
+            }
+        }
+        if (store == null) {
+            store = new TaskStore(1, new ArrayList<>());
+        }
+        TaskJournal.replay(dataFile.resolveSibling(dataFile.getFileName() + COMPACTING_SUFFIX), store);
+        TaskJournal.replay(dataFile.resolveSibling(dataFile.getFileName() + JOURNAL_SUFFIX), store);
+        return store;
+    }
+
+    /**
+     * Discards the in-memory state and reloads it from the JSON file (and journal, if enabled).
+     *
+     * @throws PersistenceException if the file cannot be read.
+     */
+    public synchronized void reload() throws PersistenceException {
+        try {
+            TaskStore reloaded = loadFromFile();
+            if (journal != null) {
+                TaskJournal.replay(siblingOf(COMPACTING_SUFFIX), reloaded);
+                TaskJournal.replay(journal.getPath(), reloaded);
+            }
+            taskStore = reloaded;
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Records the modification time and size of the JSON file as last seen by this saver.
+     *
+     * @throws IOException if the file attributes cannot be read.
+     */
+    private void rememberFileState() throws IOException {
+        knownModifiedTime = Files.getLastModifiedTime(dataFile);
+        knownSize = Files.size(dataFile);
+    }
+
+    /**
+     * Reads the version recorded at the head of the JSON file without parsing the tasks.
+     *
+     * @return the version on disk.
+     * @throws IOException if the file cannot be read.
+     */
+    private long peekVersion() throws IOException {
+        try (Reader reader = SnapshotCodec.newReader(dataFile)) {
+            return TaskStoreTypeAdapter.peekVersion(reader);
+        }
+    }
+
+    /**
+     * Reloads the store if the JSON file was changed by someone else since this saver last read or wrote it.
+     * The modification time and size are checked first; only if they moved is the version header read, and
+     * the tasks are parsed only if the version differs. In journal mode the file is only rewritten by this
+     * saver's own compactor, so nothing is checked.
+     */
+    private void refreshIfChanged() {
+        if (!watchChanges || journal != null) {
+            return;
+        }
+        try {
+            if (fileUnchanged()) {
+                return;
+            }
+            synchronized (this) {
+                if (committer.hasPending() || fileUnchanged()) {
+                    return;
+                }
+                if (peekVersion() != taskStore.getVersion()) {
+                    taskStore = loadFromFile();
+                } else {
+                    rememberFileState();
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private boolean fileUnchanged() throws IOException {
+        return Files.getLastModifiedTime(dataFile).equals(knownModifiedTime) && Files.size(dataFile) == knownSize;
+    }
+
+    /**
+     * Takes the store lock before a mutation and reloads the store if another process has written
+     * the file since this saver last saw it. Does nothing in journal mode, where the lock is always held,
+     * or while a batch of this saver is pending, in which case the lock is already held.
+     *
+     * @throws PersistenceException if the lock cannot be taken or the file cannot be read.
+     */
+    private void beginWrite() throws PersistenceException {
+        if (journal != null || storeLock.isHeld()) {
+            return;
+        }
+        try {
+            storeLock.acquire();
+            if (peekVersion() != taskStore.getVersion()) {
+                taskStore = loadFromFile();
+            }
+        } catch (IOException e) {
+            releaseLockIfIdle();
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Releases the store lock unless mutations are still waiting in the group committer; in that case
+     * it is released once their batch has been written.
+     */
+    private void releaseLockIfIdle() {
+        if (journal != null || committer.hasPending()) {
+            return;
+        }
+        try {
+            storeLock.release();
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Adds a new task, assigns it a unique ID, timestamps it, saves to file,
      * and returns the created task.
@@ -64,24 +328,24 @@ public class FileSaver implements TaskSaver{
      * @throws PersistenceException if writing to file fails.
      */
     @Override
-    public Task addTask(Task task) throws PersistenceException {
-        int nextId = taskStore.getNextId();
-        Task tempTask = new Task(nextId, task.getStatus(), task.getTask());
-        LocalDateTime currentTime = LocalDateTime.now();
-        tempTask.setCreatedAt(currentTime);
-        tempTask.setUpdatedAt(currentTime);
-        taskStore.setNextId(nextId + 1);
-        taskStore.addTask(tempTask);
-        try(FileWriter fileWriter = new FileWriter(appConfig.getProperty("json.file.path"))){
-            gson.toJson(taskStore, fileWriter);
-            fileWriter.flush();
-            taskStore = loadFromFile();
-        }catch (FileNotFoundException e) {
-            throw new PersistenceException(e);
-        } catch (IOException e) {
-            throw new PersistenceException(e);
+    public synchronized Task addTask(Task task) throws PersistenceException {
+        beginWrite();
+        try {
+            int nextId = taskStore.allocateId();
+            long currentTime = Task.now();
+            Task tempTask = new Task(nextId, task.getStatus(), task.getTask(), currentTime, currentTime);
+            taskStore.addTask(tempTask);
+            try{
+                persist(TaskJournal.Operation.ADD, tempTask);
+            } catch (IOException e) {
+                taskStore.deleteTask(tempTask);
+                taskStore.setNextId(nextId);
+                throw new PersistenceException(e);
+            }
+            return tempTask;
+        } finally {
+            releaseLockIfIdle();
         }
-        return tempTask;
     }
 
     /**
@@ -92,25 +356,24 @@ public class FileSaver implements TaskSaver{
      * @throws PersistenceException if the task is not found or file write fails.
      */
     @Override
-    public int deleteTask(int taskId) throws PersistenceException {
-        Task task = getTask(taskId);
-        if(task == null) {
-            throw new PersistenceException("Task with id: " + taskId + " not found.");
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        beginWrite();
+        try {
+            Task task = getTask(taskId);
+            if(task == null) {
+                throw new PersistenceException("Task with id: " + taskId + " not found.");
+            }
+            taskId = taskStore.deleteTask(task);
+            try{
+                persist(TaskJournal.Operation.DELETE, task);
+            } catch (IOException e) {
+                taskStore.addTask(task);
+                throw new PersistenceException(e);
+            }
+            return taskId;
+        } finally {
+            releaseLockIfIdle();
         }
-        taskId = taskStore.deleteTask(task);
-        try(FileWriter fileWriter = new FileWriter(appConfig.getProperty("json.file.path"))){
-            gson.toJson(taskStore, fileWriter);
-            fileWriter.flush();
-            taskStore = loadFromFile();
-        }catch (FileNotFoundException e) {
-            taskStore.getTasks().add(task);
-            throw new PersistenceException(e);
-        } catch (IOException e) {
-            taskStore.getTasks().add(task);
-            throw new PersistenceException(e);
-        }
-        return taskId;
-
     }
 
     /**
@@ -118,40 +381,324 @@ public class FileSaver implements TaskSaver{
      *
      * @param task the task with updated fields.
      * @return the updated task.
-     * @throws PersistenceException if the task is not found or file write fails.
+     * @throws PersistenceException if file write fails, or if the task carries an {@code updatedAt}
+     *                              and the stored task has been modified since then by another process.
      */
     @Override
-    public Task updateTask(Task task) throws PersistenceException {
-        Task persistedTask;
-        try{
-            persistedTask = getTask(task.getId());
-        }catch (NoSuchElementException e){
-            System.out.println(e.getMessage());
-            return null;
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        beginWrite();
+        try {
+            Task persistedTask;
+            try{
+                persistedTask = getTask(task.getId());
+            }catch (NoSuchElementException e){
+                System.out.println(e.getMessage());
+                return null;
+            }
+            if (task.getUpdatedAtNanos() != Task.NO_TIME
+                    && task.getUpdatedAtNanos() != persistedTask.getUpdatedAtNanos()) {
+                throw new PersistenceException("Task with id: " + task.getId()
+                        + " was modified concurrently; reload and try again.");
+            }
+            Task updatedTask = new Task(task.getId(), task.getStatus(), task.getTask(),
+                    persistedTask.getCreatedAtNanos(), Task.now());
+            taskStore.replaceTask(updatedTask);
+            try{
+                persist(TaskJournal.Operation.UPDATE, updatedTask);
+            } catch (IOException e) {
+                taskStore.replaceTask(persistedTask);
+                throw new PersistenceException(e);
+            }
+            return updatedTask;
+        } finally {
+            releaseLockIfIdle();
         }
-        Task backupTask = new Task(persistedTask.getId(), persistedTask.getStatus(), persistedTask.getTask());
-        if(persistedTask == null) {
-            throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+    }
+
+    /**
+     * Adds several tasks under consecutive IDs and persists them with a single write.
+     *
+     * @param tasks the tasks to add (without IDs).
+     * @return the created tasks with IDs and timestamps, in the same order.
+     * @throws PersistenceException if writing to file fails; no task is added then.
+     */
+    @Override
+    public synchronized List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        beginWrite();
+        try {
+            int firstId = taskStore.getNextId();
+            long currentTime = Task.now();
+            List<Task> created = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                Task tempTask = new Task(taskStore.allocateId(), task.getStatus(), task.getTask(),
+                        currentTime, currentTime);
+                taskStore.addTask(tempTask);
+                created.add(tempTask);
+            }
+            try {
+                persistAll(TaskJournal.Operation.ADD, created);
+            } catch (IOException e) {
+                created.forEach(taskStore::deleteTask);
+                taskStore.setNextId(firstId);
+                throw new PersistenceException(e);
+            }
+            return created;
+        } finally {
+            releaseLockIfIdle();
         }
-        persistedTask.setStatus(task.getStatus());
-        persistedTask.setTask(task.getTask());
-        persistedTask.setUpdatedAt(LocalDateTime.now());
-        try(FileWriter fileWriter = new FileWriter(appConfig.getProperty("json.file.path"))){
-            gson.toJson(taskStore, fileWriter);
-            fileWriter.flush();
-            taskStore = loadFromFile();
-        }catch (FileNotFoundException e) {
-            persistedTask.setStatus(backupTask.getStatus());
-            persistedTask.setTask(backupTask.getTask());
-            throw new PersistenceException(e);
+    }
+
+    /**
+     * Updates several tasks and persists them with a single write. All tasks are checked before any
+     * is changed, so a missing or concurrently modified task leaves the store untouched.
+     *
+     * @param tasks the tasks with updated fields.
+     * @return the updated tasks, in the same order.
+     * @throws PersistenceException if a task is not found, was modified concurrently, or writing fails.
+     */
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        beginWrite();
+        try {
+            Map<Integer, Task> persistedTasks = new LinkedHashMap<>();
+            for (Task task : tasks) {
+                Task persistedTask = taskStore.getTask(task.getId());
+                if (persistedTask == null) {
+                    throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+                }
+                if (task.getUpdatedAtNanos() != Task.NO_TIME
+                        && task.getUpdatedAtNanos() != persistedTask.getUpdatedAtNanos()) {
+                    throw new PersistenceException("Task with id: " + task.getId()
+                            + " was modified concurrently; reload and try again.");
+                }
+                persistedTasks.putIfAbsent(task.getId(), persistedTask);
+            }
+            long currentTime = Task.now();
+            List<Task> updatedTasks = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                Task updatedTask = new Task(task.getId(), task.getStatus(), task.getTask(),
+                        persistedTasks.get(task.getId()).getCreatedAtNanos(), currentTime);
+                taskStore.replaceTask(updatedTask);
+                updatedTasks.add(updatedTask);
+            }
+            try {
+                persistAll(TaskJournal.Operation.UPDATE, updatedTasks);
+            } catch (IOException e) {
+                persistedTasks.values().forEach(taskStore::replaceTask);
+                throw new PersistenceException(e);
+            }
+            return updatedTasks;
+        } finally {
+            releaseLockIfIdle();
+        }
+    }
+
+    /**
+     * Deletes several tasks and persists the deletion with a single write.
+     *
+     * @param taskIds the IDs of the tasks to delete; repeated IDs count once.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task is not found or writing fails; no task is deleted then.
+     */
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        beginWrite();
+        try {
+            Map<Integer, Task> deleted = new LinkedHashMap<>();
+            for (int taskId : taskIds) {
+                Task task = taskStore.getTask(taskId);
+                if (task == null) {
+                    throw new PersistenceException("Task with id: " + taskId + " not found.");
+                }
+                deleted.put(taskId, task);
+            }
+            deleted.values().forEach(taskStore::deleteTask);
+            try {
+                persistAll(TaskJournal.Operation.DELETE, deleted.values());
+            } catch (IOException e) {
+                deleted.values().forEach(taskStore::addTask);
+                throw new PersistenceException(e);
+            }
+            return deleted.size();
+        } finally {
+            releaseLockIfIdle();
+        }
+    }
+
+    /**
+     * Hands a mutation that has already been applied to the in-memory store to the group committer.
+     *
+     * @param op   the kind of mutation.
+     * @param task the affected task, in its post-mutation state.
+     * @throws IOException if the mutation is written immediately and writing fails.
+     */
+    private void persist(TaskJournal.Operation op, Task task) throws IOException {
+        Task state = op == TaskJournal.Operation.DELETE ? null : task;
+        committer.submit(new GroupCommitter.Mutation(op, task.getId(), state), taskStore.getNextId());
+    }
+
+    /**
+     * Hands several mutations of the same kind to the group committer as one unit, so that they are
+     * written together.
+     */
+    private void persistAll(TaskJournal.Operation op, Collection<Task> tasks) throws IOException {
+        List<GroupCommitter.Mutation> mutations = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Task state = op == TaskJournal.Operation.DELETE ? null : task;
+            mutations.add(new GroupCommitter.Mutation(op, task.getId(), state));
+        }
+        committer.submitAll(mutations, taskStore.getNextId());
+    }
+
+    /**
+     * Writes a coalesced batch of mutations, either by appending it to the journal
+     * or by rewriting the whole JSON file once under a new version, after which the store lock is released.
+     * Called by the group committer while holding this saver's monitor.
+     *
+     * @param mutations the mutations of the batch.
+     * @param nextId    the store's next ID after the batch.
+     * @param fsync     whether to force the written data to disk.
+     * @throws IOException if writing fails.
+     */
+    private void writeBatch(Collection<GroupCommitter.Mutation> mutations, int nextId, boolean fsync) throws IOException {
+        if (journal == null) {
+            long version = taskStore.getVersion();
+            taskStore.setVersion(version + 1);
+            try {
+                writeSnapshot(taskStore, dataFile, fsync);
+            } catch (IOException e) {
+                taskStore.setVersion(version);
+                throw e;
+            }
+            rememberFileState();
+            storeLock.release();
+            return;
+        }
+        for (GroupCommitter.Mutation mutation : mutations) {
+            if (mutation.op() == TaskJournal.Operation.DELETE) {
+                journal.appendDelete(mutation.taskId(), nextId);
+            } else {
+                journal.append(mutation.op(), mutation.task(), nextId);
+            }
+        }
+        journal.flush(fsync);
+        if (journal.size() >= compactionThreshold) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Returns the task counts kept by the in-memory store.
+     *
+     * @return the statistics.
+     */
+    @Override
+    public TaskStats getStats() {
+        refreshIfChanged();
+        return taskStore.getStats();
+    }
+
+    /**
+     * Writes any mutations still waiting in the current group commit batch.
+     *
+     * @throws PersistenceException if writing fails.
+     */
+    public void flush() throws PersistenceException {
+        try {
+            committer.flush();
         } catch (IOException e) {
             throw new PersistenceException(e);
         }
-        return persistedTask;
     }
 
     /**
-     * Retrieves a task by ID.
+     * Returns the counters describing how mutations were written, including the durability policy in effect.
+     *
+     * @return the persistence metrics.
+     */
+    public PersistenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Rotates the journal and folds the rotated part into a new snapshot on the compactor thread.
+     * The snapshot is written from the store's immutable {@link TaskSnapshot}, so writers are not held up by it.
+     * A compaction is only started if the previous one has finished; until then the journal keeps growing.
+     * If a previous compaction failed, its rotated journal is still on disk; it is retried instead of rotating
+     * again, and the live journal is rotated by the next compaction once that one succeeds.
+     *
+     * @throws IOException if the journal cannot be rotated.
+     */
+    private void scheduleCompaction() throws IOException {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        Path compacting = siblingOf(COMPACTING_SUFFIX);
+        if (!Files.exists(compacting)) {
+            journal.rotate(compacting);
+        }
+        // The snapshot also holds everything in the live journal, which is harmless: replaying it is idempotent.
+        TaskSnapshot snapshot = taskStore.snapshot();
+        long version = taskStore.getVersion();
+        int nextId = taskStore.getNextId();
+        compaction = compactor.submit(() -> {
+            try {
+                writeSnapshot(version, nextId, snapshot, dataFile, true);
+                Files.deleteIfExists(compacting);
+            } catch (IOException e) {
+                // The rotated journal stays on disk; the next compaction or start folds it in.
+                metrics.recordCompactionFailure();
+            }
+        });
+    }
+
+    /**
+     * Writes the given store to a temporary file and atomically moves it over the target.
+     *
+     * @param store  the store to serialize.
+     * @param target the snapshot file.
+     * @param fsync  whether to force the new snapshot to disk before it replaces the old one.
+     * @throws IOException if writing or moving fails.
+     */
+    private void writeSnapshot(TaskStore store, Path target, boolean fsync) throws IOException {
+        writeSnapshot(store.getVersion(), store.getNextId(), store.tasks(), target, fsync);
+    }
+
+    /**
+     * Writes a store given by its parts to a temporary file and atomically moves it over the target.
+     *
+     * @param version the version of the store.
+     * @param nextId  the next task ID.
+     * @param tasks   the tasks to serialize.
+     * @param target  the snapshot file.
+     * @param fsync   whether to force the new snapshot to disk before it replaces the old one.
+     * @throws IOException if writing or moving fails.
+     */
+    private void writeSnapshot(long version, int nextId, Iterable<Task> tasks, Path target, boolean fsync)
+            throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = codec.wrap(Channels.newOutputStream(channel));
+            Writer fileWriter = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            storeAdapter.write(gson.newJsonWriter(fileWriter), version, nextId, tasks);
+            fileWriter.flush();
+            if (out instanceof DeflaterOutputStream compressed) {
+                compressed.finish();
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path siblingOf(String suffix) {
+        return dataFile.resolveSibling(dataFile.getFileName() + suffix);
+    }
+
+    /**
+     * Retrieves a task by ID through the store's ID index.
      *
      * @param id the ID of the task.
      * @return the task with the given ID.
@@ -159,7 +706,8 @@ public class FileSaver implements TaskSaver{
      */
     @Override
     public Task getTask(int id) throws NoSuchElementException {
-        Task task = taskStore.getTasks().stream().filter(t -> t.getId()==id).findAny().orElse(null);
+        refreshIfChanged();
+        Task task = taskStore.getTask(id);
         if(task==null){
             throw new NoSuchElementException(String.format("Task with %d not found", id));
         }
@@ -167,12 +715,134 @@ public class FileSaver implements TaskSaver{
     }
 
     /**
-     * Returns the list of all tasks in the store.
+     * Returns the list of all tasks in the store, in ID order.
+     * The list is a read-only view shared until the next change, so listing does not copy the store.
      *
-     * @return the task list.
+     * @return the unmodifiable task list.
      */
     @Override
     public List<Task> getTasks() {
-        return taskStore.getTasks();
+        refreshIfChanged();
+        return taskStore.view();
+    }
+
+    /**
+     * Returns one page of tasks, visiting only the store slots after the cursor.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return up to {@code limit} tasks in ID order.
+     */
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        refreshIfChanged();
+        return taskStore.getTasks(afterId, limit);
+    }
+
+    /**
+     * Streams the tasks of the store's latest snapshot, without building a list.
+     *
+     * @return the task stream in ID order.
+     */
+    @Override
+    public Stream<Task> streamTasks() {
+        refreshIfChanged();
+        return taskStore.snapshot().stream();
+    }
+
+    /**
+     * Returns the tasks with the given status from the store's status index, without scanning all tasks.
+     *
+     * @param status the status to filter by.
+     * @return the matching tasks in ID order.
+     */
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        refreshIfChanged();
+        return taskStore.getTasksByStatus(status);
+    }
+
+    /**
+     * Returns the tasks created in the given range from the store's time index.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching tasks, oldest first.
+     */
+    @Override
+    public List<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        refreshIfChanged();
+        return taskStore.getTasksCreatedBetween(from, to);
+    }
+
+    /**
+     * Returns the tasks last updated in the given range from the store's time index.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching tasks, least recently updated first.
+     */
+    @Override
+    public List<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        refreshIfChanged();
+        return taskStore.getTasksUpdatedBetween(from, to);
+    }
+
+    /**
+     * Returns the most recently updated tasks from the store's time index.
+     *
+     * @param limit the maximum number of tasks.
+     * @return up to {@code limit} tasks, newest first.
+     */
+    @Override
+    public List<Task> getRecentlyUpdated(int limit) {
+        refreshIfChanged();
+        return taskStore.getRecentlyUpdated(limit);
+    }
+
+    /**
+     * Returns the store's latest snapshot, without locking or copying.
+     *
+     * @return the current snapshot.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        refreshIfChanged();
+        return taskStore.snapshot();
+    }
+
+    /**
+     * Finds tasks by words in their description through the store's text index.
+     *
+     * @param query the query; see {@link TextIndex} for the syntax.
+     * @return the matching tasks, best match first.
+     */
+    @Override
+    public List<Task> search(String query) {
+        refreshIfChanged();
+        return taskStore.search(query);
+    }
+
+    /**
+     * Writes pending group commits, waits for a running journal compaction to finish, closes the journal
+     * and releases the store lock.
+     *
+     * @throws PersistenceException if the journal cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws PersistenceException {
+        try {
+            committer.close();
+            if (journal != null) {
+                compactor.shutdown();
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+                journal.close();
+            }
+            storeLock.close();
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
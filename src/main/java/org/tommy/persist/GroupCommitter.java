@@ -0,0 +1,239 @@
+package org.tommy.persist;
+
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces task mutations into group commits.
+ *
+ * Mutations submitted within {@code windowMillis} of the first pending one, or until {@code maxBatch}
+ * mutations are pending, are handed to the {@link BatchWriter} as a single batch. Repeated mutations of the
+ * same task ID within a batch collapse into the latest one. With a zero window, or with
+ * {@link Durability#ALWAYS}, every mutation is written synchronously as its own batch.
+ *
+ * All state is guarded by the {@code lock} passed in by the owner, so that batches are written under the
+ * same monitor that protects the owner's in-memory store.
+ */
+public class GroupCommitter {
+
+    /**
+     * A pending mutation of a single task.
+     *
+     * @param op     the kind of mutation.
+     * @param taskId the ID of the affected task.
+     * @param task   a detached copy of the task after the mutation, or {@code null} for deletions.
+     */
+    public record Mutation(TaskJournal.Operation op, int taskId, Task task) {}
+
+    /**
+     * Receives coalesced batches of mutations.
+     */
+    public interface BatchWriter {
+
+        /**
+         * Writes a batch of mutations to storage.
+         *
+         * @param mutations the mutations, at most one per task ID, in first-submission order.
+         * @param nextId    the store's next ID after the last mutation of the batch.
+         * @param fsync     whether the batch must be forced to the storage device.
+         * @throws IOException if writing fails.
+         */
+        void write(Collection<Mutation> mutations, int nextId, boolean fsync) throws IOException;
+    }
+
+    private final Object lock;
+    private final BatchWriter writer;
+    private final long windowMillis;
+    private final int maxBatch;
+    private final Durability durability;
+    private final PersistenceMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Integer, Mutation> pending = new LinkedHashMap<>();
+    private int pendingNextId;
+    private int pendingCount;
+    private ScheduledFuture<?> scheduledFlush;
+    private IOException failure;
+
+    /**
+     * Creates a group committer.
+     *
+     * @param lock         the monitor guarding the owner's state; batches are written while holding it.
+     * @param writer       the sink for coalesced batches.
+     * @param windowMillis how long to wait for more mutations before writing; {@code 0} writes immediately.
+     * @param maxBatch     the number of pending mutations that forces a write before the window ends.
+     * @param durability   the durability policy.
+     * @param metrics      the counters to update.
+     */
+    public GroupCommitter(Object lock, BatchWriter writer, long windowMillis, int maxBatch,
+                          Durability durability, PersistenceMetrics metrics) {
+        this.lock = lock;
+        this.writer = writer;
+        this.windowMillis = windowMillis;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.durability = durability;
+        this.metrics = metrics;
+        this.scheduler = isImmediate() ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns whether every mutation is written synchronously as its own batch.
+     *
+     * @return {@code true} if mutations are not coalesced.
+     */
+    public boolean isImmediate() {
+        return windowMillis <= 0 || durability == Durability.ALWAYS;
+    }
+
+    /**
+     * Returns whether mutations are waiting to be written.
+     *
+     * @return {@code true} if a batch is pending.
+     */
+    public boolean hasPending() {
+        synchronized (lock) {
+            return !pending.isEmpty();
+        }
+    }
+
+    /**
+     * Submits a mutation. In immediate mode it is written before this method returns; otherwise it is
+     * queued and written with the next batch. If that batch fails in the background, the next call retries it
+     * before queuing anything and fails without queuing if storage is still failing.
+     *
+     * @param mutation the mutation to persist.
+     * @param nextId   the store's next ID after the mutation.
+     * @throws IOException if an immediate write fails, or an earlier background batch cannot be written; the
+     *                     mutation is not queued in either case.
+     */
+    public void submit(Mutation mutation, int nextId) throws IOException {
+        submitAll(List.of(mutation), nextId);
+    }
+
+    /**
+     * Submits several mutations that must be written together. In immediate mode they are written as one batch
+     * before this method returns; otherwise they join the pending batch as a whole.
+     *
+     * @param mutations the mutations to persist.
+     * @param nextId    the store's next ID after the mutations.
+     * @throws IOException if an immediate write fails, or an earlier background batch cannot be written; the
+     *                     mutations are not queued in either case.
+     */
+    public void submitAll(Collection<Mutation> mutations, int nextId) throws IOException {
+        synchronized (lock) {
+            if (isImmediate()) {
+                mutations.forEach(mutation -> metrics.recordMutation());
+                write(mutations, nextId);
+                return;
+            }
+            if (failure != null) {
+                retryFailedBatch();
+            }
+            for (Mutation mutation : mutations) {
+                metrics.recordMutation();
+                if (pending.put(mutation.taskId(), mutation) != null) {
+                    metrics.recordCoalesced();
+                }
+            }
+            pendingNextId = nextId;
+            pendingCount += mutations.size();
+            if (pendingCount >= maxBatch) {
+                flush();
+            } else {
+                scheduleFlush();
+            }
+        }
+    }
+
+    /**
+     * Writes all pending mutations now.
+     *
+     * @throws IOException if writing fails; the mutations stay pending and are retried with the next batch.
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            write(new ArrayList<>(pending.values()), pendingNextId);
+            pending.clear();
+            pendingCount = 0;
+        }
+    }
+
+    /**
+     * Writes the batch whose background write failed, so that the failure reaches a caller that can still
+     * roll back its own change instead of one whose change was already queued.
+     *
+     * @throws IOException if storage is still failing; the batch stays pending and is retried by the next call.
+     */
+    private void retryFailedBatch() throws IOException {
+        failure = null;
+        try {
+            flush();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::flushInBackground, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushInBackground() {
+        synchronized (lock) {
+            scheduledFlush = null;
+            try {
+                flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private void write(Collection<Mutation> mutations, int nextId) throws IOException {
+        boolean fsync = durability != Durability.OS;
+        try {
+            writer.write(mutations, nextId, fsync);
+        } catch (IOException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+        metrics.recordBatch(fsync);
+    }
+
+    /**
+     * Flushes pending mutations and stops the background scheduler.
+     *
+     * @throws IOException if the final flush fails.
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+}
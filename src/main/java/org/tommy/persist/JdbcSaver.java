@@ -0,0 +1,604 @@
+package org.tommy.persist;
+
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Implements the {@link TaskSaver} interface on an embedded, file-based H2 database running in-process.
+ *
+ * A single connection is kept open and its prepared statements are cached and reused. Multi-row writes use
+ * JDBC batching, and {@code status}, {@code created_at} and {@code updated_at} are indexed so that
+ * {@link #getTasksByStatus(Status)} is answered by the database instead of filtering every task in memory.
+ *
+ * The database URL defaults to {@code jdbc:h2:<json.file.path>.db} and can be changed with {@code jdbc.url}.
+ * On first use, the tasks of the JSON file and its journal are migrated into the database once; a row in
+ * {@code task_meta}, committed with the imported tasks, records that this happened, so deleting every task later
+ * does not bring the JSON tasks back.
+ */
+public class JdbcSaver implements TaskSaver {
+
+    private static final String SELECT_COLUMNS = "SELECT id, status, task, created_at, updated_at FROM tasks";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS tasks (id INT PRIMARY KEY, status VARCHAR(16), task CLOB,"
+                    + " created_at TIMESTAMP(9), updated_at TIMESTAMP(9))",
+            "CREATE TABLE IF NOT EXISTS task_meta (name VARCHAR(32) PRIMARY KEY, int_value INT NOT NULL)",
+            "MERGE INTO task_meta (name, int_value) KEY (name) SELECT 'next_id', 1 WHERE NOT EXISTS"
+                    + " (SELECT 1 FROM task_meta WHERE name = 'next_id')",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_status ON tasks (status)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_created_at ON tasks (created_at)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_updated_at ON tasks (updated_at)"
+    };
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    /**
+     * Constructs a JdbcSaver using the application configuration.
+     *
+     * @throws PersistenceException if the database cannot be opened or migrated.
+     */
+    public JdbcSaver() throws PersistenceException {
+        this(AppConfig.getInstance());
+    }
+
+    /**
+     * Constructs a JdbcSaver using the given configuration.
+     *
+     * @param appConfig the configuration.
+     * @throws PersistenceException if the database cannot be opened or migrated.
+     */
+    public JdbcSaver(AppConfig appConfig) throws PersistenceException {
+        Path jsonFile = Paths.get(appConfig.getProperty("json.file.path"));
+        String url = appConfig.getProperty("jdbc.url", "jdbc:h2:" + jsonFile.toAbsolutePath() + ".db");
+        try {
+            this.connection = DriverManager.getConnection(url);
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            connection.commit();
+            migrate(jsonFile);
+        } catch (SQLException | IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns a cached prepared statement for the given SQL, preparing it on first use.
+     */
+    private PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private void migrate(Path jsonFile) throws SQLException, IOException {
+        try (ResultSet rows = prepare("SELECT 1 FROM task_meta WHERE name = 'migrated'").executeQuery()) {
+            if (rows.next()) {
+                return;
+            }
+        }
+        // A database from before the marker has been migrated already if it ever handed out an ID.
+        if (nextId() == 1) {
+            TaskStore store = FileSaver.readStore(jsonFile);
+            insertBatch(store.tasks());
+            setNextId(Math.max(store.getNextId(), nextId()));
+        }
+        prepare("INSERT INTO task_meta (name, int_value) VALUES ('migrated', 1)").executeUpdate();
+        connection.commit();
+    }
+
+    /**
+     * Inserts the given tasks with a single JDBC batch. The caller commits.
+     */
+    private void insertBatch(Collection<Task> tasks) throws SQLException {
+        PreparedStatement insert = prepare(
+                "INSERT INTO tasks (id, status, task, created_at, updated_at) VALUES (?, ?, ?, ?, ?)");
+        for (Task task : tasks) {
+            insert.setInt(1, task.getId());
+            insert.setString(2, task.getStatus() == null ? null : task.getStatus().name());
+            insert.setString(3, task.getTask());
+            insert.setObject(4, task.getCreatedAt());
+            insert.setObject(5, task.getUpdatedAt());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+    }
+
+    private int nextId() throws SQLException {
+        try (ResultSet rows = prepare("SELECT int_value FROM task_meta WHERE name = 'next_id'").executeQuery()) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+
+    private void setNextId(int nextId) throws SQLException {
+        PreparedStatement update = prepare("UPDATE task_meta SET int_value = ? WHERE name = 'next_id'");
+        update.setInt(1, nextId);
+        update.executeUpdate();
+    }
+
+    private void rollback(SQLException cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static Task toTask(ResultSet rows) throws SQLException {
+        String status = rows.getString(2);
+        return new Task(rows.getInt(1), status == null ? null : Status.valueOf(status), rows.getString(3),
+                Task.toEpochNanos(rows.getObject(4, LocalDateTime.class)),
+                Task.toEpochNanos(rows.getObject(5, LocalDateTime.class)));
+    }
+
+    private List<Task> query(PreparedStatement statement) throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                tasks.add(toTask(rows));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Adds a new task under the next ID in a single transaction.
+     *
+     * @param task the task to add (without ID).
+     * @return the created task with ID and timestamps.
+     * @throws PersistenceException if the insert fails.
+     */
+    @Override
+    public synchronized Task addTask(Task task) throws PersistenceException {
+        try {
+            int id = nextId();
+            long currentTime = Task.now();
+            Task created = new Task(id, task.getStatus(), task.getTask(), currentTime, currentTime);
+            insertBatch(List.of(created));
+            setNextId(id + 1);
+            connection.commit();
+            return created;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Deletes the task with the given ID.
+     *
+     * @param taskId the ID of the task to delete.
+     * @return the ID of the deleted task.
+     * @throws PersistenceException if the task is not found or the delete fails.
+     */
+    @Override
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        int deleted;
+        try {
+            PreparedStatement delete = prepare("DELETE FROM tasks WHERE id = ?");
+            delete.setInt(1, taskId);
+            deleted = delete.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(e);
+            throw new PersistenceException(e);
+        }
+        if (deleted == 0) {
+            throw new PersistenceException("Task with id: " + taskId + " not found.");
+        }
+        return taskId;
+    }
+
+    /**
+     * Updates the status and description of an existing task.
+     *
+     * @param task the task with updated fields.
+     * @return the updated task.
+     * @throws PersistenceException if the task is not found or the update fails.
+     */
+    @Override
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        int updated;
+        try {
+            PreparedStatement update = prepare("UPDATE tasks SET status = ?, task = ?, updated_at = ? WHERE id = ?");
+            update.setString(1, task.getStatus() == null ? null : task.getStatus().name());
+            update.setString(2, task.getTask());
+            update.setObject(3, LocalDateTime.now());
+            update.setInt(4, task.getId());
+            updated = update.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(e);
+            throw new PersistenceException(e);
+        }
+        if (updated == 0) {
+            throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+        }
+        return getTask(task.getId());
+    }
+
+    /**
+     * Adds several tasks under consecutive IDs with one batched insert in a single transaction.
+     *
+     * @param tasks the tasks to add (without IDs).
+     * @return the created tasks with IDs and timestamps, in the same order.
+     * @throws PersistenceException if the insert fails; no task is added then.
+     */
+    @Override
+    public synchronized List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        try {
+            int id = nextId();
+            long currentTime = Task.now();
+            List<Task> created = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                created.add(new Task(id++, task.getStatus(), task.getTask(), currentTime, currentTime));
+            }
+            insertBatch(created);
+            setNextId(id);
+            connection.commit();
+            return created;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Updates several tasks with one batched update in a single transaction.
+     *
+     * @param tasks the tasks with updated fields.
+     * @return the updated tasks, in the same order.
+     * @throws PersistenceException if a task is not found or the update fails; no task is changed then.
+     */
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        List<Integer> missing = new ArrayList<>();
+        try {
+            PreparedStatement update = prepare("UPDATE tasks SET status = ?, task = ?, updated_at = ? WHERE id = ?");
+            LocalDateTime now = LocalDateTime.now();
+            List<Task> pending = new ArrayList<>(tasks);
+            for (Task task : pending) {
+                update.setString(1, task.getStatus() == null ? null : task.getStatus().name());
+                update.setString(2, task.getTask());
+                update.setObject(3, now);
+                update.setInt(4, task.getId());
+                update.addBatch();
+            }
+            int[] counts = update.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(pending.get(i).getId());
+                }
+            }
+            if (!missing.isEmpty()) {
+                connection.rollback();
+            } else {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            rollback(e);
+            throw new PersistenceException(e);
+        }
+        if (!missing.isEmpty()) {
+            throw new PersistenceException("Task with id: " + missing.get(0) + " not found.");
+        }
+        List<Task> updated = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            updated.add(getTask(task.getId()));
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes several tasks with one batched delete in a single transaction.
+     *
+     * @param taskIds the IDs of the tasks to delete; repeated IDs count once.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task is not found or the delete fails; no task is deleted then.
+     */
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (int taskId : taskIds) {
+            ids.add(taskId);
+        }
+        Integer missing = null;
+        try {
+            PreparedStatement delete = prepare("DELETE FROM tasks WHERE id = ?");
+            for (int taskId : ids) {
+                delete.setInt(1, taskId);
+                delete.addBatch();
+            }
+            int[] counts = delete.executeBatch();
+            int i = 0;
+            for (int taskId : ids) {
+                if (counts[i++] == 0) {
+                    missing = taskId;
+                    break;
+                }
+            }
+            if (missing != null) {
+                connection.rollback();
+            } else {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            rollback(e);
+            throw new PersistenceException(e);
+        }
+        if (missing != null) {
+            throw new PersistenceException("Task with id: " + missing + " not found.");
+        }
+        return ids.size();
+    }
+
+    /**
+     * Retrieves a task by primary key.
+     *
+     * @param id the ID of the task.
+     * @return the task with the given ID.
+     * @throws NoSuchElementException if no task is found.
+     */
+    @Override
+    public synchronized Task getTask(int id) throws NoSuchElementException {
+        try {
+            PreparedStatement select = prepare(SELECT_COLUMNS + " WHERE id = ?");
+            select.setInt(1, id);
+            List<Task> tasks = query(select);
+            if (tasks.isEmpty()) {
+                throw new NoSuchElementException(String.format("Task with %d not found", id));
+            }
+            return tasks.get(0);
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns all tasks in ID order.
+     *
+     * @return the task list.
+     */
+    @Override
+    public synchronized List<Task> getTasks() {
+        try {
+            return query(prepare(SELECT_COLUMNS + " ORDER BY id"));
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns one page of tasks, read from the primary key index starting after the cursor.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return up to {@code limit} tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasks(int afterId, int limit) {
+        try {
+            PreparedStatement select = prepare(SELECT_COLUMNS + " WHERE id > ? ORDER BY id LIMIT ?");
+            select.setInt(1, afterId);
+            select.setInt(2, Math.max(0, limit));
+            return query(select);
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns the tasks with the given status, filtered by the database through the status index.
+     *
+     * @param status the status to filter by.
+     * @return the matching tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasksByStatus(Status status) {
+        try {
+            PreparedStatement select = prepare(SELECT_COLUMNS + " WHERE status = ? ORDER BY id");
+            select.setString(1, status.name());
+            return query(select);
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns the tasks created in the given range, read through the {@code created_at} index.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching tasks, oldest first.
+     */
+    @Override
+    public synchronized List<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return inRange("created_at", from, to);
+    }
+
+    /**
+     * Returns the tasks last updated in the given range, read through the {@code updated_at} index.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching tasks, least recently updated first.
+     */
+    @Override
+    public synchronized List<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        return inRange("updated_at", from, to);
+    }
+
+    private List<Task> inRange(String column, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE ").append(column).append(" IS NOT NULL");
+        if (from != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+        }
+        if (to != null) {
+            sql.append(" AND ").append(column).append(" < ?");
+        }
+        sql.append(" ORDER BY ").append(column).append(", id");
+        try {
+            PreparedStatement select = prepare(sql.toString());
+            int parameter = 1;
+            if (from != null) {
+                select.setObject(parameter++, from);
+            }
+            if (to != null) {
+                select.setObject(parameter, to);
+            }
+            return query(select);
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns the most recently updated tasks, read backwards through the {@code updated_at} index.
+     *
+     * @param limit the maximum number of tasks.
+     * @return up to {@code limit} tasks, newest first.
+     */
+    @Override
+    public synchronized List<Task> getRecentlyUpdated(int limit) {
+        try {
+            PreparedStatement select = prepare(SELECT_COLUMNS
+                    + " WHERE updated_at IS NOT NULL ORDER BY updated_at DESC, id DESC LIMIT ?");
+            select.setInt(1, Math.max(0, limit));
+            return query(select);
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds tasks by words in their description. The database narrows the candidates down to descriptions
+     * containing every word of an alternative as a substring; the candidates are then matched word by word and
+     * ranked like the in-memory text index does.
+     *
+     * @param query the query; see {@link TextIndex} for the syntax.
+     * @return the matching tasks, best match first.
+     */
+    @Override
+    public synchronized List<Task> search(String query) {
+        List<List<String>> clauses = TextIndex.parse(query);
+        if (clauses.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE ");
+        for (int i = 0; i < clauses.size(); i++) {
+            sql.append(i == 0 ? "(" : " OR (");
+            for (int j = 0; j < clauses.get(i).size(); j++) {
+                String term = clauses.get(i).get(j);
+                sql.append(j == 0 ? "" : " AND ").append("LOWER(task) LIKE ?");
+                // Words are letters and digits only, so they need no escaping in a LIKE pattern.
+                words.add("%" + (term.endsWith("*") ? term.substring(0, term.length() - 1) : term) + "%");
+            }
+            sql.append(")");
+        }
+        try (PreparedStatement select = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < words.size(); i++) {
+                select.setString(i + 1, words.get(i));
+            }
+            Map<Task, Integer> matches = new HashMap<>();
+            for (Task task : query(select)) {
+                int count = TextIndex.count(clauses, task.getTask());
+                if (count > 0) {
+                    matches.put(task, count);
+                }
+            }
+            return TaskStore.rank(matches);
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns the task counts, computed by the database from the status and timestamp indexes.
+     *
+     * @return the statistics.
+     */
+    @Override
+    public synchronized TaskStats getStats() {
+        try {
+            long[] byStatus = new long[Status.values().length];
+            long total = 0;
+            try (ResultSet rows = prepare("SELECT status, COUNT(*) FROM tasks GROUP BY status").executeQuery()) {
+                while (rows.next()) {
+                    String status = rows.getString(1);
+                    if (status != null) {
+                        byStatus[Status.valueOf(status).ordinal()] = rows.getLong(2);
+                    }
+                    total += rows.getLong(2);
+                }
+            }
+            LocalDateTime today = LocalDate.now().atStartOfDay();
+            PreparedStatement created = prepare("SELECT COUNT(*) FROM tasks WHERE created_at >= ? AND created_at < ?");
+            created.setObject(1, today);
+            created.setObject(2, today.plusDays(1));
+            PreparedStatement completed = prepare(
+                    "SELECT COUNT(*) FROM tasks WHERE status = 'DONE' AND updated_at >= ? AND updated_at < ?");
+            completed.setObject(1, today);
+            completed.setObject(2, today.plusDays(1));
+            return new TaskStats(total, byStatus[Status.NOT_DONE.ordinal()], byStatus[Status.IN_PROGRESS.ordinal()],
+                    byStatus[Status.DONE.ordinal()], count(created), count(completed));
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private static long count(PreparedStatement statement) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    /**
+     * Closes the cached statements and the connection.
+     *
+     * @throws PersistenceException if closing fails.
+     */
+    @Override
+    public synchronized void close() throws PersistenceException {
+        try {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+            statements.clear();
+            connection.close();
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        }
+    }
+}
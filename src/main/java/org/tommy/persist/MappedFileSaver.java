@@ -0,0 +1,505 @@
+package org.tommy.persist;
+
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Implements the {@link TaskSaver} interface on top of a memory-mapped file of fixed-size slots.
+ *
+ * The slot of a task is found by offset calculation from its ID, so {@link #getTask(int)} involves no parsing
+ * and status changes are in-place writes of a few bytes. Records use {@link TaskRecordLayout}; descriptions
+ * are kept in an overflow {@link TextHeap} next to the slot file.
+ *
+ * The slot file defaults to {@code <json.file.path>.slots} and can be moved with {@code mmap.file.path}.
+ * When it does not exist yet, the tasks of the JSON file and its journal are migrated into it once; the header
+ * is written last, so a migration interrupted by a crash is started over on the next start.
+ * With {@code commit.durability=ALWAYS} every mutation is forced to disk; otherwise pages are forced on close.
+ */
+public class MappedFileSaver implements TaskSaver {
+
+    static final int MAGIC = 0x54544D53;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_NEXT_ID = 8;
+    private static final int HEADER_CAPACITY = 12;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final FileChannel channel;
+    private final TextHeap heap;
+    private final boolean forceEveryWrite;
+    private MappedByteBuffer slots;
+    private int capacity;
+    /** Running task counts, built by the first {@link #getStats()} and then kept up to date; {@code null} before. */
+    private TaskCounters counters;
+
+    /**
+     * Constructs a MappedFileSaver using the application configuration.
+     *
+     * @throws PersistenceException if the files cannot be opened or migrated.
+     */
+    public MappedFileSaver() throws PersistenceException {
+        this(AppConfig.getInstance());
+    }
+
+    /**
+     * Constructs a MappedFileSaver using the given configuration, migrating {@code json.file.path}
+     * if the slot file does not exist yet.
+     *
+     * @param appConfig the configuration.
+     * @throws PersistenceException if the files cannot be opened or migrated.
+     */
+    public MappedFileSaver(AppConfig appConfig) throws PersistenceException {
+        Path jsonFile = Paths.get(appConfig.getProperty("json.file.path"));
+        Path slotFile = Paths.get(appConfig.getProperty("mmap.file.path", jsonFile + ".slots"));
+        this.forceEveryWrite = Durability.ALWAYS.name()
+                .equalsIgnoreCase(appConfig.getProperty("commit.durability", Durability.OS.name()));
+        try {
+            this.channel = FileChannel.open(slotFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Path heapFile = slotFile.resolveSibling(slotFile.getFileName() + ".text");
+            boolean fresh = readMagic() == 0;
+            if (fresh) {
+                // Empty, or left behind by a migration that did not finish: start over.
+                channel.truncate(0);
+                Files.deleteIfExists(heapFile);
+            }
+            this.heap = new TextHeap(heapFile);
+            if (fresh) {
+                map(INITIAL_CAPACITY);
+                slots.putInt(HEADER_NEXT_ID, 1);
+                migrate(jsonFile);
+                heap.force();
+                slots.force();
+                // The header is written last, so a file is only taken as valid once its migration is complete.
+                slots.putInt(HEADER_MAGIC, MAGIC);
+                slots.putInt(HEADER_VERSION, VERSION);
+                slots.force();
+            } else {
+                map((int) ((channel.size() - HEADER_SIZE) / TaskRecordLayout.RECORD_SIZE));
+                if (slots.getInt(HEADER_MAGIC) != MAGIC || slots.getInt(HEADER_VERSION) != VERSION) {
+                    throw new PersistenceException("Not a task slot file: " + slotFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Reads the magic number of the slot file, or {@code 0} if the file is too short to hold a header.
+     */
+    private int readMagic() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return 0;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+        channel.read(magic, HEADER_MAGIC);
+        return magic.hasRemaining() ? 0 : magic.getInt(0);
+    }
+
+    /**
+     * Maps the slot file with room for the given number of slots, growing the file if needed.
+     */
+    private void map(int slotCount) throws IOException {
+        long size = HEADER_SIZE + (long) slotCount * TaskRecordLayout.RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new PersistenceException("Slot file cannot hold " + slotCount + " tasks");
+        }
+        slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = slotCount;
+        slots.putInt(HEADER_CAPACITY, capacity);
+    }
+
+    /**
+     * Copies the tasks of an existing JSON file and its journal into the slot file.
+     */
+    private void migrate(Path jsonFile) throws IOException {
+        TaskStore store = FileSaver.readStore(jsonFile);
+        for (Task task : store.tasks()) {
+            if (task.getId() >= 1) {
+                write(task);
+            }
+        }
+        slots.putInt(HEADER_NEXT_ID, Math.max(store.getNextId(), nextId()));
+    }
+
+    private int nextId() {
+        return slots.getInt(HEADER_NEXT_ID);
+    }
+
+    private int slotOf(int id) {
+        return HEADER_SIZE + (id - 1) * TaskRecordLayout.RECORD_SIZE;
+    }
+
+    private boolean exists(int id) {
+        return id >= 1 && id <= capacity && TaskRecordLayout.isLive(slots, slotOf(id));
+    }
+
+    /**
+     * Writes a complete task into its slot, appending its description to the heap.
+     */
+    private void write(Task task) throws IOException {
+        if (task.getId() > capacity) {
+            map(Math.max(capacity * 2, task.getId()));
+        }
+        TextHeap.Slice text = task.getTask() == null ? new TextHeap.Slice(-1, 0) : heap.append(task.getTask());
+        TaskRecordLayout.write(slots, slotOf(task.getId()), new TaskRecordLayout.TaskRecord(task.getId(),
+                task.getStatus(), task.getCreatedAtNanos(),
+                task.getUpdatedAtNanos(), text.offset(), text.length()));
+    }
+
+    private Task toTask(TaskRecordLayout.TaskRecord record) throws IOException {
+        String text = record.textOffset() < 0 ? null : heap.read(record.textOffset(), record.textLength());
+        return new Task(record.id(), record.status(), text, record.createdAt(), record.updatedAt());
+    }
+
+    /**
+     * Copies the slots of existing tasks before a mutation changes them, so that {@link #restore} can put them back.
+     */
+    private Map<Integer, byte[]> backup(Iterable<Integer> ids) {
+        Map<Integer, byte[]> backup = new HashMap<>();
+        for (int id : ids) {
+            if (exists(id) && !backup.containsKey(id)) {
+                byte[] record = new byte[TaskRecordLayout.RECORD_SIZE];
+                slots.get(slotOf(id), record);
+                backup.put(id, record);
+            }
+        }
+        return backup;
+    }
+
+    /**
+     * Undoes a failed mutation: puts the saved slots back, clears the slots of tasks created since and resets the
+     * next ID. The running counts are dropped and counted again on the next {@link #getStats()}. Descriptions
+     * already appended to the heap are left there unreferenced.
+     */
+    private void restore(Map<Integer, byte[]> backup, int oldNextId) {
+        for (int id = oldNextId; id < nextId() && id <= capacity; id++) {
+            TaskRecordLayout.clear(slots, slotOf(id));
+        }
+        backup.forEach((id, record) -> slots.put(slotOf(id), record));
+        slots.putInt(HEADER_NEXT_ID, oldNextId);
+        counters = null;
+    }
+
+    private void sync() throws IOException {
+        if (forceEveryWrite) {
+            heap.force();
+            slots.force();
+        }
+    }
+
+    /**
+     * Adds a new task in the slot addressed by the next ID.
+     *
+     * @param task the task to add (without ID).
+     * @return the created task with ID and timestamps.
+     * @throws PersistenceException if writing fails.
+     */
+    @Override
+    public synchronized Task addTask(Task task) throws PersistenceException {
+        int oldNextId = nextId();
+        boolean done = false;
+        try {
+            Task created = create(task, Task.now());
+            sync();
+            done = true;
+            return created;
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        } finally {
+            if (!done) {
+                restore(Map.of(), oldNextId);
+            }
+        }
+    }
+
+    /**
+     * Marks the slot of the given task as unused.
+     *
+     * @param taskId the ID of the task to delete.
+     * @return the ID of the deleted task.
+     * @throws PersistenceException if the task is not found or writing fails.
+     */
+    @Override
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        require(taskId);
+        Map<Integer, byte[]> backup = backup(List.of(taskId));
+        clear(taskId);
+        try {
+            sync();
+        } catch (IOException e) {
+            restore(backup, nextId());
+            throw new PersistenceException(e);
+        }
+        return taskId;
+    }
+
+    /**
+     * Updates a task in place. Status and timestamp changes only touch the slot;
+     * a changed description is appended to the heap and the slot repointed to it.
+     *
+     * @param task the task with updated fields.
+     * @return the updated task.
+     * @throws PersistenceException if the task is not found or writing fails.
+     */
+    @Override
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        require(task.getId());
+        Map<Integer, byte[]> backup = backup(List.of(task.getId()));
+        try {
+            Task updated = change(task, Task.now());
+            sync();
+            return updated;
+        } catch (IOException e) {
+            restore(backup, nextId());
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Adds several tasks in consecutive slots and forces the files once for the whole batch.
+     *
+     * @param tasks the tasks to add (without IDs).
+     * @return the created tasks, in the same order.
+     * @throws PersistenceException if writing fails; no task is added then.
+     */
+    @Override
+    public synchronized List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        long currentTime = Task.now();
+        int oldNextId = nextId();
+        List<Task> created = new ArrayList<>(tasks.size());
+        boolean done = false;
+        try {
+            for (Task task : tasks) {
+                created.add(create(task, currentTime));
+            }
+            sync();
+            done = true;
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        } finally {
+            if (!done) {
+                restore(Map.of(), oldNextId);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Updates several tasks in place and forces the files once. All tasks are checked before any is changed.
+     *
+     * @param tasks the tasks with updated fields.
+     * @return the updated tasks, in the same order.
+     * @throws PersistenceException if a task is not found or writing fails; no task is changed then.
+     */
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        tasks.forEach(task -> require(task.getId()));
+        Map<Integer, byte[]> backup = backup(tasks.stream().map(Task::getId).toList());
+        long currentTime = Task.now();
+        List<Task> updated = new ArrayList<>(tasks.size());
+        try {
+            for (Task task : tasks) {
+                updated.add(change(task, currentTime));
+            }
+            sync();
+        } catch (IOException e) {
+            restore(backup, nextId());
+            throw new PersistenceException(e);
+        }
+        return updated;
+    }
+
+    /**
+     * Marks the slots of several tasks as unused and forces the files once. All IDs are checked first.
+     *
+     * @param taskIds the IDs of the tasks to delete; repeated IDs count once.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task is not found or writing fails; no task is deleted then.
+     */
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (int taskId : taskIds) {
+            require(taskId);
+            ids.add(taskId);
+        }
+        Map<Integer, byte[]> backup = backup(ids);
+        ids.forEach(this::clear);
+        try {
+            sync();
+        } catch (IOException e) {
+            restore(backup, nextId());
+            throw new PersistenceException(e);
+        }
+        return ids.size();
+    }
+
+    private void require(int id) throws PersistenceException {
+        if (!exists(id)) {
+            throw new PersistenceException("Task with id: " + id + " not found.");
+        }
+    }
+
+    /**
+     * Writes a new task into the slot of the next ID, without forcing it to disk.
+     */
+    private Task create(Task task, long currentTime) throws IOException {
+        int id = nextId();
+        Task created = new Task(id, task.getStatus(), task.getTask(), currentTime, currentTime);
+        write(created);
+        if (counters != null) {
+            counters.add(created);
+        }
+        slots.putInt(HEADER_NEXT_ID, id + 1);
+        return created;
+    }
+
+    /**
+     * Marks the slot of an existing task as unused, without forcing it to disk.
+     */
+    private void clear(int taskId) {
+        if (counters != null) {
+            TaskRecordLayout.TaskRecord record = TaskRecordLayout.read(slots, slotOf(taskId));
+            counters.remove(taskId, record.status(), record.createdAt(), record.updatedAt());
+        }
+        TaskRecordLayout.clear(slots, slotOf(taskId));
+    }
+
+    /**
+     * Updates the slot of an existing task in place, without forcing it to disk.
+     */
+    private Task change(Task task, long currentTime) throws IOException {
+        int at = slotOf(task.getId());
+        TaskRecordLayout.TaskRecord record = TaskRecordLayout.read(slots, at);
+        String current = record.textOffset() < 0 ? null : heap.read(record.textOffset(), record.textLength());
+        if (!Objects.equals(current, task.getTask())) {
+            TextHeap.Slice text = task.getTask() == null ? new TextHeap.Slice(-1, 0) : heap.append(task.getTask());
+            slots.putLong(at + TaskRecordLayout.TEXT_OFFSET, text.offset());
+            slots.putInt(at + TaskRecordLayout.TEXT_LENGTH, text.length());
+        }
+        slots.put(at + TaskRecordLayout.STATUS, TaskRecordLayout.encodeStatus(task.getStatus()));
+        slots.putLong(at + TaskRecordLayout.UPDATED_AT, currentTime);
+        TaskRecordLayout.TaskRecord updated = TaskRecordLayout.read(slots, at);
+        if (counters != null) {
+            counters.replace(task.getId(), record.status(), record.createdAt(), record.updatedAt(),
+                    updated.status(), updated.createdAt(), updated.updatedAt());
+        }
+        return toTask(updated);
+    }
+
+    /**
+     * Retrieves a task by ID directly from its slot.
+     *
+     * @param id the ID of the task.
+     * @return the task with the given ID.
+     * @throws NoSuchElementException if no task is found.
+     */
+    @Override
+    public synchronized Task getTask(int id) throws NoSuchElementException {
+        if (!exists(id)) {
+            throw new NoSuchElementException(String.format("Task with %d not found", id));
+        }
+        try {
+            return toTask(TaskRecordLayout.read(slots, slotOf(id)));
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns all tasks by scanning the used slots.
+     *
+     * @return the task list.
+     */
+    @Override
+    public synchronized List<Task> getTasks() {
+        return getTasks(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns one page of tasks by scanning the slots after the cursor.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return up to {@code limit} tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasks(int afterId, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        int end = Math.min(nextId() - 1, capacity);
+        try {
+            for (long id = Math.max(1, afterId + 1L); id <= end && tasks.size() < limit; id++) {
+                TaskRecordLayout.TaskRecord record = TaskRecordLayout.read(slots, slotOf((int) id));
+                if (record != null) {
+                    tasks.add(toTask(record));
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the running task counts. The first call counts the used slots, reading only their fixed-size
+     * records; after that the counts are updated by every mutation.
+     *
+     * @return the statistics.
+     */
+    @Override
+    public synchronized TaskStats getStats() {
+        if (counters == null) {
+            TaskCounters counted = new TaskCounters();
+            int end = Math.min(nextId() - 1, capacity);
+            for (int id = 1; id <= end; id++) {
+                TaskRecordLayout.TaskRecord record = TaskRecordLayout.read(slots, slotOf(id));
+                if (record != null) {
+                    counted.add(id, record.status(), record.createdAt(), record.updatedAt());
+                }
+            }
+            counters = counted;
+        }
+        return counters.stats();
+    }
+
+    /**
+     * Forces the mapped slots and the heap to disk and closes both files.
+     *
+     * @throws PersistenceException if syncing or closing fails.
+     */
+    @Override
+    public synchronized void close() throws PersistenceException {
+        try {
+            heap.force();
+            slots.force();
+            heap.close();
+            channel.close();
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+}
@@ -0,0 +1,705 @@
+package org.tommy.persist;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Implements the {@link TaskSaver} interface with task records held outside the Java heap.
+ *
+ * Every task is a fixed-size {@link #RECORD} in a {@link MemorySegment} allocated from an {@link Arena},
+ * addressed directly by task ID, and descriptions are UTF-8 bytes in a second, append-only segment. The heap
+ * holds no per-task objects between calls: tasks are only materialized for the results of a call, so the
+ * garbage collector never has to trace or promote the store. Segments grow by copying into a larger segment
+ * from a fresh arena and closing the old one, which returns its memory at once.
+ *
+ * The tasks are loaded from the JSON file on start and every mutation is appended to the same journal that
+ * {@link FileSaver} uses ({@code <json.file.path>.journal}); once it grows past
+ * {@code journal.compaction.threshold.bytes}, and on {@link #close()}, the records are streamed back into the
+ * JSON file one task at a time. The file is locked for as long as the saver is open.
+ */
+public class OffHeapSaver implements TaskSaver {
+
+    /** Layout of a task record. Timestamps are epoch nanoseconds as encoded by {@link TaskRecordLayout}. */
+    public static final StructLayout RECORD = MemoryLayout.structLayout(
+            ValueLayout.JAVA_INT.withName("id"),
+            ValueLayout.JAVA_BYTE.withName("status"),
+            ValueLayout.JAVA_BYTE.withName("flags"),
+            MemoryLayout.paddingLayout(2),
+            ValueLayout.JAVA_LONG.withName("createdAt"),
+            ValueLayout.JAVA_LONG.withName("updatedAt"),
+            ValueLayout.JAVA_LONG.withName("textOffset"),
+            ValueLayout.JAVA_INT.withName("textLength"),
+            MemoryLayout.paddingLayout(4));
+
+    private static final long ID = offsetOf("id");
+    private static final long STATUS = offsetOf("status");
+    private static final long FLAGS = offsetOf("flags");
+    private static final long CREATED_AT = offsetOf("createdAt");
+    private static final long UPDATED_AT = offsetOf("updatedAt");
+    private static final long TEXT_OFFSET = offsetOf("textOffset");
+    private static final long TEXT_LENGTH = offsetOf("textLength");
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long INITIAL_TEXT_BYTES = 64 * 1024;
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private final Gson gson;
+    private final SnapshotCodec codec;
+    private final Path dataFile;
+    private final boolean fsync;
+    private final PersistenceMetrics metrics;
+    private final long compactionThreshold;
+    private final StoreLock storeLock;
+    private final TaskTypeAdapter taskAdapter = new TaskTypeAdapter();
+    private TaskJournal journal;
+
+    private Arena recordArena;
+    private MemorySegment records;
+    private long capacity;
+    private Arena textArena;
+    private MemorySegment text;
+    private long textLength;
+    private long textGarbage;
+    private int nextId = 1;
+    private int size;
+    private final TaskCounters counters = new TaskCounters();
+    private long version;
+
+    private static long offsetOf(String field) {
+        return RECORD.byteOffset(MemoryLayout.PathElement.groupElement(field));
+    }
+
+    /**
+     * Constructs an OffHeapSaver using the application configuration.
+     *
+     * @throws PersistenceException if the data cannot be loaded or the file is in use.
+     */
+    public OffHeapSaver() throws PersistenceException {
+        this(AppConfig.getInstance());
+    }
+
+    /**
+     * Constructs an OffHeapSaver using the given configuration.
+     *
+     * @param appConfig the configuration.
+     * @throws PersistenceException if the data cannot be loaded or the file is in use.
+     */
+    public OffHeapSaver(AppConfig appConfig) throws PersistenceException {
+        this.dataFile = Paths.get(appConfig.getProperty("json.file.path"));
+        this.gson = TaskCodec.create(appConfig.getBooleanProperty("json.pretty.print", true));
+        this.codec = SnapshotCodec.fromName(appConfig.getProperty("snapshot.codec", SnapshotCodec.NONE.name()));
+        Durability durability = Durability.valueOf(
+                appConfig.getProperty("commit.durability", Durability.OS.name()).toUpperCase());
+        this.fsync = durability != Durability.OS;
+        this.metrics = new PersistenceMetrics(durability);
+        this.compactionThreshold = appConfig.getLongProperty("journal.compaction.threshold.bytes",
+                DEFAULT_COMPACTION_THRESHOLD);
+        this.recordArena = Arena.ofShared();
+        this.records = recordArena.allocate(RECORD.byteSize() * INITIAL_CAPACITY, RECORD.byteAlignment());
+        this.capacity = INITIAL_CAPACITY;
+        this.textArena = Arena.ofShared();
+        this.text = textArena.allocate(INITIAL_TEXT_BYTES, 1);
+        try {
+            this.storeLock = new StoreLock(siblingOf(FileSaver.LOCK_SUFFIX));
+        } catch (IOException e) {
+            freeMemory();
+            throw new PersistenceException(e);
+        }
+        try {
+            if (!storeLock.tryAcquire()) {
+                throw new PersistenceException("Task file " + dataFile + " is in use by another process");
+            }
+            load();
+            TaskJournal.replay(siblingOf(FileSaver.COMPACTING_SUFFIX), this::applyEntry);
+            TaskJournal.replay(siblingOf(FileSaver.JOURNAL_SUFFIX), this::applyEntry);
+            this.journal = new TaskJournal(siblingOf(FileSaver.JOURNAL_SUFFIX));
+        } catch (IOException | RuntimeException e) {
+            freeMemory();
+            try {
+                storeLock.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e instanceof PersistenceException persistence ? persistence : new PersistenceException(e);
+        }
+    }
+
+    private void freeMemory() {
+        recordArena.close();
+        textArena.close();
+    }
+
+    /**
+     * Streams the JSON file into records without building the whole store on the heap.
+     */
+    private void load() throws IOException {
+        if (!Files.exists(dataFile) || Files.size(dataFile) == 0) {
+            return;
+        }
+        try (Reader reader = SnapshotCodec.newReader(dataFile)) {
+            JsonReader in = new JsonReader(reader);
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                return;
+            }
+            List<String> shared = new ArrayList<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "version" -> version = in.nextLong();
+                    case "nextId" -> nextId = Math.max(nextId, in.nextInt());
+                    case "descriptions" -> TaskStoreTypeAdapter.readDescriptions(in, shared);
+                    case "tasks" -> {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            Task task = taskAdapter.read(in, shared);
+                            if (task != null && task.getId() >= 1) {
+                                put(task);
+                            }
+                        }
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+    }
+
+    private void applyEntry(TaskJournal.Operation op, int id, Task task, int entryNextId) {
+        if (op == TaskJournal.Operation.DELETE) {
+            remove(id);
+        } else if (task.getId() >= 1) {
+            put(task);
+        }
+        nextId = Math.max(nextId, entryNextId);
+    }
+
+    private Path siblingOf(String suffix) {
+        return dataFile.resolveSibling(dataFile.getFileName() + suffix);
+    }
+
+    private long address(int id) {
+        return id * RECORD.byteSize();
+    }
+
+    private boolean isLive(int id) {
+        return id >= 1 && id < capacity && records.get(ValueLayout.JAVA_BYTE, address(id) + FLAGS) == TaskRecordLayout.LIVE;
+    }
+
+    /**
+     * Writes a task into its record, growing the record segment if the ID does not fit.
+     */
+    private void put(Task task) {
+        int id = task.getId();
+        if (id >= capacity) {
+            growRecords(Math.max(id + 1L, capacity * 2));
+        }
+        long at = address(id);
+        if (isLive(id)) {
+            textGarbage += records.get(ValueLayout.JAVA_INT, at + TEXT_LENGTH);
+            counters.replace(id, statusAt(at), records.get(ValueLayout.JAVA_LONG, at + CREATED_AT),
+                    records.get(ValueLayout.JAVA_LONG, at + UPDATED_AT),
+                    task.getStatus(), task.getCreatedAtNanos(), task.getUpdatedAtNanos());
+        } else {
+            size++;
+            counters.add(task);
+        }
+        byte[] bytes = task.getTask() == null ? null : task.getTask().getBytes(StandardCharsets.UTF_8);
+        long offset = bytes == null ? -1 : appendText(bytes);
+        records.set(ValueLayout.JAVA_INT, at + ID, id);
+        records.set(ValueLayout.JAVA_BYTE, at + STATUS, TaskRecordLayout.encodeStatus(task.getStatus()));
+        records.set(ValueLayout.JAVA_BYTE, at + FLAGS, TaskRecordLayout.LIVE);
+        records.set(ValueLayout.JAVA_LONG, at + CREATED_AT, task.getCreatedAtNanos());
+        records.set(ValueLayout.JAVA_LONG, at + UPDATED_AT, task.getUpdatedAtNanos());
+        records.set(ValueLayout.JAVA_LONG, at + TEXT_OFFSET, offset);
+        records.set(ValueLayout.JAVA_INT, at + TEXT_LENGTH, bytes == null ? 0 : bytes.length);
+        compactTextIfWasteful();
+    }
+
+    private void remove(int id) {
+        if (!isLive(id)) {
+            return;
+        }
+        long at = address(id);
+        textGarbage += records.get(ValueLayout.JAVA_INT, at + TEXT_LENGTH);
+        counters.remove(id, statusAt(at), records.get(ValueLayout.JAVA_LONG, at + CREATED_AT),
+                records.get(ValueLayout.JAVA_LONG, at + UPDATED_AT));
+        records.asSlice(at, RECORD.byteSize()).fill((byte) 0);
+        size--;
+    }
+
+    /**
+     * Returns the status of the record at the given address; the counts read only such fixed-size fields.
+     */
+    private Status statusAt(long at) {
+        return TaskRecordLayout.decodeStatus(records.get(ValueLayout.JAVA_BYTE, at + STATUS));
+    }
+
+    /**
+     * Materializes the task in a record.
+     */
+    private Task read(int id) {
+        long at = address(id);
+        long offset = records.get(ValueLayout.JAVA_LONG, at + TEXT_OFFSET);
+        String description = null;
+        if (offset >= 0) {
+            byte[] bytes = new byte[records.get(ValueLayout.JAVA_INT, at + TEXT_LENGTH)];
+            MemorySegment.copy(text, ValueLayout.JAVA_BYTE, offset, bytes, 0, bytes.length);
+            description = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Task(id, TaskRecordLayout.decodeStatus(records.get(ValueLayout.JAVA_BYTE, at + STATUS)),
+                description, records.get(ValueLayout.JAVA_LONG, at + CREATED_AT),
+                records.get(ValueLayout.JAVA_LONG, at + UPDATED_AT));
+    }
+
+    private long appendText(byte[] bytes) {
+        if (textLength + bytes.length > text.byteSize()) {
+            Arena arena = Arena.ofShared();
+            MemorySegment grown = arena.allocate(Math.max(text.byteSize() * 2, textLength + bytes.length), 1);
+            MemorySegment.copy(text, 0, grown, 0, textLength);
+            textArena.close();
+            textArena = arena;
+            text = grown;
+        }
+        long offset = textLength;
+        MemorySegment.copy(bytes, 0, text, ValueLayout.JAVA_BYTE, offset, bytes.length);
+        textLength += bytes.length;
+        return offset;
+    }
+
+    /**
+     * Rewrites the text segment with only the live descriptions once most of it is garbage.
+     */
+    private void compactTextIfWasteful() {
+        if (textGarbage < INITIAL_TEXT_BYTES || textGarbage * 2 < textLength) {
+            return;
+        }
+        Arena arena = Arena.ofShared();
+        MemorySegment compacted = arena.allocate(Math.max(INITIAL_TEXT_BYTES, (textLength - textGarbage) * 2), 1);
+        long length = 0;
+        for (int id = 1; id < capacity; id++) {
+            if (!isLive(id)) {
+                continue;
+            }
+            long at = address(id);
+            long offset = records.get(ValueLayout.JAVA_LONG, at + TEXT_OFFSET);
+            if (offset < 0) {
+                continue;
+            }
+            int bytes = records.get(ValueLayout.JAVA_INT, at + TEXT_LENGTH);
+            MemorySegment.copy(text, offset, compacted, length, bytes);
+            records.set(ValueLayout.JAVA_LONG, at + TEXT_OFFSET, length);
+            length += bytes;
+        }
+        textArena.close();
+        textArena = arena;
+        text = compacted;
+        textLength = length;
+        textGarbage = 0;
+    }
+
+    private void growRecords(long newCapacity) {
+        if (newCapacity > Integer.MAX_VALUE) {
+            throw new PersistenceException("Off-heap store cannot hold task IDs beyond " + Integer.MAX_VALUE);
+        }
+        Arena arena = Arena.ofShared();
+        MemorySegment grown = arena.allocate(RECORD.byteSize() * newCapacity, RECORD.byteAlignment());
+        MemorySegment.copy(records, 0, grown, 0, records.byteSize());
+        recordArena.close();
+        recordArena = arena;
+        records = grown;
+        capacity = newCapacity;
+    }
+
+    /**
+     * Appends a mutation to the journal and folds the journal into the JSON file once it is large enough.
+     */
+    private void log(TaskJournal.Operation op, int id, Task task) throws IOException {
+        append(op, id, task);
+        commit();
+    }
+
+    /**
+     * Buffers a journal entry; it is written by the next {@link #commit()}.
+     */
+    private void append(TaskJournal.Operation op, int id, Task task) throws IOException {
+        if (op == TaskJournal.Operation.DELETE) {
+            journal.appendDelete(id, nextId);
+        } else {
+            journal.append(op, task, nextId);
+        }
+    }
+
+    /**
+     * Flushes the buffered journal entries and compacts the journal once it is large enough.
+     * Once the entries are flushed the mutation is durable, so a failed compaction is only counted in the
+     * {@link #getMetrics() metrics}; it must not make the caller roll back a change that will be replayed.
+     */
+    private void commit() throws IOException {
+        journal.flush(fsync);
+        if (journal.size() >= compactionThreshold) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // The rotated journal stays on disk; the next compaction or start folds it in.
+                metrics.recordCompactionFailure();
+            }
+        }
+    }
+
+    /**
+     * Rotates the journal, streams all records into a new JSON snapshot and drops the rotated journal.
+     * A rotated journal left behind by a failed compaction is not overwritten; the new snapshot covers it.
+     */
+    private void compact() throws IOException {
+        Path compacting = siblingOf(FileSaver.COMPACTING_SUFFIX);
+        if (!Files.exists(compacting)) {
+            journal.rotate(compacting);
+        }
+        writeSnapshot();
+        Files.deleteIfExists(compacting);
+    }
+
+    /**
+     * Writes the records to a temporary file one task at a time and atomically moves it over the JSON file.
+     */
+    private void writeSnapshot() throws IOException {
+        long written = version + 1;
+        Path temp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = codec.wrap(Channels.newOutputStream(channel));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            JsonWriter json = gson.newJsonWriter(writer);
+            json.beginObject();
+            json.name("version").value(written);
+            json.name("nextId").value(nextId);
+            json.name("tasks").beginArray();
+            for (int id = 1; id < capacity; id++) {
+                if (isLive(id)) {
+                    taskAdapter.write(json, read(id));
+                }
+            }
+            json.endArray();
+            json.endObject();
+            json.flush();
+            if (out instanceof DeflaterOutputStream compressed) {
+                compressed.finish();
+            }
+            channel.force(true);
+        }
+        Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        version = written;
+    }
+
+    /**
+     * Adds a new task under the next ID.
+     *
+     * @param task the task to add (without ID).
+     * @return the created task with ID and timestamps.
+     * @throws PersistenceException if the journal cannot be written.
+     */
+    @Override
+    public synchronized Task addTask(Task task) throws PersistenceException {
+        int id = nextId;
+        long currentTime = Task.now();
+        Task created = new Task(id, task.getStatus(), task.getTask(), currentTime, currentTime);
+        put(created);
+        nextId = id + 1;
+        try {
+            log(TaskJournal.Operation.ADD, id, created);
+        } catch (IOException e) {
+            remove(id);
+            nextId = id;
+            throw new PersistenceException(e);
+        }
+        return created;
+    }
+
+    /**
+     * Deletes the task with the given ID.
+     *
+     * @param taskId the ID of the task to delete.
+     * @return the ID of the deleted task.
+     * @throws PersistenceException if the task is not found or the journal cannot be written.
+     */
+    @Override
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        if (!isLive(taskId)) {
+            throw new PersistenceException("Task with id: " + taskId + " not found.");
+        }
+        Task backup = read(taskId);
+        remove(taskId);
+        try {
+            log(TaskJournal.Operation.DELETE, taskId, null);
+        } catch (IOException e) {
+            put(backup);
+            throw new PersistenceException(e);
+        }
+        return taskId;
+    }
+
+    /**
+     * Updates the status and description of an existing task.
+     *
+     * @param task the task with updated fields.
+     * @return the updated task.
+     * @throws PersistenceException if the task is not found or the journal cannot be written.
+     */
+    @Override
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        if (!isLive(task.getId())) {
+            throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+        }
+        Task backup = read(task.getId());
+        Task updated = new Task(task.getId(), task.getStatus(), task.getTask(), backup.getCreatedAtNanos(), Task.now());
+        put(updated);
+        try {
+            log(TaskJournal.Operation.UPDATE, updated.getId(), updated);
+        } catch (IOException e) {
+            put(backup);
+            throw new PersistenceException(e);
+        }
+        return updated;
+    }
+
+    /**
+     * Adds several tasks under consecutive IDs and flushes the journal once for the whole batch.
+     *
+     * @param tasks the tasks to add (without IDs).
+     * @return the created tasks, in the same order.
+     * @throws PersistenceException if the journal cannot be written; no task is added then.
+     */
+    @Override
+    public synchronized List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        int firstId = nextId;
+        long currentTime = Task.now();
+        List<Task> created = new ArrayList<>(tasks.size());
+        try {
+            for (Task task : tasks) {
+                Task createdTask = new Task(nextId, task.getStatus(), task.getTask(), currentTime, currentTime);
+                put(createdTask);
+                created.add(createdTask);
+                nextId++;
+                append(TaskJournal.Operation.ADD, createdTask.getId(), createdTask);
+            }
+            commit();
+        } catch (IOException e) {
+            created.forEach(task -> remove(task.getId()));
+            nextId = firstId;
+            throw new PersistenceException(e);
+        }
+        return created;
+    }
+
+    /**
+     * Updates several tasks and flushes the journal once. All tasks are checked before any is changed.
+     *
+     * @param tasks the tasks with updated fields.
+     * @return the updated tasks, in the same order.
+     * @throws PersistenceException if a task is not found or the journal cannot be written; no task is
+     *                              changed then.
+     */
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        Map<Integer, Task> backups = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            if (!isLive(task.getId())) {
+                throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+            }
+            backups.computeIfAbsent(task.getId(), this::read);
+        }
+        long currentTime = Task.now();
+        List<Task> updatedTasks = new ArrayList<>(tasks.size());
+        try {
+            for (Task task : tasks) {
+                Task updated = new Task(task.getId(), task.getStatus(), task.getTask(),
+                        backups.get(task.getId()).getCreatedAtNanos(), currentTime);
+                put(updated);
+                updatedTasks.add(updated);
+                append(TaskJournal.Operation.UPDATE, updated.getId(), updated);
+            }
+            commit();
+        } catch (IOException e) {
+            backups.values().forEach(this::put);
+            throw new PersistenceException(e);
+        }
+        return updatedTasks;
+    }
+
+    /**
+     * Deletes several tasks and flushes the journal once.
+     *
+     * @param taskIds the IDs of the tasks to delete; repeated IDs count once.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task is not found or the journal cannot be written; no task is
+     *                              deleted then.
+     */
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        Map<Integer, Task> backups = new LinkedHashMap<>();
+        for (int taskId : taskIds) {
+            if (!isLive(taskId)) {
+                throw new PersistenceException("Task with id: " + taskId + " not found.");
+            }
+            backups.computeIfAbsent(taskId, this::read);
+        }
+        try {
+            for (int taskId : backups.keySet()) {
+                remove(taskId);
+                append(TaskJournal.Operation.DELETE, taskId, null);
+            }
+            commit();
+        } catch (IOException e) {
+            backups.values().forEach(this::put);
+            throw new PersistenceException(e);
+        }
+        return backups.size();
+    }
+
+    /**
+     * Returns the persistence counters of this saver; only compaction failures are recorded.
+     *
+     * @return the persistence metrics.
+     */
+    public PersistenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retrieves a task by ID, reading its record directly.
+     *
+     * @param id the ID of the task.
+     * @return the task with the given ID.
+     * @throws NoSuchElementException if no task is found.
+     */
+    @Override
+    public synchronized Task getTask(int id) throws NoSuchElementException {
+        if (!isLive(id)) {
+            throw new NoSuchElementException(String.format("Task with %d not found", id));
+        }
+        return read(id);
+    }
+
+    /**
+     * Returns all tasks in ID order.
+     *
+     * @return the task list.
+     */
+    @Override
+    public synchronized List<Task> getTasks() {
+        return getTasks(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns one page of tasks, reading only the records after the cursor.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return up to {@code limit} tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasks(int afterId, int limit) {
+        List<Task> tasks = new ArrayList<>(Math.max(0, Math.min(limit, size)));
+        for (long id = Math.max(1, afterId + 1L); id < capacity && tasks.size() < limit; id++) {
+            if (isLive((int) id)) {
+                tasks.add(read((int) id));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks with the given status, scanning only the status bytes of the records
+     * and materializing just the matches.
+     *
+     * @param status the status to filter by.
+     * @return the matching tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasksByStatus(Status status) {
+        byte wanted = TaskRecordLayout.encodeStatus(status);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id < capacity; id++) {
+            if (isLive(id) && records.get(ValueLayout.JAVA_BYTE, address(id) + STATUS) == wanted) {
+                tasks.add(read(id));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the running task counts, which are kept up to date as records are written and removed.
+     *
+     * @return the statistics.
+     */
+    @Override
+    public synchronized TaskStats getStats() {
+        return counters.stats();
+    }
+
+    /**
+     * Returns the number of bytes currently allocated off-heap for records and descriptions.
+     *
+     * @return the off-heap footprint.
+     */
+    public synchronized long getOffHeapBytes() {
+        return records.byteSize() + text.byteSize();
+    }
+
+    /**
+     * Writes the records back to the JSON file, removes the journal and frees the off-heap memory.
+     *
+     * @throws PersistenceException if the snapshot cannot be written.
+     */
+    @Override
+    public synchronized void close() throws PersistenceException {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+            writeSnapshot();
+            Files.deleteIfExists(siblingOf(FileSaver.JOURNAL_SUFFIX));
+            storeLock.close();
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        } finally {
+            journal = null;
+            freeMemory();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.tommy.persist;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running counters describing how mutations reach storage.
+ * Instances are thread-safe and are updated by the persistence layer as it writes.
+ */
+public class PersistenceMetrics {
+
+    private final Durability durability;
+    private final AtomicLong mutations = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong compactionFailures = new AtomicLong();
+
+    /**
+     * Creates an empty set of counters.
+     *
+     * @param durability the durability policy in effect.
+     */
+    public PersistenceMetrics(Durability durability) {
+        this.durability = durability;
+    }
+
+    void recordMutation() {
+        mutations.incrementAndGet();
+    }
+
+    void recordCoalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    void recordBatch(boolean fsync) {
+        batches.incrementAndGet();
+        if (fsync) {
+            fsyncs.incrementAndGet();
+        }
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    void recordCompactionFailure() {
+        compactionFailures.incrementAndGet();
+    }
+
+    /**
+     * Returns the durability policy in effect.
+     *
+     * @return the durability policy in effect.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Returns the number of mutations submitted for persistence.
+     *
+     * @return the number of mutations submitted for persistence.
+     */
+    public long getMutations() {
+        return mutations.get();
+    }
+
+    /**
+     * Returns the number of mutations folded into an earlier pending mutation of the same task.
+     *
+     * @return the number of mutations folded into an earlier pending mutation of the same task.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Returns the number of writes issued to storage.
+     *
+     * @return the number of writes issued to storage.
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * Returns the number of {@code fsync} calls issued.
+     *
+     * @return the number of {@code fsync} calls issued.
+     */
+    public long getFsyncs() {
+        return fsyncs.get();
+    }
+
+    /**
+     * Returns the number of writes that failed.
+     *
+     * @return the number of writes that failed.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the number of journal compactions that failed.
+     *
+     * @return the number of journal compactions that failed.
+     */
+    public long getCompactionFailures() {
+        return compactionFailures.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "durability=%s mutations=%d coalesced=%d batches=%d fsyncs=%d failures=%d compactionFailures=%d",
+                durability, getMutations(), getCoalesced(), getBatches(), getFsyncs(), getFailures(),
+                getCompactionFailures());
+    }
+}
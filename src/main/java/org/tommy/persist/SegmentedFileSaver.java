@@ -0,0 +1,509 @@
+package org.tommy.persist;
+
+import com.google.gson.Gson;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Implements the {@link TaskSaver} interface over a set of JSON segment files partitioned by ID range.
+ *
+ * Segment {@code n} holds the tasks with IDs in {@code [n * segment.size + 1, (n + 1) * segment.size]} and is
+ * stored as {@code segment-<n>.json} in {@code segment.dir} (default {@code <json.file.path>.segments}).
+ * Segments are loaded in parallel on startup, and a mutation rewrites only the segment that owns the task,
+ * so both costs scale with the segment size instead of the store size.
+ *
+ * Every segment file records the store's next ID at the time it was written; the largest one wins on load.
+ * When no segments exist yet, the JSON file and its journal are split into segments once.
+ */
+public class SegmentedFileSaver implements TaskSaver {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".json";
+    /** Present in the segment directory while the JSON file is being split; its segments are then incomplete. */
+    private static final String MIGRATION_MARKER = "migrating";
+    private static final int DEFAULT_SEGMENT_SIZE = 10_000;
+
+    private final Gson gson;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final NavigableMap<Integer, TaskStore> segments = new TreeMap<>();
+    private int nextId = 1;
+
+    /**
+     * Constructs a SegmentedFileSaver using the application configuration.
+     *
+     * @throws PersistenceException if the segments cannot be read or migrated.
+     */
+    public SegmentedFileSaver() throws PersistenceException {
+        this(AppConfig.getInstance());
+    }
+
+    /**
+     * Constructs a SegmentedFileSaver using the given configuration.
+     *
+     * @param appConfig the configuration.
+     * @throws PersistenceException if the segments cannot be read or migrated.
+     */
+    public SegmentedFileSaver(AppConfig appConfig) throws PersistenceException {
+        Path jsonFile = Paths.get(appConfig.getProperty("json.file.path"));
+        this.gson = TaskCodec.create(appConfig.getBooleanProperty("json.pretty.print", true));
+        this.directory = Paths.get(appConfig.getProperty("segment.dir", jsonFile + ".segments"));
+        this.segmentSize = Math.max(1, appConfig.getIntProperty("segment.size", DEFAULT_SEGMENT_SIZE));
+        this.fsync = !Durability.OS.name()
+                .equalsIgnoreCase(appConfig.getProperty("commit.durability", Durability.OS.name()));
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                stream.forEach(files::add);
+            }
+            Path marker = directory.resolve(MIGRATION_MARKER);
+            if (Files.exists(marker)) {
+                // A migration was interrupted; its segments are discarded and it is started over.
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+                files.clear();
+            }
+            if (files.isEmpty()) {
+                migrate(jsonFile, marker);
+            } else {
+                loadInParallel(files);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Parses all segment files concurrently, one task per file, on as many threads as there are cores.
+     */
+    private void loadInParallel(List<Path> files) throws IOException {
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<Integer, Future<TaskStore>> loads = new TreeMap<>();
+            for (Path file : files) {
+                loads.put(segmentNumber(file), executor.submit(() -> read(file)));
+            }
+            for (Map.Entry<Integer, Future<TaskStore>> load : loads.entrySet()) {
+                TaskStore segment = load.getValue().get();
+                segments.put(load.getKey(), segment);
+                nextId = Math.max(nextId, segment.getNextId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(e);
+        } catch (ExecutionException e) {
+            throw new PersistenceException("Failed to load task segments", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private TaskStore read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            TaskStore segment = gson.fromJson(reader, TaskStore.class);
+            return segment == null ? new TaskStore(1, List.of()) : segment;
+        }
+    }
+
+    /**
+     * Splits the tasks of the JSON file and its journal into segments. The marker file is kept until every
+     * segment has been written, so a crash part-way is detected and the migration repeated on the next start.
+     */
+    private void migrate(Path jsonFile, Path marker) throws IOException {
+        TaskStore store = FileSaver.readStore(jsonFile);
+        // Taken even without tasks, so that the IDs of tasks deleted from the JSON file are not handed out again.
+        nextId = Math.max(nextId, store.getNextId());
+        if (store.size() == 0) {
+            return;
+        }
+        Files.writeString(marker, "");
+        for (Task task : store.tasks()) {
+            segmentFor(task.getId()).addTask(task);
+        }
+        for (int segment : segments.keySet()) {
+            write(segment);
+        }
+        Files.delete(marker);
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private int segmentOf(int id) {
+        return Math.floorDiv(id - 1, segmentSize);
+    }
+
+    private TaskStore segmentFor(int id) {
+        // Slots count from the segment's first ID, so each segment's array is sized by the segment, not by nextId.
+        return segments.computeIfAbsent(segmentOf(id),
+                n -> new TaskStore(nextId, new ArrayList<>(), n * segmentSize + 1));
+    }
+
+    /**
+     * Atomically rewrites a single segment file.
+     */
+    private void write(int segment) throws IOException {
+        TaskStore store = segments.get(segment);
+        store.setNextId(nextId);
+        Path target = directory.resolve(PREFIX + segment + SUFFIX);
+        Path temp = directory.resolve(PREFIX + segment + SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            gson.toJson(store, writer);
+            writer.flush();
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Task find(int id) {
+        TaskStore segment = segments.get(segmentOf(id));
+        if (segment == null) {
+            return null;
+        }
+        return segment.getTask(id);
+    }
+
+    /**
+     * Adds a new task and rewrites the segment that owns its ID.
+     *
+     * @param task the task to add (without ID).
+     * @return the created task with ID and timestamps.
+     * @throws PersistenceException if writing fails.
+     */
+    @Override
+    public synchronized Task addTask(Task task) throws PersistenceException {
+        int id = nextId;
+        long currentTime = Task.now();
+        Task created = new Task(id, task.getStatus(), task.getTask(), currentTime, currentTime);
+        TaskStore segment = segmentFor(id);
+        segment.addTask(created);
+        nextId = id + 1;
+        try {
+            write(segmentOf(id));
+        } catch (IOException e) {
+            segment.deleteTask(created);
+            nextId = id;
+            throw new PersistenceException(e);
+        }
+        return created;
+    }
+
+    /**
+     * Deletes a task and rewrites the segment that owned it.
+     *
+     * @param taskId the ID of the task to delete.
+     * @return the ID of the deleted task.
+     * @throws PersistenceException if the task is not found or writing fails.
+     */
+    @Override
+    public synchronized int deleteTask(int taskId) throws PersistenceException {
+        Task task = find(taskId);
+        if (task == null) {
+            throw new PersistenceException("Task with id: " + taskId + " not found.");
+        }
+        TaskStore segment = segments.get(segmentOf(taskId));
+        segment.deleteTask(task);
+        try {
+            write(segmentOf(taskId));
+        } catch (IOException e) {
+            segment.addTask(task);
+            throw new PersistenceException(e);
+        }
+        return taskId;
+    }
+
+    /**
+     * Updates a task and rewrites the segment that owns it.
+     *
+     * @param task the task with updated fields.
+     * @return the updated task.
+     * @throws PersistenceException if the task is not found or writing fails.
+     */
+    @Override
+    public synchronized Task updateTask(Task task) throws PersistenceException {
+        Task persistedTask = find(task.getId());
+        if (persistedTask == null) {
+            throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+        }
+        Task updatedTask = new Task(task.getId(), task.getStatus(), task.getTask(),
+                persistedTask.getCreatedAtNanos(), Task.now());
+        TaskStore segment = segments.get(segmentOf(task.getId()));
+        segment.replaceTask(updatedTask);
+        try {
+            write(segmentOf(task.getId()));
+        } catch (IOException e) {
+            segment.replaceTask(persistedTask);
+            throw new PersistenceException(e);
+        }
+        return updatedTask;
+    }
+
+    /**
+     * Adds several tasks and rewrites each segment that receives one of them once.
+     *
+     * @param tasks the tasks to add (without IDs).
+     * @return the created tasks, in the same order.
+     * @throws PersistenceException if writing fails; no task is added then.
+     */
+    @Override
+    public synchronized List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        int firstId = nextId;
+        long currentTime = Task.now();
+        List<Task> created = new ArrayList<>(tasks.size());
+        Set<Integer> dirty = new TreeSet<>();
+        for (Task task : tasks) {
+            Task createdTask = new Task(nextId, task.getStatus(), task.getTask(), currentTime, currentTime);
+            segmentFor(nextId).addTask(createdTask);
+            dirty.add(segmentOf(nextId));
+            created.add(createdTask);
+            nextId++;
+        }
+        writeAll(dirty, () -> {
+            created.forEach(task -> segments.get(segmentOf(task.getId())).deleteTask(task));
+            nextId = firstId;
+        });
+        return created;
+    }
+
+    /**
+     * Updates several tasks and rewrites each affected segment once. All tasks are checked before any is changed.
+     *
+     * @param tasks the tasks with updated fields.
+     * @return the updated tasks, in the same order.
+     * @throws PersistenceException if a task is not found or writing fails; no task is changed then.
+     */
+    @Override
+    public synchronized List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        Map<Integer, Task> persistedTasks = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            Task persistedTask = find(task.getId());
+            if (persistedTask == null) {
+                throw new PersistenceException("Task with id: " + task.getId() + " not found.");
+            }
+            persistedTasks.putIfAbsent(task.getId(), persistedTask);
+        }
+        long currentTime = Task.now();
+        List<Task> updatedTasks = new ArrayList<>(tasks.size());
+        Set<Integer> dirty = new TreeSet<>();
+        for (Task task : tasks) {
+            Task updatedTask = new Task(task.getId(), task.getStatus(), task.getTask(),
+                    persistedTasks.get(task.getId()).getCreatedAtNanos(), currentTime);
+            segments.get(segmentOf(task.getId())).replaceTask(updatedTask);
+            dirty.add(segmentOf(task.getId()));
+            updatedTasks.add(updatedTask);
+        }
+        writeAll(dirty, () -> persistedTasks.values()
+                .forEach(task -> segments.get(segmentOf(task.getId())).replaceTask(task)));
+        return updatedTasks;
+    }
+
+    /**
+     * Deletes several tasks and rewrites each affected segment once.
+     *
+     * @param taskIds the IDs of the tasks to delete; repeated IDs count once.
+     * @return the number of deleted tasks.
+     * @throws PersistenceException if a task is not found or writing fails; no task is deleted then.
+     */
+    @Override
+    public synchronized int deleteTasks(int... taskIds) throws PersistenceException {
+        Map<Integer, Task> deleted = new LinkedHashMap<>();
+        for (int taskId : taskIds) {
+            Task task = find(taskId);
+            if (task == null) {
+                throw new PersistenceException("Task with id: " + taskId + " not found.");
+            }
+            deleted.put(taskId, task);
+        }
+        Set<Integer> dirty = new TreeSet<>();
+        for (Task task : deleted.values()) {
+            segments.get(segmentOf(task.getId())).deleteTask(task);
+            dirty.add(segmentOf(task.getId()));
+        }
+        writeAll(dirty, () -> deleted.values().forEach(task -> segments.get(segmentOf(task.getId())).addTask(task)));
+        return deleted.size();
+    }
+
+    /**
+     * Rewrites each of the given segments once. If a write fails, the in-memory changes are undone and the
+     * segments already written are rewritten from the restored state, so no part of the batch stays applied.
+     *
+     * @param dirty the segments to write.
+     * @param undo  reverts the in-memory changes of the batch.
+     * @throws PersistenceException if writing fails.
+     */
+    private void writeAll(Set<Integer> dirty, Runnable undo) throws PersistenceException {
+        List<Integer> written = new ArrayList<>(dirty.size());
+        try {
+            for (int segment : dirty) {
+                write(segment);
+                written.add(segment);
+            }
+        } catch (IOException e) {
+            undo.run();
+            PersistenceException failure = new PersistenceException(e);
+            for (int segment : written) {
+                try {
+                    write(segment);
+                } catch (IOException suppressed) {
+                    failure.addSuppressed(suppressed);
+                }
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * Retrieves a task by ID, looking only at the segment that owns it.
+     *
+     * @param id the ID of the task.
+     * @return the task with the given ID.
+     * @throws NoSuchElementException if no task is found.
+     */
+    @Override
+    public synchronized Task getTask(int id) throws NoSuchElementException {
+        Task task = find(id);
+        if (task == null) {
+            throw new NoSuchElementException(String.format("Task with %d not found", id));
+        }
+        return task;
+    }
+
+    /**
+     * Returns the tasks of all segments, segment by segment.
+     *
+     * @return the task list.
+     */
+    @Override
+    public synchronized List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (TaskStore segment : segments.values()) {
+            tasks.addAll(segment.tasks());
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns one page of tasks, starting at the segment that holds the cursor.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return up to {@code limit} tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasks(int afterId, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        int first = afterId == Integer.MAX_VALUE ? Integer.MAX_VALUE : segmentOf(afterId + 1);
+        for (TaskStore segment : segments.tailMap(first, true).values()) {
+            if (tasks.size() >= limit) {
+                break;
+            }
+            tasks.addAll(segment.getTasks(afterId, limit - tasks.size()));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks with the given status from each segment's status index.
+     *
+     * @param status the status to filter by.
+     * @return the matching tasks in ID order.
+     */
+    @Override
+    public synchronized List<Task> getTasksByStatus(Status status) {
+        List<Task> tasks = new ArrayList<>();
+        for (TaskStore segment : segments.values()) {
+            tasks.addAll(segment.getTasksByStatus(status));
+        }
+        return tasks;
+    }
+
+    /**
+     * Finds tasks by words in their description through each segment's text index and ranks the matches of all
+     * segments together.
+     *
+     * @param query the query; see {@link TextIndex} for the syntax.
+     * @return the matching tasks, best match first.
+     */
+    @Override
+    public synchronized List<Task> search(String query) {
+        Map<Task, Integer> matches = new HashMap<>();
+        for (TaskStore segment : segments.values()) {
+            matches.putAll(segment.match(query));
+        }
+        return TaskStore.rank(matches);
+    }
+
+    /**
+     * Returns the sum of the running task counts of all segments.
+     *
+     * @return the statistics.
+     */
+    @Override
+    public synchronized TaskStats getStats() {
+        TaskStats stats = TaskStats.EMPTY;
+        for (TaskStore segment : segments.values()) {
+            stats = stats.plus(segment.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the number of segments currently held.
+     *
+     * @return the segment count.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the store of a segment.
+     *
+     * @param number the segment number.
+     * @return the segment's store, or {@code null} if the segment does not exist.
+     */
+    synchronized TaskStore getSegment(int number) {
+        return segments.get(number);
+    }
+}
@@ -0,0 +1,127 @@
+package org.tommy.persist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression applied to task store snapshots, selected with {@code snapshot.codec} in
+ * {@code configuration.properties}:
+ * - {@code NONE}: plain JSON, as written by earlier versions.
+ * - {@code GZIP}: JSON compressed as a GZIP stream.
+ * - {@code DEFLATE}: JSON compressed as a raw deflate stream, which saves the GZIP header and checksum.
+ *
+ * Compressed snapshots start with a five byte header, the magic {@code TSNZ} followed by the codec's ID.
+ * Readers detect the codec from that header, so a store can switch codecs at any time and files written
+ * with any codec, including plain JSON without a header, remain readable.
+ */
+public enum SnapshotCodec {
+    NONE(0),
+    GZIP(1),
+    DEFLATE(2);
+
+    private static final byte[] MAGIC = {'T', 'S', 'N', 'Z'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int id;
+
+    SnapshotCodec(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the codec with the given name, ignoring case.
+     *
+     * @param name the codec name, e.g. {@code gzip}.
+     * @return the codec.
+     * @throws IllegalArgumentException if no codec has that name.
+     */
+    public static SnapshotCodec fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    /**
+     * Writes the codec header to the given stream and wraps it in a compressing stream.
+     * For {@link #NONE} the stream is returned unchanged and no header is written.
+     *
+     * @param out the raw snapshot stream.
+     * @return the stream to write the JSON to; closing or finishing it is up to the caller.
+     * @throws IOException if the header cannot be written.
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        if (this == NONE) {
+            return out;
+        }
+        out.write(MAGIC);
+        out.write(id);
+        if (this == GZIP) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true), BUFFER_SIZE);
+    }
+
+    /**
+     * Detects the codec of a snapshot stream from its header and returns a stream of the decompressed JSON.
+     *
+     * @param in the raw snapshot stream.
+     * @return the decompressed stream.
+     * @throws IOException if the stream cannot be read or names an unknown codec.
+     */
+    public static InputStream unwrap(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(HEADER_LENGTH);
+        byte[] header = buffered.readNBytes(HEADER_LENGTH);
+        if (header.length < HEADER_LENGTH || !hasMagic(header)) {
+            buffered.reset();
+            return buffered;
+        }
+        return switch (header[MAGIC.length]) {
+            case 0 -> buffered;
+            case 1 -> new GZIPInputStream(buffered, BUFFER_SIZE);
+            case 2 -> new InflaterInputStream(buffered, new Inflater(true), BUFFER_SIZE);
+            default -> throw new IOException("Unknown snapshot codec " + header[MAGIC.length]);
+        };
+    }
+
+    /**
+     * Opens a snapshot file for reading as UTF-8 JSON, whatever codec it was written with.
+     *
+     * @param file the snapshot file.
+     * @return a reader over the decompressed JSON.
+     * @throws FileNotFoundException if the file does not exist.
+     * @throws IOException           if the header cannot be read.
+     */
+    public static Reader newReader(Path file) throws IOException {
+        InputStream in = new FileInputStream(file.toFile());
+        try {
+            return new BufferedReader(new InputStreamReader(unwrap(in), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static boolean hasMagic(byte[] header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
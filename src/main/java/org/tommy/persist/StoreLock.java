@@ -0,0 +1,116 @@
+package org.tommy.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * An exclusive lock on a store shared by several processes, backed by a {@link FileLock} on a lock file.
+ *
+ * File locks are held on behalf of the whole JVM, so savers in the same process are additionally serialized
+ * through a semaphore per lock file. The lock is not tied to a thread: it may be released by a different thread
+ * than the one that acquired it, as happens when a group commit is flushed in the background.
+ */
+public class StoreLock implements Closeable {
+
+    private static final Map<Path, Semaphore> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+    private final Semaphore localLock;
+    private FileLock fileLock;
+
+    /**
+     * Opens (or creates) the lock file. No lock is acquired yet.
+     *
+     * @param lockFile the lock file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public StoreLock(Path lockFile) throws IOException {
+        this.channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.localLock = LOCAL_LOCKS.computeIfAbsent(lockFile.toAbsolutePath().normalize(), p -> new Semaphore(1));
+    }
+
+    /**
+     * Acquires the lock, blocking until other savers in this and other processes have released it.
+     *
+     * @throws IOException if the file lock cannot be acquired.
+     */
+    public void acquire() throws IOException {
+        localLock.acquireUninterruptibly();
+        try {
+            fileLock = channel.lock();
+        } catch (IOException | RuntimeException e) {
+            localLock.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires the lock if nobody else holds it.
+     *
+     * @return {@code true} if the lock was acquired.
+     * @throws IOException if the file lock cannot be requested.
+     */
+    public boolean tryAcquire() throws IOException {
+        if (!localLock.tryAcquire()) {
+            return false;
+        }
+        try {
+            fileLock = channel.tryLock();
+        } catch (IOException | RuntimeException e) {
+            localLock.release();
+            throw e;
+        }
+        if (fileLock == null) {
+            localLock.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether this instance currently holds the lock.
+     *
+     * @return {@code true} if the lock is held.
+     */
+    public boolean isHeld() {
+        return fileLock != null;
+    }
+
+    /**
+     * Releases the lock if it is held.
+     *
+     * @throws IOException if the file lock cannot be released.
+     */
+    public void release() throws IOException {
+        if (fileLock == null) {
+            return;
+        }
+        try {
+            fileLock.release();
+        } finally {
+            fileLock = null;
+            localLock.release();
+        }
+    }
+
+    /**
+     * Releases the lock and closes the lock file.
+     *
+     * @throws IOException if releasing or closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            release();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.tommy.persist;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.tommy.base.LocalDateTimeAdapter;
+import org.tommy.models.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Builds the {@link Gson} instances used to read and write tasks.
+ *
+ * All task types are handled by hand-written streaming adapters, so no reflection is involved.
+ */
+public final class TaskCodec {
+
+    private TaskCodec() {}
+
+    /**
+     * Creates a Gson instance with the streaming task adapters registered.
+     *
+     * @param prettyPrinting whether to indent the output; compact output is smaller and faster to write.
+     * @return the configured Gson instance.
+     */
+    public static Gson create(boolean prettyPrinting) {
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+                .registerTypeAdapter(TaskStore.class, new TaskStoreTypeAdapter());
+        if (prettyPrinting) {
+            builder.setPrettyPrinting();
+        }
+        return builder.create();
+    }
+}
@@ -0,0 +1,144 @@
+package org.tommy.persist;
+
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running task counts that a store updates as tasks are added, changed and removed, so that
+ * {@link TaskStats} can be read in constant time instead of by scanning every task.
+ *
+ * Creations and completions are counted per calendar day rather than for "today" only, so the counts stay
+ * right across midnight without a rescan; {@link #stats()} just picks the current day.
+ *
+ * A task is completed on the day its status changes to {@link Status#DONE}, so a done task keeps its
+ * completion day when it is edited later. Tasks have no completion time of their own, so a task that is
+ * already done when it is counted is taken as completed on the day of its last update; after that, only the
+ * done tasks edited on another day than their completion need their completion day remembered.
+ *
+ * Not thread-safe; the owning store serializes access.
+ */
+class TaskCounters {
+
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    private final long[] byStatus = new long[Status.values().length];
+    private final Map<Long, Long> createdByDay = new HashMap<>();
+    private final Map<Long, Long> completedByDay = new HashMap<>();
+    /** Completion days of the done tasks whose last update falls on another day, by task ID. */
+    private final Map<Integer, Long> completedOn = new HashMap<>();
+    private long total;
+
+    void add(Task task) {
+        add(task.getId(), task.getStatus(), task.getCreatedAtNanos(), task.getUpdatedAtNanos());
+    }
+
+    void remove(Task task) {
+        remove(task.getId(), task.getStatus(), task.getCreatedAtNanos(), task.getUpdatedAtNanos());
+    }
+
+    void replace(Task old, Task updated) {
+        replace(old.getId(), old.getStatus(), old.getCreatedAtNanos(), old.getUpdatedAtNanos(),
+                updated.getStatus(), updated.getCreatedAtNanos(), updated.getUpdatedAtNanos());
+    }
+
+    /**
+     * Counts a task given by the fields the statistics depend on.
+     */
+    void add(int id, Status status, long createdAt, long updatedAt) {
+        count(status, createdAt, 1);
+        if (status == Status.DONE && updatedAt != Task.NO_TIME) {
+            completedByDay.merge(dayOf(updatedAt), 1L, TaskCounters::sumOrNull);
+        }
+    }
+
+    /**
+     * Stops counting a task given by the fields the statistics depend on.
+     */
+    void remove(int id, Status status, long createdAt, long updatedAt) {
+        count(status, createdAt, -1);
+        Long completed = completionDay(id, status, updatedAt);
+        if (completed != null) {
+            completedByDay.merge(completed, -1L, TaskCounters::sumOrNull);
+        }
+    }
+
+    /**
+     * Counts a change of a task from the old fields to the new ones. The task is counted as completed on the
+     * day of the change if it becomes done, and keeps its completion day if it was done already.
+     */
+    void replace(int id, Status oldStatus, long oldCreatedAt, long oldUpdatedAt,
+                 Status status, long createdAt, long updatedAt) {
+        count(oldStatus, oldCreatedAt, -1);
+        count(status, createdAt, 1);
+        Long completed = completionDay(id, oldStatus, oldUpdatedAt);
+        if (status != Status.DONE) {
+            if (completed != null) {
+                completedByDay.merge(completed, -1L, TaskCounters::sumOrNull);
+            }
+        } else if (completed == null) {
+            if (updatedAt != Task.NO_TIME) {
+                completedByDay.merge(dayOf(updatedAt), 1L, TaskCounters::sumOrNull);
+            }
+        } else if (updatedAt == Task.NO_TIME || completed != dayOf(updatedAt)) {
+            completedOn.put(id, completed);
+        }
+    }
+
+    private void count(Status status, long createdAt, long delta) {
+        total += delta;
+        if (status != null) {
+            byStatus[status.ordinal()] += delta;
+        }
+        if (createdAt != Task.NO_TIME) {
+            createdByDay.merge(dayOf(createdAt), delta, TaskCounters::sumOrNull);
+        }
+    }
+
+    /**
+     * Returns the day a task in the given state was counted as completed, or {@code null} if it was not, and
+     * forgets a remembered completion day.
+     */
+    private Long completionDay(int id, Status status, long updatedAt) {
+        Long remembered = completedOn.remove(id);
+        if (remembered != null) {
+            return remembered;
+        }
+        return status == Status.DONE && updatedAt != Task.NO_TIME ? dayOf(updatedAt) : null;
+    }
+
+    /**
+     * Adds two counts, dropping the day from the map once nothing is left in it.
+     */
+    private static Long sumOrNull(Long a, Long b) {
+        long sum = a + b;
+        return sum == 0 ? null : sum;
+    }
+
+    private static long dayOf(long nanos) {
+        return Math.floorDiv(nanos, NANOS_PER_DAY);
+    }
+
+    void clear() {
+        total = 0;
+        Arrays.fill(byStatus, 0);
+        createdByDay.clear();
+        completedByDay.clear();
+        completedOn.clear();
+    }
+
+    /**
+     * Returns the current counts.
+     *
+     * @return the statistics.
+     */
+    TaskStats stats() {
+        long today = dayOf(Task.now());
+        return new TaskStats(total, byStatus[Status.NOT_DONE.ordinal()], byStatus[Status.IN_PROGRESS.ordinal()],
+                byStatus[Status.DONE.ordinal()], createdByDay.getOrDefault(today, 0L),
+                completedByDay.getOrDefault(today, 0L));
+    }
+}
@@ -0,0 +1,320 @@
+package org.tommy.persist;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.tommy.models.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only write-ahead log of task mutations.
+ *
+ * Each mutation is written as a single JSON line carrying the full state of the affected task
+ * (or just its ID for deletions) along with the store's next ID. Replaying is therefore idempotent:
+ * {@code ADD} and {@code UPDATE} entries overwrite, {@code DELETE} entries ignore missing tasks,
+ * so a log may safely be replayed on top of a snapshot that already contains some of its entries.
+ *
+ * Entries that fail to be written or flushed are dropped from the buffer and from the end of the file, so that
+ * a mutation whose caller was told it failed is never replayed.
+ */
+public class TaskJournal implements Closeable {
+
+    /** Kind of mutation recorded by a journal entry. */
+    public enum Operation { ADD, UPDATE, DELETE }
+
+    /**
+     * Receives the entries of a journal during replay.
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+        /**
+         * Applies one entry.
+         *
+         * @param op     the kind of mutation.
+         * @param id     the ID of the affected task.
+         * @param task   the full state of the task, or {@code null} for {@code DELETE}.
+         * @param nextId the store's next ID after the mutation.
+         */
+        void apply(Operation op, int id, Task task, int nextId);
+    }
+
+    private static final TaskTypeAdapter TASK_ADAPTER = new TaskTypeAdapter();
+
+    private final Path path;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    private long size;
+    /** Size of the file after the last successful flush; entries past it may be dropped again. */
+    private long flushedSize;
+
+    /**
+     * Opens (or creates) the journal at the given path for appending.
+     *
+     * @param path the journal file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public TaskJournal(Path path) throws IOException {
+        this.path = path;
+        open();
+    }
+
+    private void open() throws IOException {
+        truncateTornTail();
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        this.size = channel.size();
+        this.flushedSize = size;
+    }
+
+    /**
+     * Cuts off a trailing partial line left behind by a crash mid-write,
+     * so that new entries do not get glued onto it.
+     *
+     * @throws IOException if the file cannot be read or truncated.
+     */
+    private void truncateTornTail() throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                channel.read(buffer, start);
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        channel.truncate(start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            channel.truncate(0);
+        }
+    }
+
+    /**
+     * Returns the path of the active journal file.
+     *
+     * @return the journal path.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the current size of the active journal in bytes.
+     *
+     * @return the journal size.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Appends an {@code ADD} or {@code UPDATE} entry carrying the full task state.
+     * The entry is buffered until {@link #flush(boolean)} is called.
+     *
+     * @param op     the operation, {@code ADD} or {@code UPDATE}.
+     * @param task   the task as it should look after the mutation.
+     * @param nextId the store's next ID after the mutation.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void append(Operation op, Task task, int nextId) throws IOException {
+        write(op, task.getId(), task, nextId);
+    }
+
+    /**
+     * Appends a {@code DELETE} entry.
+     * The entry is buffered until {@link #flush(boolean)} is called.
+     *
+     * @param taskId the ID of the deleted task.
+     * @param nextId the store's next ID after the mutation.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void appendDelete(int taskId, int nextId) throws IOException {
+        write(Operation.DELETE, taskId, null, nextId);
+    }
+
+    private void write(Operation op, int taskId, Task task, int nextId) throws IOException {
+        StringWriter buffer = new StringWriter(128);
+        JsonWriter json = new JsonWriter(buffer);
+        json.beginObject();
+        json.name("op").value(op.name());
+        json.name("nextId").value(nextId);
+        json.name("id").value(taskId);
+        if (task != null) {
+            json.name("task");
+            TASK_ADAPTER.write(json, task);
+        }
+        json.endObject();
+        json.flush();
+        String line = buffer.toString();
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            discardUnflushed(e);
+            throw e;
+        }
+        size += line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+    }
+
+    /**
+     * Hands buffered entries to the operating system and optionally forces them to the storage device.
+     * If this fails, the entries written since the last successful flush are dropped.
+     *
+     * @param fsync whether to {@code fsync} the journal after writing.
+     * @throws IOException if writing or syncing fails.
+     */
+    public void flush(boolean fsync) throws IOException {
+        try {
+            writer.flush();
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            discardUnflushed(e);
+            throw e;
+        }
+        flushedSize = size;
+    }
+
+    /**
+     * Drops the entries written since the last successful flush: the writer is abandoned with its buffer, the
+     * part of them that already reached the file is cut off and the journal is opened again.
+     *
+     * @param cause the failure that the entries are dropped for; problems while dropping are added to it.
+     */
+    private void discardUnflushed(IOException cause) {
+        try {
+            channel.close();
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(flushedSize);
+            }
+            open();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Moves the active journal aside to {@code target} and starts a fresh, empty journal.
+     * The moved file stays on disk until the caller has folded it into a snapshot.
+     *
+     * @param target where the current journal contents should be moved.
+     * @throws IOException if the journal cannot be moved or reopened.
+     */
+    public void rotate(Path target) throws IOException {
+        writer.close();
+        Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    /**
+     * Replays the entries of a journal file on top of the given store.
+     * Reading stops at the first malformed line, which can only be a torn write from a crash.
+     *
+     * @param path  the journal file to replay; ignored if it does not exist.
+     * @param store the store to apply the entries to.
+     * @return the number of entries applied.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int replay(Path path, TaskStore store) throws IOException {
+        return replay(path, (op, id, task, nextId) -> {
+            store.deleteTask(new Task(id));
+            if (op != Operation.DELETE) {
+                store.addTask(task);
+            }
+            store.setNextId(Math.max(store.getNextId(), nextId));
+        });
+    }
+
+    /**
+     * Replays the entries of a journal file into the given handler, for stores that are not a {@link TaskStore}.
+     * Reading stops at the first malformed line, which can only be a torn write from a crash.
+     *
+     * @param path    the journal file to replay; ignored if it does not exist.
+     * @param handler receives each complete entry in order.
+     * @return the number of entries applied.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int replay(Path path, EntryHandler handler) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    if (!apply(line, handler)) {
+                        break;
+                    }
+                } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                    break;
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Parses a single journal line and hands it to the handler.
+     *
+     * @return {@code false} if the line is not a complete entry.
+     */
+    private static boolean apply(String line, EntryHandler handler) throws IOException {
+        Operation op = null;
+        int nextId = 0;
+        int id = 0;
+        Task task = null;
+        JsonReader json = new JsonReader(new StringReader(line));
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "op" -> op = Operation.valueOf(json.nextString());
+                case "nextId" -> nextId = json.nextInt();
+                case "id" -> id = json.nextInt();
+                case "task" -> task = TASK_ADAPTER.read(json);
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (op == null || (op != Operation.DELETE && task == null)) {
+            return false;
+        }
+        handler.apply(op, id, op == Operation.DELETE ? null : task, nextId);
+        return true;
+    }
+
+    /**
+     * Closes the underlying writer.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
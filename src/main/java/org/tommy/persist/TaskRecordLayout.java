@@ -0,0 +1,131 @@
+package org.tommy.persist;
+
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size binary layout of a task record, shared by the binary storage engines.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  id (0 marks an unused record)
+ *      4     1  status ordinal, or -1 if unset
+ *      5     1  flags ({@link #LIVE} when the record holds a task)
+ *      6     8  createdAt as nanoseconds since the epoch (UTC), or {@link #NO_TIME}
+ *     14     8  updatedAt as nanoseconds since the epoch (UTC), or {@link #NO_TIME}
+ *     22     8  offset of the description in the text heap, or -1 if unset
+ *     30     4  length of the description in bytes
+ *     34     6  reserved
+ * </pre>
+ */
+public final class TaskRecordLayout {
+
+    /** Size of one record in bytes. */
+    public static final int RECORD_SIZE = 40;
+
+    /** Flag marking a record that holds a live task. */
+    public static final byte LIVE = 1;
+
+    /** Sentinel stored for an unset timestamp. */
+    public static final long NO_TIME = Task.NO_TIME;
+
+    static final int ID = 0;
+    static final int STATUS = 4;
+    static final int FLAGS = 5;
+    static final int CREATED_AT = 6;
+    static final int UPDATED_AT = 14;
+    static final int TEXT_OFFSET = 22;
+    static final int TEXT_LENGTH = 30;
+
+    private static final Status[] STATUSES = Status.values();
+
+    private TaskRecordLayout() {}
+
+    /**
+     * A decoded task record. The description itself lives in the text heap.
+     *
+     * @param id         the task ID.
+     * @param status     the task status, or {@code null}.
+     * @param createdAt  the creation time in epoch nanoseconds, or {@link #NO_TIME}.
+     * @param updatedAt  the last update time in epoch nanoseconds, or {@link #NO_TIME}.
+     * @param textOffset the description's offset in the text heap, or -1.
+     * @param textLength the description's length in bytes.
+     */
+    public record TaskRecord(int id, Status status, long createdAt, long updatedAt, long textOffset, int textLength) {}
+
+    /**
+     * Writes a live record at the given absolute position.
+     *
+     * @param buffer the buffer to write to.
+     * @param at     the absolute position of the record.
+     * @param record the record to write.
+     */
+    public static void write(ByteBuffer buffer, int at, TaskRecord record) {
+        buffer.putInt(at + ID, record.id());
+        buffer.put(at + STATUS, encodeStatus(record.status()));
+        buffer.put(at + FLAGS, LIVE);
+        buffer.putLong(at + CREATED_AT, record.createdAt());
+        buffer.putLong(at + UPDATED_AT, record.updatedAt());
+        buffer.putLong(at + TEXT_OFFSET, record.textOffset());
+        buffer.putInt(at + TEXT_LENGTH, record.textLength());
+    }
+
+    /**
+     * Reads the record at the given absolute position.
+     *
+     * @param buffer the buffer to read from.
+     * @param at     the absolute position of the record.
+     * @return the record, or {@code null} if the position does not hold a live task.
+     */
+    public static TaskRecord read(ByteBuffer buffer, int at) {
+        if (!isLive(buffer, at)) {
+            return null;
+        }
+        return new TaskRecord(buffer.getInt(at + ID), decodeStatus(buffer.get(at + STATUS)),
+                buffer.getLong(at + CREATED_AT), buffer.getLong(at + UPDATED_AT),
+                buffer.getLong(at + TEXT_OFFSET), buffer.getInt(at + TEXT_LENGTH));
+    }
+
+    /**
+     * Returns whether the record at the given position holds a live task.
+     *
+     * @param buffer the buffer to read from.
+     * @param at     the absolute position of the record.
+     * @return {@code true} if the record is live.
+     */
+    public static boolean isLive(ByteBuffer buffer, int at) {
+        return buffer.get(at + FLAGS) == LIVE && buffer.getInt(at + ID) != 0;
+    }
+
+    /**
+     * Marks the record at the given position as unused.
+     *
+     * @param buffer the buffer to write to.
+     * @param at     the absolute position of the record.
+     */
+    public static void clear(ByteBuffer buffer, int at) {
+        buffer.put(at + FLAGS, (byte) 0);
+    }
+
+    /**
+     * Encodes a status as its ordinal.
+     *
+     * @param status the status, may be {@code null}.
+     * @return the encoded byte.
+     */
+    public static byte encodeStatus(Status status) {
+        return status == null ? -1 : (byte) status.ordinal();
+    }
+
+    /**
+     * Decodes a status ordinal.
+     *
+     * @param value the encoded byte.
+     * @return the status, or {@code null} if unset.
+     */
+    public static Status decodeStatus(byte value) {
+        return value < 0 ? null : STATUSES[value];
+    }
+}
@@ -1,9 +1,23 @@
 package org.tommy.persist;
 
+import org.tommy.base.Status;
 import org.tommy.exception.PersistenceException;
 import org.tommy.models.Task;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Interface defining persistence operations for saving, updating, retrieving, and deleting tasks.
@@ -39,6 +53,121 @@ public interface TaskSaver {
      */
     public Task updateTask(Task task) throws PersistenceException;
 
+    /**
+     * Adds several tasks at once, assigning consecutive IDs in iteration order.
+     * The default implementation adds them one by one and deletes the added ones again if one fails;
+     * stores that can persist a batch at once should override it.
+     *
+     * @param tasks The tasks to be added.
+     * @return The added tasks, in the same order.
+     * @throws PersistenceException If saving fails; no task is added then.
+     */
+    public default List<Task> addTasks(Collection<Task> tasks) throws PersistenceException {
+        List<Task> created = new ArrayList<>(tasks.size());
+        try {
+            for (Task task : tasks) {
+                created.add(addTask(task));
+            }
+        } catch (PersistenceException e) {
+            for (Task task : created) {
+                try {
+                    deleteTask(task.getId());
+                } catch (PersistenceException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        return created;
+    }
+
+    /**
+     * Updates several tasks at once. Every task must exist, otherwise nothing is changed.
+     * The default implementation updates them one by one and restores the earlier ones if one fails;
+     * stores that can persist a batch at once should override it.
+     *
+     * @param tasks The tasks with updated details.
+     * @return The updated tasks, in the same order.
+     * @throws PersistenceException If a task is not found or the update fails.
+     */
+    public default List<Task> updateTasks(Collection<Task> tasks) throws PersistenceException {
+        List<Task> originals = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            originals.add(require(task.getId()));
+        }
+        List<Task> updated = new ArrayList<>(tasks.size());
+        try {
+            for (Task task : tasks) {
+                updated.add(updateTask(task));
+            }
+        } catch (PersistenceException e) {
+            for (int i = updated.size() - 1; i >= 0; i--) {
+                try {
+                    // Without timestamps, so that stores checking for concurrent updates accept the restore.
+                    updateTask(originals.get(i).withTimes(Task.NO_TIME, Task.NO_TIME));
+                } catch (PersistenceException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes several tasks at once. Every task must exist, otherwise nothing is deleted.
+     * The default implementation checks all IDs first and then deletes the tasks one by one, so a write
+     * failure part way through can leave the earlier ones deleted; stores that can persist a batch at once
+     * should override it.
+     *
+     * @param taskIds The IDs of the tasks to be deleted; repeated IDs count once.
+     * @return The number of deleted tasks.
+     * @throws PersistenceException If a task is not found or deletion fails.
+     */
+    public default int deleteTasks(int... taskIds) throws PersistenceException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (int id : taskIds) {
+            require(id);
+            ids.add(id);
+        }
+        for (int id : ids) {
+            deleteTask(id);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Moves several tasks to the given status at once, through {@link #updateTasks(Collection)}.
+     *
+     * @param status  The new status.
+     * @param taskIds The IDs of the tasks.
+     * @return The updated tasks.
+     * @throws PersistenceException If a task is not found or the update fails; no task is changed then.
+     */
+    public default List<Task> updateStatus(Status status, int... taskIds) throws PersistenceException {
+        List<Task> tasks = new ArrayList<>(taskIds.length);
+        for (int id : taskIds) {
+            tasks.add(require(id).withStatus(status));
+        }
+        return updateTasks(tasks);
+    }
+
+    /**
+     * Returns the task with the given ID, or throws the {@link PersistenceException} of a failed mutation.
+     */
+    private Task require(int id) throws PersistenceException {
+        Task task;
+        try {
+            task = getTask(id);
+        } catch (NoSuchElementException e) {
+            task = null;
+        }
+        if (task == null) {
+            throw new PersistenceException("Task with id: " + id + " not found.");
+        }
+        return task;
+    }
+
     /**
      * Retrieves the task with the specified ID.
      *
@@ -54,4 +183,164 @@ public interface TaskSaver {
      */
     public List<Task> getTasks();
 
+    /**
+     * Retrieves one page of tasks in ID order: up to {@code limit} tasks with IDs greater than {@code afterId}.
+     * Passing the ID of the last task of a page as {@code afterId} returns the next page; unlike an offset, this
+     * cursor stays correct while tasks are added or deleted between calls.
+     * The default implementation filters {@link #getTasks()}; stores with ordered access should override it.
+     *
+     * @param afterId The ID after which the page starts; {@link Integer#MIN_VALUE} for the first page.
+     * @param limit   The maximum number of tasks.
+     * @return A list of up to {@code limit} tasks.
+     */
+    public default List<Task> getTasks(int afterId, int limit) {
+        return getTasks().stream()
+                .filter(t -> t.getId() > afterId)
+                .sorted(Comparator.comparingInt(Task::getId))
+                .limit(Math.max(0, limit))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Returns all tasks as a stream in ID order.
+     * The default implementation streams {@link #getTasks()}; stores that can iterate without building
+     * a list should override it.
+     *
+     * @return The task stream.
+     */
+    public default Stream<Task> streamTasks() {
+        return getTasks().stream();
+    }
+
+    /**
+     * Retrieves all tasks with the given status.
+     * The default implementation filters {@link #getTasks()}; stores that can filter natively should override it.
+     *
+     * @param status The status to filter by.
+     * @return A list of the matching tasks.
+     */
+    public default List<Task> getTasksByStatus(Status status) {
+        return getTasks().stream()
+                .filter(t -> status.equals(t.getStatus()))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Retrieves the tasks created in the given range, oldest first.
+     * The default implementation filters and sorts {@link #getTasks()}; indexed stores should override it.
+     *
+     * @param from The inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   The exclusive upper bound, or {@code null} for no upper bound.
+     * @return A list of the matching tasks.
+     */
+    public default List<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return inRange(getTasks(), Task::getCreatedAtNanos, from, to);
+    }
+
+    /**
+     * Retrieves the tasks last updated in the given range, least recently updated first.
+     * The default implementation filters and sorts {@link #getTasks()}; indexed stores should override it.
+     *
+     * @param from The inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   The exclusive upper bound, or {@code null} for no upper bound.
+     * @return A list of the matching tasks.
+     */
+    public default List<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        return inRange(getTasks(), Task::getUpdatedAtNanos, from, to);
+    }
+
+    /**
+     * Retrieves the most recently updated tasks, newest first.
+     * The default implementation keeps a bounded heap of {@code limit} tasks while reading {@link #getTasks()},
+     * so it never sorts the whole store; indexed stores should override it.
+     *
+     * @param limit The maximum number of tasks.
+     * @return A list of up to {@code limit} tasks.
+     */
+    public default List<Task> getRecentlyUpdated(int limit) {
+        Comparator<Task> order = Comparator.comparingLong(Task::getUpdatedAtNanos).thenComparingInt(Task::getId);
+        PriorityQueue<Task> newest = new PriorityQueue<>(order);
+        for (Task task : getTasks()) {
+            if (limit <= 0 || task.getUpdatedAtNanos() == Task.NO_TIME) {
+                continue;
+            }
+            if (newest.size() < limit) {
+                newest.add(task);
+            } else if (order.compare(task, newest.peek()) > 0) {
+                newest.poll();
+                newest.add(task);
+            }
+        }
+        List<Task> tasks = new ArrayList<>(newest);
+        tasks.sort(order.reversed());
+        return tasks;
+    }
+
+    private static List<Task> inRange(List<Task> tasks, ToLongFunction<Task> time,
+                                      LocalDateTime from, LocalDateTime to) {
+        long lower = from == null ? Task.NO_TIME + 1 : Task.toEpochNanos(from);
+        long upper = to == null ? Long.MAX_VALUE : Task.toEpochNanos(to);
+        return tasks.stream()
+                .filter(t -> time.applyAsLong(t) != Task.NO_TIME)
+                .filter(t -> time.applyAsLong(t) >= lower)
+                .filter(t -> time.applyAsLong(t) < upper)
+                .sorted(Comparator.comparingLong(time).thenComparingInt(Task::getId))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Returns an immutable, point-in-time view of all tasks that later changes do not affect.
+     * The default implementation copies {@link #getTasks()}; stores that keep snapshots should override it.
+     *
+     * @return The snapshot.
+     */
+    public default TaskSnapshot snapshot() {
+        return TaskSnapshot.of(getTasks());
+    }
+
+    /**
+     * Finds tasks by words in their description, ranked by match count and then by most recent update.
+     * The default implementation matches every task of {@link #streamTasks()} against the query, without
+     * building an index; stores that keep a text index, or can narrow the candidates down, should override it.
+     *
+     * @param query The query; words must all match, {@code OR} separates alternatives and a trailing
+     *              {@code *} matches a prefix.
+     * @return A list of the matching tasks, best match first.
+     */
+    public default List<Task> search(String query) {
+        List<List<String>> clauses = TextIndex.parse(query);
+        Map<Task, Integer> matches = new HashMap<>();
+        try (Stream<Task> tasks = streamTasks()) {
+            tasks.forEach(task -> {
+                int count = TextIndex.count(clauses, task.getTask());
+                if (count > 0) {
+                    matches.put(task, count);
+                }
+            });
+        }
+        return TaskStore.rank(matches);
+    }
+
+    /**
+     * Returns the number of tasks per status and the number created and completed today.
+     * The default implementation counts {@link #getTasks()} on every call; stores that keep running
+     * counters should override it.
+     *
+     * @return The statistics.
+     */
+    public default TaskStats getStats() {
+        TaskCounters counters = new TaskCounters();
+        getTasks().forEach(counters::add);
+        return counters.stats();
+    }
+
+    /**
+     * Releases any resources held by the persistence store, such as open files or background threads.
+     * The default implementation does nothing.
+     *
+     * @throws PersistenceException If pending data cannot be written.
+     */
+    public default void close() throws PersistenceException {
+    }
+
 }
@@ -0,0 +1,49 @@
+package org.tommy.persist;
+
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+
+import java.io.FileNotFoundException;
+
+/**
+ * Creates the {@link TaskSaver} selected by {@code storage.engine} in {@code configuration.properties}.
+ *
+ * Supported engines:
+ * - {@code file} (default): {@link FileSaver}, a single JSON file.
+ * - {@code segmented}: {@link SegmentedFileSaver}, JSON segment files partitioned by ID range.
+ * - {@code mmap}: {@link MappedFileSaver}, memory-mapped fixed-size slots.
+ * - {@code btree}: {@link BTreeSaver}, a disk-resident B+tree behind a bounded page cache.
+ * - {@code jdbc}: {@link JdbcSaver}, an embedded H2 database.
+ * - {@code offheap}: {@link OffHeapSaver}, fixed-size records in native memory backed by a journal.
+ *
+ * A positive {@code cache.size} wraps the engine in a {@link CachingTaskSaver}.
+ */
+public final class TaskSaverFactory {
+
+    private TaskSaverFactory() {}
+
+    /**
+     * Creates the configured task saver.
+     *
+     * @param appConfig the application configuration.
+     * @return the task saver.
+     * @throws FileNotFoundException if the configured data file is not found.
+     * @throws PersistenceException  if the engine is unknown or cannot be opened.
+     */
+    public static TaskSaver create(AppConfig appConfig) throws FileNotFoundException {
+        String engine = appConfig.getProperty("storage.engine", "file").toLowerCase();
+        TaskSaver taskSaver = switch (engine) {
+            case "file" -> new FileSaver(appConfig);
+            case "segmented" -> new SegmentedFileSaver(appConfig);
+            case "mmap" -> new MappedFileSaver(appConfig);
+            case "btree" -> new BTreeSaver(appConfig);
+            case "jdbc" -> new JdbcSaver(appConfig);
+            case "offheap" -> new OffHeapSaver(appConfig);
+            default -> throw new PersistenceException("Unknown storage engine: " + engine);
+        };
+        if (appConfig.getIntProperty("cache.size", 0) > 0) {
+            return new CachingTaskSaver(taskSaver, appConfig);
+        }
+        return taskSaver;
+    }
+}
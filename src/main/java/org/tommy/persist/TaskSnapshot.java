@@ -0,0 +1,232 @@
+package org.tommy.persist;
+
+import org.tommy.models.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * An immutable, point-in-time view of all tasks of a store.
+ *
+ * Snapshots are persistent: every change produces a new snapshot that shares all unchanged parts with the
+ * previous one. Tasks are held in chunks of {@value #CHUNK_SIZE} slots indexed by ID, counted from the slot base
+ * of the owning {@link TaskStore}, so a change copies one chunk and the small array of chunk references instead
+ * of the whole store. Tasks are immutable, so snapshots
+ * and the store share the same task instances.
+ *
+ * Readers need neither locks nor copies: a snapshot stays consistent no matter what writers do later.
+ * IDs that would leave most chunks empty are kept in a small immutable overflow map.
+ */
+public final class TaskSnapshot implements Iterable<Task> {
+
+    static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_BITS = 6;
+
+    /** The snapshot of an empty store. */
+    public static final TaskSnapshot EMPTY = new TaskSnapshot(new Task[0][], Map.of(), 0, 0);
+
+    private final Task[][] chunks;
+    private final Map<Integer, Task> overflow;
+    private final int size;
+    /** The ID held by the first slot of the first chunk. */
+    private final int base;
+    private volatile List<Task> list;
+
+    private TaskSnapshot(Task[][] chunks, Map<Integer, Task> overflow, int size, int base) {
+        this.chunks = chunks;
+        this.overflow = overflow;
+        this.size = size;
+        this.base = base;
+    }
+
+    /**
+     * Builds a snapshot of the given tasks in one pass. Of several tasks with the same ID, the first is kept.
+     *
+     * @param tasks the tasks.
+     * @return the snapshot.
+     */
+    public static TaskSnapshot of(Collection<Task> tasks) {
+        return of(tasks, 0);
+    }
+
+    /**
+     * Builds a snapshot of the given tasks whose chunks start at the given ID.
+     *
+     * @param tasks the tasks.
+     * @param base  the ID held by the first slot.
+     * @return the snapshot.
+     */
+    static TaskSnapshot of(Collection<Task> tasks, int base) {
+        Task[][] chunks = new Task[0][];
+        Map<Integer, Task> overflow = new HashMap<>();
+        int size = 0;
+        for (Task task : tasks) {
+            int id = task.getId();
+            int slot = id - base;
+            if (isDense(slot, chunks.length, tasks.size())) {
+                int chunk = slot >> CHUNK_BITS;
+                if (chunk >= chunks.length) {
+                    chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+                }
+                if (chunks[chunk] == null) {
+                    chunks[chunk] = new Task[CHUNK_SIZE];
+                }
+                if (chunks[chunk][slot & (CHUNK_SIZE - 1)] == null) {
+                    chunks[chunk][slot & (CHUNK_SIZE - 1)] = task;
+                    size++;
+                }
+            } else if (overflow.putIfAbsent(id, task) == null) {
+                size++;
+            }
+        }
+        if (size == 0) {
+            return base == 0 ? EMPTY : new TaskSnapshot(new Task[0][], Map.of(), 0, base);
+        }
+        return new TaskSnapshot(chunks, Map.copyOf(overflow), size, base);
+    }
+
+    private static boolean isDense(int slot, int chunkCount, int size) {
+        return slot >= 0 && (slot >> CHUNK_BITS) <= Math.max(chunkCount, size >> CHUNK_BITS) * 2 + 1;
+    }
+
+    /**
+     * Returns a snapshot in which the given task replaces any task with the same ID.
+     *
+     * @param task the task to store.
+     * @return the new snapshot.
+     */
+    public TaskSnapshot with(Task task) {
+        int id = task.getId();
+        int slot = id - base;
+        if (!isDense(slot, chunks.length, size)) {
+            Map<Integer, Task> changed = new HashMap<>(overflow);
+            int newSize = changed.put(id, task) == null ? size + 1 : size;
+            return new TaskSnapshot(chunks, Map.copyOf(changed), newSize, base);
+        }
+        int chunk = slot >> CHUNK_BITS;
+        Task[][] newChunks = Arrays.copyOf(chunks, Math.max(chunks.length, chunk + 1));
+        Task[] slots = newChunks[chunk] == null ? new Task[CHUNK_SIZE] : newChunks[chunk].clone();
+        int newSize = slots[slot & (CHUNK_SIZE - 1)] == null ? size + 1 : size;
+        slots[slot & (CHUNK_SIZE - 1)] = task;
+        newChunks[chunk] = slots;
+        Map<Integer, Task> newOverflow = overflow;
+        if (overflow.containsKey(id)) {
+            Map<Integer, Task> changed = new HashMap<>(overflow);
+            changed.remove(id);
+            newOverflow = Map.copyOf(changed);
+            newSize--;
+        }
+        return new TaskSnapshot(newChunks, newOverflow, newSize, base);
+    }
+
+    /**
+     * Returns a snapshot without the task with the given ID.
+     *
+     * @param id the task ID.
+     * @return the new snapshot, or this one if there was no such task.
+     */
+    public TaskSnapshot without(int id) {
+        int slot = id - base;
+        int chunk = slot >> CHUNK_BITS;
+        if (slot >= 0 && chunk < chunks.length && chunks[chunk] != null
+                && chunks[chunk][slot & (CHUNK_SIZE - 1)] != null) {
+            Task[][] newChunks = chunks.clone();
+            Task[] slots = chunks[chunk].clone();
+            slots[slot & (CHUNK_SIZE - 1)] = null;
+            newChunks[chunk] = slots;
+            return new TaskSnapshot(newChunks, overflow, size - 1, base);
+        }
+        if (overflow.containsKey(id)) {
+            Map<Integer, Task> changed = new HashMap<>(overflow);
+            changed.remove(id);
+            return new TaskSnapshot(chunks, Map.copyOf(changed), size - 1, base);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the task with the given ID as of this snapshot.
+     *
+     * @param id the task ID.
+     * @return the task, or {@code null} if there was none.
+     */
+    public Task getTask(int id) {
+        int slot = id - base;
+        int chunk = slot >> CHUNK_BITS;
+        if (slot >= 0 && chunk < chunks.length && chunks[chunk] != null) {
+            Task task = chunks[chunk][slot & (CHUNK_SIZE - 1)];
+            if (task != null) {
+                return task;
+            }
+        }
+        return overflow.get(id);
+    }
+
+    /**
+     * Returns all tasks of the snapshot in ID order. The list is built on first use and then shared.
+     *
+     * @return the unmodifiable task list.
+     */
+    public List<Task> getTasks() {
+        List<Task> current = list;
+        if (current == null) {
+            List<Task> tasks = new ArrayList<>(size);
+            for (Task[] slots : chunks) {
+                if (slots == null) {
+                    continue;
+                }
+                for (Task task : slots) {
+                    if (task != null) {
+                        tasks.add(task);
+                    }
+                }
+            }
+            if (!overflow.isEmpty()) {
+                tasks.addAll(overflow.values());
+                tasks.sort(Comparator.comparingInt(Task::getId));
+            }
+            current = Collections.unmodifiableList(tasks);
+            list = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the number of tasks in the snapshot.
+     *
+     * @return the task count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the tasks of the snapshot as a stream, in ID order. Unless the task list has already been built,
+     * the stream walks the chunks directly instead of building it.
+     *
+     * @return the task stream.
+     */
+    public Stream<Task> stream() {
+        if (list != null || !overflow.isEmpty()) {
+            return getTasks().stream();
+        }
+        return Arrays.stream(chunks)
+                .filter(Objects::nonNull)
+                .flatMap(Arrays::stream)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return stream().iterator();
+    }
+}
@@ -0,0 +1,50 @@
+package org.tommy.persist;
+
+import org.tommy.base.Status;
+
+/**
+ * Task counts at one point in time, as returned by {@link TaskSaver#getStats()}.
+ *
+ * "Today" is the current calendar day of the timestamps, which are stored as local time. A task counts as
+ * completed today when its status changed to {@link Status#DONE} today; editing a done task later does not move
+ * its completion. Tasks store no completion time, so a task that was already done when the store was opened
+ * counts by the day of its last update, and the database, which counts in SQL, always counts that way.
+ *
+ * @param total          the number of tasks.
+ * @param notDone        the number of tasks that are not done.
+ * @param inProgress     the number of tasks in progress.
+ * @param done           the number of tasks that are done.
+ * @param createdToday   the number of tasks created today.
+ * @param completedToday the number of tasks completed today.
+ */
+public record TaskStats(long total, long notDone, long inProgress, long done, long createdToday,
+                        long completedToday) {
+
+    /** Statistics of an empty store. */
+    public static final TaskStats EMPTY = new TaskStats(0, 0, 0, 0, 0, 0);
+
+    /**
+     * Returns the number of tasks with the given status.
+     *
+     * @param status the status.
+     * @return the number of tasks.
+     */
+    public long count(Status status) {
+        return switch (status) {
+            case NOT_DONE -> notDone;
+            case IN_PROGRESS -> inProgress;
+            case DONE -> done;
+        };
+    }
+
+    /**
+     * Adds the counts of another set of statistics to these.
+     *
+     * @param other the statistics to add.
+     * @return the summed statistics.
+     */
+    public TaskStats plus(TaskStats other) {
+        return new TaskStats(total + other.total, notDone + other.notDone, inProgress + other.inProgress,
+                done + other.done, createdToday + other.createdToday, completedToday + other.completedToday);
+    }
+}
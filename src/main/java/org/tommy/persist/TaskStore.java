@@ -1,19 +1,74 @@
 package org.tommy.persist;
 
+import org.tommy.base.Status;
 import org.tommy.models.Task;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
  * Represents the in-memory store of all tasks along with the next available task ID.
  * Acts as a data container for serialization and deserialization.
+ *
+ * Task IDs are dense integers handed out from {@code nextId}, so tasks are indexed by a plain array
+ * with the ID as the slot number, giving constant-time lookups without boxing. Slots are counted from a base
+ * ID, the lowest one stored or an explicit base for a store holding only part of the ID range, so the array is
+ * sized by the IDs actually held. IDs that would leave the array mostly empty (IDs below the base, or IDs far
+ * beyond the others) are kept in a small overflow map instead.
+ *
+ * A secondary index maps each {@link Status} to the IDs of its tasks, so filtering by status costs
+ * O(matches), and a {@link TextIndex} over the descriptions answers {@link #search(String)} without reading
+ * every description. Two {@link TimeIndex}es over {@code createdAt} and {@code updatedAt} serve time-range
+ * and most-recent queries. Tasks are immutable; a changed task is stored with {@link #replaceTask(Task)},
+ * which moves it in all indexes.
+ *
+ * {@link TaskCounters} keep the number of tasks per status and per day of creation and completion up to date
+ * with every change, so {@link #getStats()} does not scan the tasks.
+ *
+ * Descriptions are interned through a {@link DescriptionPool} as tasks are indexed, so tasks with the same
+ * text share one string.
+ *
+ * The store is safe for concurrent use. ID lookups are optimistic {@link StampedLock} reads that only fall
+ * back to a read lock when they raced with a writer; listings and index queries share the read lock; changes
+ * take the write lock just for the in-memory update. {@code nextId} is atomic, so {@link #allocateId()} never
+ * hands out the same ID twice.
+ *
+ * Every change also publishes a new immutable {@link TaskSnapshot}, which shares unchanged parts with its
+ * predecessor. {@link #snapshot()} returns the latest one without locking, for readers that need a
+ * consistent point-in-time view while writers go on.
  */
 public class TaskStore {
-    private int nextId;
-    private Set<Task> tasks;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private volatile long version;
+    private Task[] slots = new Task[MIN_CAPACITY];
+    /** The ID held by {@code slots[0]}. */
+    private int base;
+    private final Map<Integer, Task> overflow = new HashMap<>();
+    private int size;
+    private volatile List<Task> view;
+    private volatile TaskSnapshot snapshot = TaskSnapshot.EMPTY;
+    private final Map<Status, NavigableSet<Integer>> byStatus = new EnumMap<>(Status.class);
+    private final TextIndex textIndex = new TextIndex();
+    private final TimeIndex createdIndex = new TimeIndex();
+    private final TimeIndex updatedIndex = new TimeIndex();
+    private final DescriptionPool descriptions = new DescriptionPool();
+    private final TaskCounters counters = new TaskCounters();
 
     public TaskStore() {}
 
@@ -24,8 +79,40 @@ public class TaskStore {
      * @param tasks  the initial list of tasks.
      */
     public TaskStore(int nextId, List<Task> tasks) {
-        this.nextId = nextId;
-        this.tasks = new HashSet<>(tasks);
+        this.nextId.set(nextId);
+        setTasks(tasks);
+    }
+
+    /**
+     * Constructs a TaskStore for the IDs from {@code base} on, such as one segment of a larger store, whose
+     * slot array is sized by those IDs instead of by {@code nextId}.
+     *
+     * @param nextId the next task ID to assign.
+     * @param tasks  the initial list of tasks.
+     * @param base   the lowest ID expected in this store.
+     */
+    TaskStore(int nextId, List<Task> tasks, int base) {
+        this.nextId.set(nextId);
+        this.base = base;
+        setTasks(tasks, base);
+    }
+
+    /**
+     * Returns the version of the store, incremented by every write of the data file.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the store.
+     *
+     * @param version the version to be set.
+     */
+    public void setVersion(long version) {
+        this.version = version;
     }
 
     /**
@@ -34,7 +121,7 @@ public class TaskStore {
      * @return the next ID.
      */
     public int getNextId() {
-        return nextId;
+        return nextId.get();
     }
 
     /**
@@ -43,16 +130,340 @@ public class TaskStore {
      * @param nextId the ID to be set.
      */
     public void setNextId(int nextId) {
-        this.nextId = nextId;
+        this.nextId.set(nextId);
     }
 
     /**
-     * Returns a list of all tasks.
+     * Atomically takes the next task ID and advances {@code nextId}.
+     *
+     * @return the allocated ID.
+     */
+    public int allocateId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Returns a mutable copy of the task list, in ID order.
      *
      * @return list of tasks.
      */
     public List<Task> getTasks() {
-        return new ArrayList<>(tasks);
+        return new ArrayList<>(view());
+    }
+
+    /**
+     * Returns a read-only list of all tasks in ID order. The list is built once and shared until the
+     * next change to the store, so repeated listings do not allocate.
+     *
+     * @return the unmodifiable task list.
+     */
+    public List<Task> view() {
+        List<Task> current = view;
+        if (current != null) {
+            return current;
+        }
+        return read(this::currentView);
+    }
+
+    /**
+     * Returns the cached view, building it first if needed. The caller holds the read or write lock.
+     */
+    private List<Task> currentView() {
+        if (view == null) {
+            List<Task> tasks = new ArrayList<>(size);
+            for (Task task : slots) {
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            if (!overflow.isEmpty()) {
+                tasks.addAll(overflow.values());
+                tasks.sort(Comparator.comparingInt(Task::getId));
+            }
+            view = Collections.unmodifiableList(tasks);
+        }
+        return view;
+    }
+
+    /**
+     * Returns up to {@code limit} tasks with IDs greater than {@code afterId}, in ID order. Only the slots
+     * after the cursor are visited, so a page costs O(limit) plus the gaps left by deleted IDs.
+     *
+     * @param afterId the ID after which the page starts.
+     * @param limit   the maximum number of tasks.
+     * @return the page of tasks.
+     */
+    public List<Task> getTasks(int afterId, int limit) {
+        return read(() -> {
+            List<Task> page = new ArrayList<>(Math.max(0, Math.min(limit, size)));
+            if (limit <= 0) {
+                return page;
+            }
+            // Overflow IDs are below the base or beyond the slot array, so they go before or after the slots.
+            List<Task> extra = new ArrayList<>();
+            for (Task task : overflow.values()) {
+                if (task.getId() > afterId) {
+                    extra.add(task);
+                }
+            }
+            extra.sort(Comparator.comparingInt(Task::getId));
+            int next = 0;
+            while (next < extra.size() && extra.get(next).getId() < base && page.size() < limit) {
+                page.add(extra.get(next++));
+            }
+            long first = Math.max(0, afterId + 1L - base);
+            for (long slot = first; slot < slots.length && page.size() < limit; slot++) {
+                if (slots[(int) slot] != null) {
+                    page.add(slots[(int) slot]);
+                }
+            }
+            while (next < extra.size() && page.size() < limit) {
+                page.add(extra.get(next++));
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Returns the latest immutable snapshot of the store. This is a single volatile read; the snapshot
+     * is not affected by later changes.
+     *
+     * @return the current snapshot.
+     */
+    public TaskSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the tasks as the shared read-only view, for serialization without an intermediate copy.
+     *
+     * @return the tasks held by this store.
+     */
+    Collection<Task> tasks() {
+        return view();
+    }
+
+    /**
+     * Returns the task with the given ID in constant time.
+     *
+     * @param id the task ID.
+     * @return the task, or {@code null} if there is none.
+     */
+    public Task getTask(int id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Task[] current = slots;
+            int slot = id - base;
+            if (slot >= 0 && slot < current.length) {
+                Task task = current[slot];
+                if (lock.validate(stamp)) {
+                    return task;
+                }
+            }
+        }
+        return read(() -> lookup(id));
+    }
+
+    private Task lookup(int id) {
+        int slot = id - base;
+        if (slot >= 0 && slot < slots.length) {
+            return slots[slot];
+        }
+        return overflow.isEmpty() ? null : overflow.get(id);
+    }
+
+    /**
+     * Runs a query while holding the read lock.
+     */
+    private <T> T read(Supplier<T> query) {
+        long stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the tasks with the given status, in ID order, using the status index.
+     *
+     * @param status the status to filter by.
+     * @return an unmodifiable list of the matching tasks.
+     */
+    public List<Task> getTasksByStatus(Status status) {
+        return read(() -> {
+            NavigableSet<Integer> ids = byStatus.get(status);
+            if (ids == null || ids.isEmpty()) {
+                return List.of();
+            }
+            return Collections.unmodifiableList(toTasks(ids));
+        });
+    }
+
+    /**
+     * Finds tasks by words in their description using the text index.
+     * Results are ranked by match count, then by most recent {@code updatedAt}.
+     *
+     * @param query the query; see {@link TextIndex} for the syntax.
+     * @return the matching tasks, best match first.
+     */
+    public List<Task> search(String query) {
+        return rank(match(query));
+    }
+
+    /**
+     * Finds tasks by words in their description using the text index, unranked.
+     *
+     * @param query the query; see {@link TextIndex} for the syntax.
+     * @return the matching tasks mapped to their match counts.
+     */
+    Map<Task, Integer> match(String query) {
+        return read(() -> {
+            Map<Task, Integer> matches = new HashMap<>();
+            textIndex.search(query).forEach((id, count) -> matches.put(lookup(id), count));
+            return matches;
+        });
+    }
+
+    /**
+     * Orders matched tasks the way {@link #search(String)} does: by match count, then by most recent
+     * {@code updatedAt}, then by ID.
+     *
+     * @param matches the matching tasks mapped to their match counts.
+     * @return the tasks, best match first.
+     */
+    static List<Task> rank(Map<Task, Integer> matches) {
+        List<Task> tasks = new ArrayList<>(matches.keySet());
+        tasks.sort(Comparator.<Task>comparingInt(matches::get).reversed()
+                .thenComparing(Comparator.comparingLong(Task::getUpdatedAtNanos).reversed())
+                .thenComparingInt(Task::getId));
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks created in the given range, oldest first.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching tasks.
+     */
+    public List<Task> getTasksCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        return read(() -> toTasks(createdIndex.range(from, to)));
+    }
+
+    /**
+     * Returns the tasks last updated in the given range, least recently updated first.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching tasks.
+     */
+    public List<Task> getTasksUpdatedBetween(LocalDateTime from, LocalDateTime to) {
+        return read(() -> toTasks(updatedIndex.range(from, to)));
+    }
+
+    /**
+     * Returns the most recently updated tasks, newest first, reading only {@code limit} index entries.
+     *
+     * @param limit the maximum number of tasks.
+     * @return up to {@code limit} tasks.
+     */
+    public List<Task> getRecentlyUpdated(int limit) {
+        return read(() -> toTasks(updatedIndex.latest(limit)));
+    }
+
+    private List<Task> toTasks(Collection<Integer> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            tasks.add(lookup(id));
+        }
+        return tasks;
+    }
+
+    /**
+     * Replaces the stored task that has the same ID as the given one and updates the status, text and
+     * time indexes. Nothing is stored if there is no task with that ID.
+     *
+     * @param task the new state of the task.
+     * @return the task that was replaced, or {@code null} if there was none.
+     */
+    public Task replaceTask(Task task) {
+        long stamp = lock.writeLock();
+        try {
+            int id = task.getId();
+            Task replaced = lookup(id);
+            if (replaced == null) {
+                return null;
+            }
+            task = pooled(task);
+            int slot = id - base;
+            if (slot >= 0 && slot < slots.length) {
+                slots[slot] = task;
+            } else {
+                overflow.put(id, task);
+            }
+            view = null;
+            unindex(replaced);
+            index(task);
+            counters.replace(replaced, task);
+            snapshot = snapshot.with(task);
+            return replaced;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the task with its description replaced by the pooled instance.
+     */
+    private Task pooled(Task task) {
+        return task.withTask(descriptions.intern(task.getTask()));
+    }
+
+    private void index(Task task) {
+        if (task.getStatus() != null) {
+            byStatus.computeIfAbsent(task.getStatus(), s -> new TreeSet<>()).add(task.getId());
+        }
+        textIndex.add(task.getId(), task.getTask());
+        createdIndex.add(task.getId(), task.getCreatedAtNanos());
+        updatedIndex.add(task.getId(), task.getUpdatedAtNanos());
+    }
+
+    private void unindex(Task task) {
+        int id = task.getId();
+        textIndex.remove(id);
+        createdIndex.remove(id);
+        updatedIndex.remove(id);
+        if (task.getStatus() != null) {
+            byStatus.get(task.getStatus()).remove(id);
+        }
+    }
+
+    /**
+     * Returns the running task counts.
+     *
+     * @return the statistics.
+     */
+    public TaskStats getStats() {
+        return read(counters::stats);
+    }
+
+    /**
+     * Returns the pool that deduplicates the descriptions of this store's tasks.
+     *
+     * @return the description pool.
+     */
+    public DescriptionPool getDescriptionPool() {
+        return descriptions;
+    }
+
+    /**
+     * Returns the number of tasks in the store.
+     *
+     * @return the task count.
+     */
+    public int size() {
+        return read(() -> size);
     }
 
     /**
@@ -61,7 +472,35 @@ public class TaskStore {
      * @param tasks the new task list.
      */
     public void setTasks(List<Task> tasks) {
-        this.tasks = new HashSet<>(tasks);
+        int lowest = Integer.MAX_VALUE;
+        for (Task task : tasks) {
+            if (task.getId() >= 0) {
+                lowest = Math.min(lowest, task.getId());
+            }
+        }
+        setTasks(tasks, lowest == Integer.MAX_VALUE ? base : lowest);
+    }
+
+    private void setTasks(List<Task> tasks, int base) {
+        long stamp = lock.writeLock();
+        try {
+            this.base = base;
+            slots = new Task[MIN_CAPACITY];
+            overflow.clear();
+            byStatus.clear();
+            textIndex.clear();
+            createdIndex.clear();
+            updatedIndex.clear();
+            counters.clear();
+            size = 0;
+            view = null;
+            for (Task task : tasks) {
+                insert(task);
+            }
+            snapshot = TaskSnapshot.of(currentView(), base);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -71,12 +510,111 @@ public class TaskStore {
      * @return true if the task was added successfully, false if it was a duplicate.
      */
     public boolean addTask(Task task){
-        tasks.add(task);
-        return tasks.contains(task);
+        long stamp = lock.writeLock();
+        try {
+            if (!insert(task)) {
+                return false;
+            }
+            snapshot = snapshot.with(lookup(task.getId()));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     public int deleteTask(Task task){
-        tasks.remove(task);
-        return task.getId();
+        long stamp = lock.writeLock();
+        try {
+            remove(task.getId());
+            snapshot = snapshot.without(task.getId());
+            return task.getId();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean insert(Task task) {
+        task = pooled(task);
+        int id = task.getId();
+        int slot = id - base;
+        if (slot >= slots.length && fitsDensely(slot)) {
+            grow(slot);
+        }
+        if (slot >= 0 && slot < slots.length) {
+            if (slots[slot] != null) {
+                return false;
+            }
+            slots[slot] = task;
+        } else if (overflow.putIfAbsent(id, task) != null) {
+            return false;
+        }
+        size++;
+        view = null;
+        index(task);
+        counters.add(task);
+        return true;
+    }
+
+    private void remove(int id) {
+        Task removed;
+        int slot = id - base;
+        if (slot >= 0 && slot < slots.length) {
+            removed = slots[slot];
+            slots[slot] = null;
+        } else {
+            removed = overflow.remove(id);
+        }
+        if (removed != null) {
+            size--;
+            view = null;
+            unindex(removed);
+            counters.remove(removed);
+        }
+    }
+
+    /**
+     * Returns whether a slot can be used without leaving the slot array mostly empty.
+     */
+    private boolean fitsDensely(int slot) {
+        return slot >= 0 && slot < Math.max(nextId.get() - (long) base, size) * 2L + MIN_CAPACITY;
+    }
+
+    /**
+     * Enlarges the slot array to hold the given slot and moves overflow entries that now fit into it.
+     */
+    private void grow(int slot) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(slot + 1L, slots.length * 2L));
+        slots = Arrays.copyOf(slots, capacity);
+        if (!overflow.isEmpty()) {
+            overflow.values().removeIf(task -> {
+                int overflowSlot = task.getId() - base;
+                if (overflowSlot >= 0 && overflowSlot < slots.length) {
+                    slots[overflowSlot] = task;
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Returns the length of the slot array.
+     *
+     * @return the number of slots.
+     */
+    int slotCapacity() {
+        return read(() -> slots.length);
+    }
+
+    /**
+     * Creates a copy of this store, so it can be serialized while the original keeps changing.
+     * Tasks are immutable and shared with the copy.
+     *
+     * @return a detached copy of the store.
+     */
+    public TaskStore copy() {
+        TaskStore copy = new TaskStore(nextId.get(), view(), base);
+        copy.setVersion(version);
+        return copy;
     }
 }
@@ -0,0 +1,178 @@
+package org.tommy.persist;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.tommy.models.Task;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written streaming Gson adapter for {@link TaskStore}.
+ *
+ * Tasks are written straight from the store without copying them into an intermediate list,
+ * and read one at a time through {@link TaskTypeAdapter}.
+ *
+ * The store's {@code version} is always written as the first field, so that {@link #peekVersion(Reader)}
+ * can read it without parsing the rest of the file.
+ *
+ * Descriptions used by more than one task are written once, in a {@code descriptions} array ahead of the
+ * tasks, and the tasks refer to them by position (see {@link TaskTypeAdapter}). Unique descriptions stay
+ * inline, so a store without repetition is written exactly as before, and files without the table still read.
+ */
+public class TaskStoreTypeAdapter extends TypeAdapter<TaskStore> {
+
+    private final TaskTypeAdapter taskAdapter = new TaskTypeAdapter();
+
+    /**
+     * Writes the store as a JSON object with {@code version}, {@code nextId}, the shared {@code descriptions}
+     * if there are any, and a {@code tasks} array.
+     */
+    @Override
+    public void write(JsonWriter out, TaskStore store) throws IOException {
+        if (store == null) {
+            out.nullValue();
+            return;
+        }
+        write(out, store.getVersion(), store.getNextId(), store.tasks());
+    }
+
+    /**
+     * Writes a store from its parts, so that an immutable {@link TaskSnapshot} can be serialized without
+     * building a {@link TaskStore} around it.
+     *
+     * @param out     the writer.
+     * @param version the version of the store.
+     * @param nextId  the next task ID.
+     * @param tasks   the tasks; iterated twice.
+     * @throws IOException if writing fails.
+     */
+    void write(JsonWriter out, long version, int nextId, Iterable<Task> tasks) throws IOException {
+        out.beginObject();
+        out.name("version").value(version);
+        out.name("nextId").value(nextId);
+        Map<String, Integer> shared = sharedDescriptions(tasks);
+        if (!shared.isEmpty()) {
+            out.name("descriptions").beginArray();
+            for (String description : shared.keySet()) {
+                out.value(description);
+            }
+            out.endArray();
+        }
+        out.name("tasks").beginArray();
+        for (Task task : tasks) {
+            taskAdapter.write(out, task, shared);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    /**
+     * Numbers the descriptions that occur more than once, in order of first use.
+     */
+    private static Map<String, Integer> sharedDescriptions(Iterable<Task> tasks) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Task task : tasks) {
+            if (task.getTask() != null) {
+                counts.merge(task.getTask(), 1, Integer::sum);
+            }
+        }
+        Map<String, Integer> shared = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            String description = task.getTask();
+            if (description != null && counts.get(description) > 1 && !shared.containsKey(description)) {
+                shared.put(description, shared.size());
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Reads a store from a JSON object.
+     */
+    @Override
+    public TaskStore read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        long version = 0;
+        int nextId = 1;
+        List<String> shared = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "version" -> version = in.nextLong();
+                case "nextId" -> nextId = in.nextInt();
+                case "descriptions" -> readDescriptions(in, shared);
+                case "tasks" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        Task task = taskAdapter.read(in, shared);
+                        if (task != null) {
+                            tasks.add(task);
+                        }
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        TaskStore store = new TaskStore(nextId, tasks);
+        store.setVersion(version);
+        return store;
+    }
+
+    /**
+     * Reads the shared description table into the given list.
+     *
+     * @param in     the reader, positioned at the {@code descriptions} array.
+     * @param shared the list to fill.
+     * @throws IOException if reading fails.
+     */
+    static void readDescriptions(JsonReader in, List<String> shared) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            shared.add(in.nextString());
+        }
+        in.endArray();
+    }
+
+    /**
+     * Reads only the version header of a serialized store.
+     *
+     * @param reader the serialized store; only its first few tokens are consumed.
+     * @return the version, or {@code 0} for an empty document or a file written before versions were recorded.
+     * @throws IOException if reading fails.
+     */
+    public static long peekVersion(Reader reader) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        try {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                return 0;
+            }
+            in.beginObject();
+            if (in.hasNext() && in.nextName().equals("version")) {
+                return in.nextLong();
+            }
+            return 0;
+        } catch (EOFException e) {
+            return 0;
+        }
+    }
+}
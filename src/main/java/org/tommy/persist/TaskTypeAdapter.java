@@ -0,0 +1,115 @@
+package org.tommy.persist;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.tommy.base.LocalDateTimeAdapter;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written streaming Gson adapter for {@link Task}.
+ *
+ * Reads and writes the same field names as reflective serialization, so existing files stay readable,
+ * but avoids reflection and intermediate {@code JsonElement} trees. Unknown fields are skipped.
+ *
+ * Inside a store, a description that several tasks share is written once in the store's
+ * {@code descriptions} table and referenced from each task by its position as {@code taskRef}.
+ */
+public class TaskTypeAdapter extends TypeAdapter<Task> {
+
+    private final LocalDateTimeAdapter dateTimeAdapter = new LocalDateTimeAdapter();
+
+    /**
+     * Writes a task as a JSON object.
+     */
+    @Override
+    public void write(JsonWriter out, Task task) throws IOException {
+        write(out, task, Map.of());
+    }
+
+    /**
+     * Writes a task as a JSON object, referring to its description by position if it is in the shared table.
+     */
+    void write(JsonWriter out, Task task, Map<String, Integer> shared) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(task.getId());
+        if (task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        Integer ref = task.getTask() == null ? null : shared.get(task.getTask());
+        if (ref != null) {
+            out.name("taskRef").value(ref);
+        } else if (task.getTask() != null) {
+            out.name("task").value(task.getTask());
+        }
+        if (task.getCreatedAt() != null) {
+            out.name("createdAt");
+            dateTimeAdapter.write(out, task.getCreatedAt());
+        }
+        if (task.getUpdatedAt() != null) {
+            out.name("updatedAt");
+            dateTimeAdapter.write(out, task.getUpdatedAt());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads a task from a JSON object.
+     */
+    @Override
+    public Task read(JsonReader in) throws IOException {
+        return read(in, List.of());
+    }
+
+    /**
+     * Reads a task from a JSON object, resolving {@code taskRef} against the shared description table.
+     */
+    Task read(JsonReader in, List<String> shared) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int id = 0;
+        Status status = null;
+        String text = null;
+        LocalDateTime createdAt = null;
+        LocalDateTime updatedAt = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> id = in.nextInt();
+                case "status" -> status = Status.valueOf(in.nextString());
+                case "task" -> text = in.nextString();
+                case "taskRef" -> {
+                    int ref = in.nextInt();
+                    if (ref < 0 || ref >= shared.size()) {
+                        throw new JsonSyntaxException("Unknown description reference " + ref + " at " + in.getPath());
+                    }
+                    text = shared.get(ref);
+                }
+                case "createdAt" -> createdAt = dateTimeAdapter.read(in);
+                case "updatedAt" -> updatedAt = dateTimeAdapter.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Task(id, status, text, Task.toEpochNanos(createdAt), Task.toEpochNanos(updatedAt));
+    }
+}
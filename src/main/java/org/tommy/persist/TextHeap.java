@@ -0,0 +1,96 @@
+package org.tommy.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only file holding variable-length task descriptions for the binary storage engines.
+ *
+ * Descriptions are stored as UTF-8 and addressed by offset and length. Replaced descriptions are not
+ * reclaimed; the space they occupied is simply no longer referenced.
+ */
+public class TextHeap implements Closeable {
+
+    private final FileChannel channel;
+    private long end;
+
+    /**
+     * Opens (or creates) the text heap at the given path.
+     *
+     * @param path the heap file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public TextHeap(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.end = channel.size();
+    }
+
+    /**
+     * Appends a description to the heap.
+     *
+     * @param text the description.
+     * @return the location of the encoded description.
+     * @throws IOException if writing fails.
+     */
+    public Slice append(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        long offset = end;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        end += bytes.length;
+        return new Slice(offset, bytes.length);
+    }
+
+    /**
+     * Reads a description from the heap.
+     *
+     * @param offset the description's offset.
+     * @param length the description's length in bytes.
+     * @return the description.
+     * @throws IOException if reading fails.
+     */
+    public String read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Text heap is truncated at offset " + offset);
+            }
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Forces appended descriptions to the storage device.
+     *
+     * @throws IOException if syncing fails.
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Closes the heap file.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Location of a description in the heap.
+     *
+     * @param offset the offset in bytes.
+     * @param length the length in bytes.
+     */
+    public record Slice(long offset, int length) {}
+}
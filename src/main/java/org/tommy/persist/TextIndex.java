@@ -0,0 +1,206 @@
+package org.tommy.persist;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * An in-memory inverted index over task descriptions.
+ *
+ * Descriptions are split into lower-case words of letters and digits. Each word maps to a posting list
+ * of the IDs containing it together with how often it occurs there. Words are kept sorted, so a prefix
+ * query is a range scan over the dictionary instead of a scan over the tasks.
+ *
+ * Queries are lists of words that must all match. {@code OR} between words starts an alternative list,
+ * and a word ending in {@code *} matches every word with that prefix. For example,
+ * {@code milk bread OR groc*} finds tasks mentioning both milk and bread, or any word starting with groc.
+ */
+public class TextIndex {
+
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Map<Integer, List<String>> indexedTerms = new HashMap<>();
+
+    /**
+     * Splits a text into lower-case words of letters and digits.
+     *
+     * @param text the text to tokenize; may be {@code null}.
+     * @return the words in order of appearance, including repetitions.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexes the words of a description under the given ID, replacing whatever was indexed for it before.
+     *
+     * @param id   the task ID.
+     * @param text the task description.
+     */
+    public void add(int id, String text) {
+        remove(id);
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> new HashMap<>()).merge(id, 1, Integer::sum);
+        }
+        indexedTerms.put(id, terms);
+    }
+
+    /**
+     * Removes the words indexed for the given ID.
+     *
+     * @param id the task ID.
+     */
+    public void remove(int id) {
+        List<String> terms = indexedTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Integer, Integer> ids = postings.get(term);
+            if (ids != null && ids.remove(id) != null && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Removes everything from the index.
+     */
+    public void clear() {
+        postings.clear();
+        indexedTerms.clear();
+    }
+
+    /**
+     * Evaluates a query against the index.
+     *
+     * @param query the query, see the class description for the syntax.
+     * @return the matching IDs mapped to their match count, the number of occurrences of the query's words.
+     */
+    public Map<Integer, Integer> search(String query) {
+        Map<Integer, Integer> results = new HashMap<>();
+        for (List<String> clause : parse(query)) {
+            Map<Integer, Integer> matches = null;
+            for (String term : clause) {
+                Map<Integer, Integer> termMatches = lookup(term);
+                if (matches == null) {
+                    matches = termMatches;
+                } else {
+                    matches.keySet().retainAll(termMatches.keySet());
+                    matches.replaceAll((id, count) -> count + termMatches.get(id));
+                }
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+            if (matches != null) {
+                matches.forEach((id, count) -> results.merge(id, count, Math::max));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the IDs containing a word, or a word with the given prefix if the term ends in {@code *}.
+     */
+    private Map<Integer, Integer> lookup(String term) {
+        Map<Integer, Integer> matches = new HashMap<>();
+        if (term.endsWith("*")) {
+            String prefix = term.substring(0, term.length() - 1);
+            for (Map.Entry<String, Map<Integer, Integer>> entry : postings.tailMap(prefix, true).entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+                entry.getValue().forEach((id, count) -> matches.merge(id, count, Integer::sum));
+            }
+        } else {
+            Map<Integer, Integer> ids = postings.get(term);
+            if (ids != null) {
+                matches.putAll(ids);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Evaluates a parsed query against a single description without an index, for stores that scan their tasks
+     * or pre-filter them elsewhere.
+     *
+     * @param clauses the query as returned by {@link #parse(String)}.
+     * @param text    the description; may be {@code null}.
+     * @return the match count {@link #search(String)} would report for the description, or {@code 0} if it does
+     *         not match.
+     */
+    static int count(List<List<String>> clauses, String text) {
+        List<String> tokens = tokenize(text);
+        int best = 0;
+        for (List<String> clause : clauses) {
+            int total = 0;
+            for (String term : clause) {
+                int occurrences = 0;
+                boolean prefix = term.endsWith("*");
+                String word = prefix ? term.substring(0, term.length() - 1) : term;
+                for (String token : tokens) {
+                    if (prefix ? token.startsWith(word) : token.equals(word)) {
+                        occurrences++;
+                    }
+                }
+                if (occurrences == 0) {
+                    total = 0;
+                    break;
+                }
+                total += occurrences;
+            }
+            best = Math.max(best, total);
+        }
+        return best;
+    }
+
+    /**
+     * Parses a query into alternatives separated by {@code OR}, each a list of words that must all match.
+     * A word matched by prefix keeps its trailing {@code *}.
+     */
+    static List<List<String>> parse(String query) {
+        List<List<String>> clauses = new ArrayList<>();
+        List<String> clause = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                if (!clause.isEmpty()) {
+                    clauses.add(clause);
+                    clause = new ArrayList<>();
+                }
+                continue;
+            }
+            boolean prefix = word.endsWith("*");
+            List<String> tokens = tokenize(word);
+            for (int i = 0; i < tokens.size(); i++) {
+                clause.add(prefix && i == tokens.size() - 1 ? tokens.get(i) + "*" : tokens.get(i));
+            }
+        }
+        if (!clause.isEmpty()) {
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+}
@@ -0,0 +1,103 @@
+package org.tommy.persist;
+
+import org.tommy.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * An ordered index from a timestamp to task IDs, used for range and most-recent queries.
+ *
+ * Entries are kept sorted by time and then ID, so a range is read by walking from its lower bound and the
+ * {@code n} most recent entries are the first {@code n} of the descending order, without sorting the store.
+ * The time each ID was indexed under is remembered, so an entry can be removed after the task changed.
+ * Times are epoch nanoseconds as held by {@link Task}.
+ */
+public class TimeIndex {
+
+    private record Entry(long time, int id) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::time).thenComparingInt(Entry::id);
+
+    private final NavigableSet<Entry> entries = new TreeSet<>(ORDER);
+    private final Map<Integer, Long> indexedTimes = new HashMap<>();
+
+    /**
+     * Indexes an ID under the given time, replacing its previous entry. {@link Task#NO_TIME} is not indexed.
+     *
+     * @param id   the task ID.
+     * @param time the timestamp in epoch nanoseconds.
+     */
+    public void add(int id, long time) {
+        remove(id);
+        if (time != Task.NO_TIME) {
+            entries.add(new Entry(time, id));
+            indexedTimes.put(id, time);
+        }
+    }
+
+    /**
+     * Removes the entry of an ID.
+     *
+     * @param id the task ID.
+     */
+    public void remove(int id) {
+        Long time = indexedTimes.remove(id);
+        if (time != null) {
+            entries.remove(new Entry(time, id));
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        entries.clear();
+        indexedTimes.clear();
+    }
+
+    /**
+     * Returns the IDs whose time lies in the given range, oldest first.
+     *
+     * @param from the inclusive lower bound, or {@code null} for no lower bound.
+     * @param to   the exclusive upper bound, or {@code null} for no upper bound.
+     * @return the matching IDs.
+     */
+    public List<Integer> range(LocalDateTime from, LocalDateTime to) {
+        NavigableSet<Entry> range = entries;
+        if (from != null) {
+            range = range.tailSet(new Entry(Task.toEpochNanos(from), Integer.MIN_VALUE), true);
+        }
+        if (to != null) {
+            range = range.headSet(new Entry(Task.toEpochNanos(to), Integer.MIN_VALUE), false);
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Entry entry : range) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the IDs with the most recent times, newest first.
+     *
+     * @param limit the maximum number of IDs.
+     * @return up to {@code limit} IDs.
+     */
+    public List<Integer> latest(int limit) {
+        List<Integer> ids = new ArrayList<>(Math.max(0, Math.min(limit, entries.size())));
+        Iterator<Entry> iterator = entries.descendingIterator();
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add(iterator.next().id());
+        }
+        return ids;
+    }
+}
@@ -43,9 +43,7 @@ public class TaskManagerTest {
         Task newTask = new Task(0, Status.NOT_DONE, "Draft report");
         int id = taskManager.addTask(newTask);
 
-        Task update = taskManager.getTask(id);
-        update.setTask("Finalize report");
-        update.setStatus(Status.IN_PROGRESS);
+        Task update = taskManager.getTask(id).withTask("Finalize report").withStatus(Status.IN_PROGRESS);
         taskManager.updateTask(id, update);
 
         Task updated = taskManager.getTask(id);
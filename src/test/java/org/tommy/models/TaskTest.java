@@ -18,14 +18,25 @@ class TaskTest {
     }
 
     @Test
-    void testSetters() {
+    void testWithersReturnChangedCopies() {
         Task task = new Task(1);
-        task.setTask("Updated task");
-        task.setStatus(Status.DONE);
-        task.setCreatedAt(LocalDateTime.now());
+        Task changed = task.withTask("Updated task").withStatus(Status.DONE).withCreatedAt(LocalDateTime.now());
 
-        assertEquals("Updated task", task.getTask());
-        assertEquals(Status.DONE, task.getStatus());
-        assertNotNull(task.getCreatedAt());
+        assertEquals("Updated task", changed.getTask());
+        assertEquals(Status.DONE, changed.getStatus());
+        assertNotNull(changed.getCreatedAt());
+        assertNull(task.getTask());
+        assertNull(task.getCreatedAt());
+        assertSame(changed, changed.withStatus(Status.DONE));
+    }
+
+    @Test
+    void testTimestampsKeepNanosecondPrecision() {
+        LocalDateTime time = LocalDateTime.parse("2025-07-13T09:20:18.9920509");
+        Task task = new Task(1).withUpdatedAt(time);
+
+        assertEquals(time, task.getUpdatedAt());
+        assertEquals(time, Task.fromEpochNanos(task.getUpdatedAtNanos()));
+        assertEquals(Task.NO_TIME, task.getCreatedAtNanos());
     }
 }
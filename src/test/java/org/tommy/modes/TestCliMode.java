@@ -1,18 +1,41 @@
 package org.tommy.modes;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.tommy.TaskManager;
 import org.tommy.base.CliMode;
 import org.tommy.configuration.AppConfig;
 import org.tommy.persist.FileSaver;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestCliMode {
 
+    @TempDir
+    Path dir;
+
+    private TaskManager taskManager;
+
+    @AfterEach
+    void closeStore() {
+        if (taskManager != null) {
+            taskManager.close();
+        }
+    }
+
     @BeforeAll
     static void clearDataOnce() throws IOException {
         AppConfig appConfig = AppConfig.getInstance();
@@ -42,4 +65,98 @@ public class TestCliMode {
             System.out.println("configuration file missing");
         }
     }
+
+    @Test
+    void testListIsPaged() throws IOException {
+        String output = run("""
+                task-cli add "Page one"
+                task-cli add "Page two"
+                task-cli add "Page three"
+                task-cli list --limit 2
+                task-cli list --limit 1000 --page 9999
+                task-cli list --page 0
+                task-cli exit
+                """);
+
+        assertTrue(output.contains("Page 1. Use --page 2 for more."), "Should point to the next page");
+        assertTrue(output.contains("No tasks on page 9999"), "Should report an empty page");
+        assertTrue(output.contains("--page must be at least 1"), "Should reject page 0");
+    }
+
+    @Test
+    void testBulkCommandsTakeIdsAndRanges() throws IOException {
+        List<Integer> ids = addedIds(run("""
+                task-cli add "Bulk one"
+                task-cli add "Bulk two"
+                task-cli add "Bulk three"
+                task-cli exit
+                """));
+        int first = ids.get(0);
+        int last = ids.get(2);
+
+        String output = run("task-cli mark-done " + first + " " + ids.get(1) + " " + last + "\n"
+                + "task-cli delete " + first + "-" + last + "\n"
+                + "task-cli delete " + (last + 2) + "-" + (last + 1) + "\n"
+                + "task-cli exit\n");
+
+        assertTrue(output.contains("3 tasks marked done successfully."), "Should mark several tasks at once");
+        assertTrue(output.contains("3 tasks deleted successfully."), "Should delete a range");
+        assertTrue(output.contains("Invalid range: " + (last + 2) + "-" + (last + 1)), "Should reject a reversed range");
+        assertTrue(taskManager.getTasks().isEmpty(), "Should delete every task in the range");
+    }
+
+    @Test
+    void testStatsCommand() throws IOException {
+        String output = run("""
+                task-cli add "Counted"
+                task-cli stats
+                task-cli exit
+                """);
+
+        assertTrue(output.contains("Total: 1"), "Should print the total");
+        assertTrue(output.contains("NOT DONE: 1"), "Should print the count per status");
+        assertTrue(output.contains("Created today: 1"), "Should print the tasks created today");
+    }
+
+    @Test
+    void testRecentTasksBeforeAGivenTime() throws IOException, InterruptedException {
+        run("task-cli add \"Before cutoff\"\ntask-cli exit\n");
+        Thread.sleep(20);
+        LocalDateTime cutoff = LocalDateTime.now();
+        Thread.sleep(20);
+
+        String output = run("task-cli add \"After cutoff\"\n"
+                + "task-cli list --recent 1 --until " + cutoff + "\n"
+                + "task-cli exit\n");
+
+        assertTrue(output.contains("Before cutoff"), "Should list the newest task before the cutoff");
+        assertFalse(output.contains("After cutoff"), "Should leave out tasks updated after the cutoff");
+    }
+
+    /**
+     * Runs the given commands against a store of the test's own, opened on first use, and returns the output.
+     */
+    private String run(String commands) throws IOException {
+        if (taskManager == null) {
+            Path dataFile = dir.resolve("data.json");
+            Files.writeString(dataFile, "");
+            Properties properties = new Properties();
+            properties.setProperty("json.file.path", dataFile.toString());
+            taskManager = new TaskManager(new FileSaver(AppConfig.fromProperties(properties)));
+        }
+        System.setIn(new ByteArrayInputStream(commands.getBytes()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        new CliMode().start(taskManager);
+        return outputStream.toString();
+    }
+
+    private static List<Integer> addedIds(String output) {
+        List<Integer> ids = new ArrayList<>();
+        Matcher added = Pattern.compile("Task added successfully\\. \\(ID: (\\d+)\\)").matcher(output);
+        while (added.find()) {
+            ids.add(Integer.parseInt(added.group(1)));
+        }
+        return ids;
+    }
 }
@@ -0,0 +1,89 @@
+package org.tommy.modes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.TaskTracker;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.persist.FileSaver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestScriptMode {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testScriptIsPersistedOncePerBatch() throws IOException {
+        Path dataFile = dir.resolve("data.json");
+        Files.writeString(dataFile, "");
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dataFile.toString());
+        properties.setProperty("script.batch.size", "10");
+        AppConfig appConfig = AppConfig.fromProperties(properties);
+
+        StringBuilder script = new StringBuilder();
+        for (int i = 1; i <= 25; i++) {
+            script.append("task-cli add \"Migrated ").append(i).append("\"\n");
+        }
+        script.append("task-cli mark-done 1-5\n");
+        Path scriptFile = dir.resolve("script.txt");
+        Files.writeString(scriptFile, script);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        TaskTracker.forScript(scriptFile, appConfig).run();
+
+        assertTrue(outputStream.toString().contains("5 tasks marked done successfully."), "Should run every line");
+        FileSaver reopened = new FileSaver(appConfig);
+        assertEquals(25, reopened.getTasks().size());
+        assertEquals(5, reopened.getTasksByStatus(Status.DONE).size());
+        Matcher version = Pattern.compile("\"version\":\\s*(\\d+)").matcher(Files.readString(dataFile));
+        assertTrue(version.find());
+        assertEquals("3", version.group(1), "Should write 30 changes in 3 batches");
+        reopened.close();
+    }
+
+    @Test
+    void testFailingLinesAreReportedAndSkipped() throws IOException {
+        Path dataFile = dir.resolve("data.json");
+        Files.writeString(dataFile, "");
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dataFile.toString());
+        AppConfig appConfig = AppConfig.fromProperties(properties);
+
+        Path scriptFile = dir.resolve("script.txt");
+        Files.writeString(scriptFile, """
+                task-cli add "Kept"
+                # a comment
+
+                task-cli update 999 "Missing"
+                task-cli update abc "Not a number"
+                task-cli mark-done 999
+                task-cli add "Also kept"
+                """);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        TaskTracker.forScript(scriptFile, appConfig).run();
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Line 4: Task with 999 not found"), output);
+        assertTrue(output.contains("Line 5: Invalid number"), output);
+        assertTrue(output.contains("Line 6: Task with 999 not found"), output);
+        FileSaver reopened = new FileSaver(appConfig);
+        assertEquals(2, reopened.getTasks().size(), "Should run the lines after the failing ones");
+        reopened.close();
+    }
+}
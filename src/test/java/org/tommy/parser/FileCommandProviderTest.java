@@ -0,0 +1,47 @@
+package org.tommy.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileCommandProviderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadsCommandsAndSkipsBlankAndCommentLines() throws IOException {
+        Path script = dir.resolve("script.txt");
+        Files.writeString(script, """
+                # migrate
+                task-cli add "One"
+
+                  task-cli mark-done 1  \r
+                task-cli list""");
+
+        FileCommandProvider provider = new FileCommandProvider(script, 16);
+        List<String> commands = new ArrayList<>();
+        while (provider.hasNextCommand()) {
+            commands.add(provider.getNextCommand());
+        }
+
+        assertEquals(List.of("task-cli add \"One\"", "task-cli mark-done 1", "task-cli list"), commands);
+        assertFalse(provider.hasNextCommand());
+        assertThrows(NoSuchElementException.class, provider::getNextCommand);
+        provider.close();
+    }
+
+    @Test
+    void testMissingScriptIsReported() {
+        assertThrows(FileNotFoundException.class, () -> new FileCommandProvider(dir.resolve("missing.txt")));
+    }
+}
@@ -0,0 +1,174 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BTreeSaverTest {
+
+    /** Writes to this device fail with "no space left", reads return zeros. */
+    private static final Path FULL_DEVICE = Path.of("/dev/full");
+
+    @TempDir
+    Path dir;
+
+    private AppConfig config() {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        properties.setProperty("btree.cache.pages", "8");
+        return AppConfig.fromProperties(properties);
+    }
+
+    @Test
+    void testManyTasksWithSmallCache() {
+        BTreeSaver saver = new BTreeSaver(config());
+        int total = BTreeSaver.LEAF_CAPACITY * (BTreeSaver.INTERNAL_CAPACITY + 10);
+        for (int i = 1; i <= total; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        assertTrue(saver.getBufferPool().size() <= 8);
+        assertEquals("Task 1", saver.getTask(1).getTask());
+        assertEquals("Task " + total, saver.getTask(total).getTask());
+        assertEquals("Task 31337", saver.getTask(31337).getTask());
+
+        List<Task> range = saver.getTasksInRange(500, 1500);
+        assertEquals(1001, range.size());
+        assertEquals(500, range.get(0).getId());
+        assertEquals(1500, range.get(range.size() - 1).getId());
+        List<Task> page = saver.getTasks(31336, 3);
+        assertEquals(List.of(31337, 31338, 31339), page.stream().map(Task::getId).toList());
+        assertTrue(saver.getTasks(total, 3).isEmpty());
+        saver.close();
+
+        BTreeSaver reopened = new BTreeSaver(config());
+        assertEquals(total, reopened.getTasks().size());
+        assertEquals(total + 1, reopened.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void testUpdateAndDelete() {
+        BTreeSaver saver = new BTreeSaver(config());
+        Task task = saver.addTask(new Task(0, Status.NOT_DONE, "Plant a tree"));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Keep me"));
+
+        saver.updateTask(saver.getTask(task.getId()).withStatus(Status.DONE).withTask("Plant a B+tree"));
+        assertEquals(Status.DONE, saver.getTask(task.getId()).getStatus());
+        assertEquals("Plant a B+tree", saver.getTask(task.getId()).getTask());
+
+        saver.deleteTask(task.getId());
+        assertThrows(NoSuchElementException.class, () -> saver.getTask(task.getId()));
+        assertEquals(1, saver.getTasks().size());
+        saver.close();
+    }
+
+    @Test
+    void testMigratesUnorderedJsonFile() throws IOException {
+        StringBuilder json = new StringBuilder("{\"nextId\": 3001, \"tasks\": [");
+        for (int id = 3000; id >= 1; id--) {
+            json.append("{\"id\": ").append(id).append(", \"status\": \"DONE\", \"task\": \"Old ")
+                    .append(id).append("\"}").append(id > 1 ? "," : "");
+        }
+        Files.writeString(dir.resolve("data.json"), json.append("]}"));
+
+        BTreeSaver saver = new BTreeSaver(config());
+        List<Task> tasks = saver.getTasks();
+        assertEquals(3000, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(i + 1, tasks.get(i).getId());
+        }
+        assertEquals(new TaskStats(3000, 0, 0, 3000, 0, 0), saver.getStats());
+        assertEquals(3001, saver.addTask(new Task(0, Status.NOT_DONE, "New")).getId());
+        saver.close();
+    }
+
+    @Test
+    void testStatsAreCountedOnceAndThenMaintained() {
+        BTreeSaver saver = new BTreeSaver(config());
+        saver.addTask(new Task(0, Status.NOT_DONE, "First"));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Second"));
+
+        assertEquals(new TaskStats(2, 2, 0, 0, 2, 0), saver.getStats());
+        saver.updateTask(saver.getTask(1).withStatus(Status.DONE));
+        saver.addTask(new Task(0, Status.IN_PROGRESS, "Third"));
+        saver.deleteTask(2);
+        assertEquals(new TaskStats(2, 0, 1, 1, 2, 1), saver.getStats());
+        saver.close();
+    }
+
+    @Test
+    void testMutationsReachTheFileWithoutClose() {
+        BTreeSaver saver = new BTreeSaver(config());
+        int total = BTreeSaver.LEAF_CAPACITY * 20;
+        for (int i = 1; i <= total; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        saver.updateTask(saver.getTask(7).withStatus(Status.DONE));
+        saver.deleteTask(8);
+
+        // Opened while the first saver is still open, as after a crash: it sees every change.
+        BTreeSaver crashed = new BTreeSaver(config());
+        assertEquals(total - 1, crashed.getTasks().size());
+        assertEquals(Status.DONE, crashed.getTask(7).getStatus());
+        assertThrows(NoSuchElementException.class, () -> crashed.getTask(8));
+        assertEquals(total + 1, crashed.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+        crashed.close();
+        saver.close();
+    }
+
+    @Test
+    void testInterruptedMigrationIsStartedOver() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 3, "tasks": [{"id": 1, "status": "NOT_DONE", "task": "First"},
+                                        {"id": 2, "status": "DONE", "task": "Second"}]}""");
+        Files.write(dir.resolve("data.json.btree"), new byte[3 * BufferPool.PAGE_SIZE]);
+        Files.writeString(dir.resolve("data.json.btree.text"), "First");
+
+        BTreeSaver saver = new BTreeSaver(config());
+        assertEquals("First", saver.getTask(1).getTask());
+        assertEquals("Second", saver.getTask(2).getTask());
+        assertEquals(3, saver.addTask(new Task(0, Status.NOT_DONE, "Third")).getId());
+        saver.close();
+    }
+
+    @Test
+    void testFailedBatchLeavesTheTreeAsItWas() throws IOException {
+        assumeTrue(Files.exists(FULL_DEVICE), "needs a device that fails every write");
+        BTreeSaver saver = new BTreeSaver(config());
+        Task blank = saver.addTask(new Task(0, Status.NOT_DONE, null));
+        Task named = saver.addTask(new Task(0, Status.NOT_DONE, "Named"));
+        saver.close();
+        Path heap = dir.resolve("data.json.btree.text");
+        Files.delete(heap);
+        Files.createSymbolicLink(heap, FULL_DEVICE);
+
+        BTreeSaver failing = new BTreeSaver(config());
+        // Enough tasks to split leaves well beyond the eight cached pages before the write that fails.
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < BTreeSaver.LEAF_CAPACITY * 20; i++) {
+            batch.add(new Task(0, Status.NOT_DONE, null));
+        }
+        batch.add(new Task(0, Status.NOT_DONE, "Cannot be written"));
+        assertThrows(PersistenceException.class, () -> failing.addTasks(batch));
+        assertEquals(List.of(blank.getId(), named.getId()), failing.getTasksInRange(1, Integer.MAX_VALUE).stream()
+                .map(Task::getId).toList());
+        assertThrows(PersistenceException.class, () -> failing.updateTasks(List.of(
+                blank.withStatus(Status.DONE), named.withTask("Cannot be written"))));
+        assertEquals(Status.NOT_DONE, failing.getTask(blank.getId()).getStatus());
+        assertEquals(3, failing.addTask(new Task(0, Status.NOT_DONE, null)).getId());
+    }
+}
@@ -0,0 +1,169 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingTaskSaverTest {
+
+    /**
+     * An in-memory store that counts how often a task is read from it.
+     */
+    private static final class CountingSaver implements TaskSaver {
+        private final TreeMap<Integer, Task> tasks = new TreeMap<>();
+        private int reads;
+        /** Runs after each lookup, so that a test can hold a read up. */
+        private Runnable afterRead = () -> { };
+
+        @Override
+        public Task addTask(Task task) {
+            Task created = task.withId(tasks.size() + 1);
+            tasks.put(created.getId(), created);
+            return created;
+        }
+
+        @Override
+        public int deleteTask(int taskId) {
+            tasks.remove(taskId);
+            return taskId;
+        }
+
+        @Override
+        public Task updateTask(Task task) {
+            tasks.put(task.getId(), task);
+            return task;
+        }
+
+        @Override
+        public Task getTask(int id) {
+            reads++;
+            Task task = tasks.get(id);
+            afterRead.run();
+            if (task == null) {
+                throw new NoSuchElementException(String.format("Task with %d not found", id));
+            }
+            return task;
+        }
+
+        @Override
+        public List<Task> getTasks() {
+            return new ArrayList<>(tasks.values());
+        }
+    }
+
+    private static CountingSaver storeWith(int count) {
+        CountingSaver store = new CountingSaver();
+        for (int i = 0; i < count; i++) {
+            store.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        return store;
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromTheCache() {
+        CountingSaver store = storeWith(2);
+        CachingTaskSaver cache = new CachingTaskSaver(store, 10, CachePolicy.LRU);
+
+        Task first = cache.getTask(1);
+        assertSame(first, cache.getTask(1));
+        assertSame(first, cache.getTask(1));
+        assertEquals(1, store.reads);
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertThrows(NoSuchElementException.class, () -> cache.getTask(99));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testWritesInvalidateTheCachedTask() {
+        CountingSaver store = storeWith(3);
+        CachingTaskSaver cache = new CachingTaskSaver(store, 10, CachePolicy.LRU);
+        cache.getTask(1);
+        cache.getTask(2);
+
+        cache.updateTask(cache.getTask(1).withStatus(Status.DONE));
+        assertEquals(Status.DONE, cache.getTask(1).getStatus());
+
+        cache.updateStatus(Status.IN_PROGRESS, 1, 2);
+        assertEquals(Status.IN_PROGRESS, cache.getTask(2).getStatus());
+
+        cache.deleteTask(2);
+        assertThrows(NoSuchElementException.class, () -> cache.getTask(2));
+    }
+
+    @Test
+    void testSlowReadNeitherBlocksHitsNorCachesAStaleTask() throws InterruptedException {
+        CountingSaver store = storeWith(2);
+        CachingTaskSaver cache = new CachingTaskSaver(store, 10, CachePolicy.LRU);
+        Task second = cache.getTask(2);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        store.afterRead = () -> {
+            store.afterRead = () -> { };
+            reading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        AtomicReference<Task> read = new AtomicReference<>();
+        Thread reader = new Thread(() -> read.set(cache.getTask(1)));
+        reader.start();
+        reading.await();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertSame(second, cache.getTask(2)));
+        cache.updateTask(new Task(1, Status.DONE, "Task 0"));
+        release.countDown();
+        reader.join();
+
+        assertEquals(Status.NOT_DONE, read.get().getStatus());
+        assertEquals(Status.DONE, cache.getTask(1).getStatus());
+    }
+
+    @Test
+    void testLruEvictsTheLeastRecentlyReadTask() {
+        CountingSaver store = storeWith(3);
+        CachingTaskSaver cache = new CachingTaskSaver(store, 2, CachePolicy.LRU);
+        cache.getTask(1);
+        cache.getTask(2);
+        cache.getTask(1);
+        cache.getTask(3);
+
+        int reads = store.reads;
+        cache.getTask(1);
+        assertEquals(reads, store.reads);
+        cache.getTask(2);
+        assertEquals(reads + 1, store.reads);
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    void testLfuEvictsTheLeastOftenReadTask() {
+        CountingSaver store = storeWith(3);
+        CachingTaskSaver cache = new CachingTaskSaver(store, 2, CachePolicy.LFU);
+        cache.getTask(1);
+        cache.getTask(1);
+        cache.getTask(1);
+        cache.getTask(2);
+        cache.getTask(2);
+        cache.getTask(3);
+
+        int reads = store.reads;
+        cache.getTask(1);
+        cache.getTask(3);
+        assertEquals(reads, store.reads);
+        cache.getTask(2);
+        assertEquals(reads + 1, store.reads);
+    }
+}
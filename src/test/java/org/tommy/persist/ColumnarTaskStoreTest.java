@@ -0,0 +1,65 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskStoreTest {
+
+    private static Task task(int id, Status status, String text, LocalDateTime time) {
+        return new Task(id, status, text).withCreatedAt(time).withUpdatedAt(time);
+    }
+
+    @Test
+    void testRowsRoundTripThroughColumns() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123456789);
+        ColumnarTaskStore store = new ColumnarTaskStore(3, List.of(
+                task(1, Status.NOT_DONE, "Grüße", time),
+                task(2, Status.DONE, null, null)));
+
+        Task read = store.getTask(1);
+        assertEquals("Grüße", read.getTask());
+        assertEquals(time, read.getCreatedAt());
+        assertNull(store.getTask(2).getTask());
+        assertNull(store.getTask(2).getUpdatedAt());
+        assertNull(store.getTask(3));
+    }
+
+    @Test
+    void testUpdateDeleteAndScans() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        for (int id = 1; id <= 1000; id++) {
+            store.addTask(task(id, id % 2 == 0 ? Status.DONE : Status.NOT_DONE, "Task " + id, start.plusMinutes(id)));
+        }
+        store.deleteTask(2);
+        store.updateTask(task(3, Status.DONE, "Renamed", start.plusMinutes(3)));
+
+        assertEquals(999, store.size());
+        assertEquals(500, store.countByStatus(Status.DONE));
+        assertEquals("Renamed", store.getTask(3).getTask());
+        assertEquals("Task 1000", store.getTask(1000).getTask());
+
+        List<Integer> recent = new ArrayList<>();
+        store.forEachUpdatedBetween(start.plusMinutes(998), null, row -> recent.add(row.getId()));
+        assertEquals(List.of(998, 999, 1000), recent.stream().sorted().toList());
+    }
+
+    @Test
+    void testArenaIsCompactedAfterManyUpdates() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.addTask(task(1, Status.NOT_DONE, "Start", null));
+        for (int i = 0; i < 10_000; i++) {
+            store.updateTask(task(1, Status.NOT_DONE, "Revision " + i, null));
+        }
+
+        assertEquals("Revision 9999", store.getTask(1).getTask());
+        assertTrue(store.getHeapBytes() < 64 * 1024);
+    }
+}
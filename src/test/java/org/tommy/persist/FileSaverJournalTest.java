@@ -0,0 +1,137 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileSaverJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private Path dataFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        dataFile = dir.resolve("data.json");
+        Files.writeString(dataFile, "");
+    }
+
+    private AppConfig config(long threshold) {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dataFile.toString());
+        properties.setProperty("journal.enabled", "true");
+        properties.setProperty("journal.compaction.threshold.bytes", String.valueOf(threshold));
+        return AppConfig.fromProperties(properties);
+    }
+
+    @Test
+    void testMutationsAreAppendedAndReplayed() throws IOException {
+        FileSaver saver = new FileSaver(config(Long.MAX_VALUE));
+        Task first = saver.addTask(new Task(0, Status.NOT_DONE, "Write journal"));
+        Task second = saver.addTask(new Task(0, Status.NOT_DONE, "Delete me"));
+        saver.updateTask(first.withStatus(Status.DONE));
+        saver.deleteTask(second.getId());
+        saver.close();
+
+        assertEquals("", Files.readString(dataFile));
+        assertEquals(4, Files.readAllLines(dir.resolve("data.json" + FileSaver.JOURNAL_SUFFIX)).size());
+
+        FileSaver reopened = new FileSaver(config(Long.MAX_VALUE));
+        assertEquals(1, reopened.getTasks().size());
+        assertEquals(Status.DONE, reopened.getTask(first.getId()).getStatus());
+        assertEquals(3, reopened.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void testCompactionFoldsJournalIntoSnapshot() throws IOException {
+        FileSaver saver = new FileSaver(config(1));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Compacted"));
+        saver.close();
+
+        assertTrue(Files.readString(dataFile).contains("Compacted"));
+        assertFalse(Files.exists(dir.resolve("data.json" + FileSaver.COMPACTING_SUFFIX)));
+        assertEquals(0, Files.size(dir.resolve("data.json" + FileSaver.JOURNAL_SUFFIX)));
+
+        FileSaver reopened = new FileSaver(config(1));
+        assertEquals("Compacted", reopened.getTask(1).getTask());
+        reopened.close();
+    }
+
+    @Test
+    void testTornTailIsIgnoredOnReplay() throws IOException {
+        FileSaver saver = new FileSaver(config(Long.MAX_VALUE));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Survives"));
+        saver.close();
+        Files.writeString(dir.resolve("data.json" + FileSaver.JOURNAL_SUFFIX), "{\"op\":\"ADD\",\"ne",
+                StandardOpenOption.APPEND);
+
+        FileSaver reopened = new FileSaver(config(Long.MAX_VALUE));
+        assertEquals(1, reopened.getTasks().size());
+        reopened.addTask(new Task(0, Status.NOT_DONE, "Appended after crash"));
+        reopened.close();
+
+        FileSaver recovered = new FileSaver(config(Long.MAX_VALUE));
+        assertEquals(2, recovered.getTasks().size());
+        recovered.close();
+    }
+
+    @Test
+    void testFailedCompactionIsRetried() throws IOException, InterruptedException {
+        Path temp = dir.resolve("data.json.tmp");
+        Files.createDirectories(temp.resolve("blocker"));
+        FileSaver saver = new FileSaver(config(1));
+        saver.addTask(new Task(0, Status.NOT_DONE, "First"));
+        for (int i = 0; i < 500 && saver.getMetrics().getCompactionFailures() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, saver.getMetrics().getCompactionFailures());
+        assertTrue(Files.exists(dir.resolve("data.json" + FileSaver.COMPACTING_SUFFIX)));
+
+        Files.delete(temp.resolve("blocker"));
+        Files.delete(temp);
+        saver.addTask(new Task(0, Status.NOT_DONE, "Second"));
+        saver.close();
+
+        assertFalse(Files.exists(dir.resolve("data.json" + FileSaver.COMPACTING_SUFFIX)));
+        String snapshot = Files.readString(dataFile);
+        assertTrue(snapshot.contains("First") && snapshot.contains("Second"));
+    }
+
+    @Test
+    void testFailedFlushDropsTheBufferedEntries() throws IOException {
+        Path fullDevice = Path.of("/dev/full");
+        assumeTrue(Files.exists(fullDevice), "needs a device that fails every write");
+        Path path = dir.resolve("failing.journal");
+        Files.createSymbolicLink(path, fullDevice);
+        TaskJournal journal = new TaskJournal(path);
+        journal.append(TaskJournal.Operation.ADD, new Task(1, Status.NOT_DONE, "Reported as failed"), 2);
+        assertThrows(IOException.class, () -> journal.flush(false));
+        assertEquals(0, journal.size());
+
+        // Rotating closes the writer, which would write the failed entry again if it were still buffered.
+        journal.rotate(dir.resolve("rotated.journal"));
+        journal.append(TaskJournal.Operation.ADD, new Task(2, Status.NOT_DONE, "Written"), 3);
+        journal.flush(false);
+        journal.close();
+
+        List<Integer> replayed = new ArrayList<>();
+        TaskJournal.replay(path, (op, id, task, nextId) -> replayed.add(id));
+        assertEquals(List.of(2), replayed);
+    }
+}
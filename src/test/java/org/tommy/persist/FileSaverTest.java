@@ -0,0 +1,204 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private Path dataFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        dataFile = dir.resolve("data.json");
+        Files.writeString(dataFile, "");
+    }
+
+    private AppConfig config(boolean watchChanges) {
+        return config(watchChanges, SnapshotCodec.NONE);
+    }
+
+    private AppConfig config(boolean watchChanges, SnapshotCodec codec) {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dataFile.toString());
+        properties.setProperty("file.watch.changes", String.valueOf(watchChanges));
+        properties.setProperty("snapshot.codec", codec.name().toLowerCase());
+        return AppConfig.fromProperties(properties);
+    }
+
+    @Test
+    void testWritesKeepInMemoryStoreAuthoritative() throws IOException {
+        FileSaver saver = new FileSaver(config(true));
+        Task added = saver.addTask(new Task(0, Status.NOT_DONE, "Stay in memory"));
+
+        assertSame(added, saver.getTask(added.getId()));
+        assertTrue(Files.readString(dataFile).contains("Stay in memory"));
+    }
+
+    @Test
+    void testExternalChangeIsDetected() throws IOException {
+        FileSaver reader = new FileSaver(config(true));
+        FileSaver writer = new FileSaver(config(true));
+        writer.addTask(new Task(0, Status.NOT_DONE, "Written elsewhere"));
+
+        assertEquals("Written elsewhere", reader.getTask(1).getTask());
+    }
+
+    @Test
+    void testExplicitReload() throws IOException {
+        FileSaver reader = new FileSaver(config(false));
+        FileSaver writer = new FileSaver(config(false));
+        writer.addTask(new Task(0, Status.NOT_DONE, "Reload me"));
+
+        assertTrue(reader.getTasks().isEmpty());
+        reader.reload();
+        assertEquals(1, reader.getTasks().size());
+    }
+
+    @Test
+    void testInterleavedAddsFromTwoSaversGetDistinctIds() throws IOException {
+        FileSaver first = new FileSaver(config(false));
+        FileSaver second = new FileSaver(config(false));
+        Task a = first.addTask(new Task(0, Status.NOT_DONE, "First"));
+        Task b = second.addTask(new Task(0, Status.NOT_DONE, "Second"));
+        Task c = first.addTask(new Task(0, Status.NOT_DONE, "Third"));
+
+        assertEquals(List.of(1, 2, 3), List.of(a.getId(), b.getId(), c.getId()));
+        first.reload();
+        assertEquals(3, first.getTasks().size());
+    }
+
+    @Test
+    void testConcurrentUpdateIsRejected() throws IOException {
+        FileSaver first = new FileSaver(config(false));
+        FileSaver second = new FileSaver(config(false));
+        first.addTask(new Task(0, Status.NOT_DONE, "Contended"));
+        second.reload();
+
+        Task stale = first.getTask(1);
+        second.updateTask(second.getTask(1).withStatus(Status.DONE));
+
+        assertThrows(PersistenceException.class, () -> first.updateTask(stale.withTask("Lost update")));
+        assertEquals(Status.DONE, first.getTask(1).getStatus());
+        assertEquals("Contended", first.getTask(1).getTask());
+    }
+
+    @Test
+    void testEveryWriteBumpsTheVersion() throws IOException {
+        FileSaver saver = new FileSaver(config(true));
+        saver.addTask(new Task(0, Status.NOT_DONE, "One"));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Two"));
+
+        try (Reader reader = Files.newBufferedReader(dataFile)) {
+            assertEquals(2, TaskStoreTypeAdapter.peekVersion(reader));
+        }
+    }
+
+    @Test
+    void testBulkOperationsWriteOnceAndApplyAllOrNothing() throws IOException {
+        FileSaver saver = new FileSaver(config(true));
+        List<Task> added = saver.addTasks(List.of(new Task(0, Status.NOT_DONE, "One"),
+                new Task(0, Status.NOT_DONE, "Two"), new Task(0, Status.NOT_DONE, "Three")));
+        assertEquals(List.of(1, 2, 3), added.stream().map(Task::getId).toList());
+
+        assertEquals(3, saver.updateStatus(Status.DONE, 1, 2, 3).size());
+        assertEquals(3, saver.getTasksByStatus(Status.DONE).size());
+        try (Reader reader = Files.newBufferedReader(dataFile)) {
+            assertEquals(2, TaskStoreTypeAdapter.peekVersion(reader));
+        }
+
+        assertThrows(PersistenceException.class, () -> saver.updateStatus(Status.IN_PROGRESS, 1, 99));
+        assertThrows(PersistenceException.class, () -> saver.deleteTasks(2, 99));
+        assertEquals(Status.DONE, saver.getTask(1).getStatus());
+        assertEquals(3, saver.getTasks().size());
+
+        assertEquals(2, saver.deleteTasks(1, 3, 3));
+        assertEquals(List.of(2), saver.getTasks().stream().map(Task::getId).toList());
+        try (Reader reader = Files.newBufferedReader(dataFile)) {
+            assertEquals(3, TaskStoreTypeAdapter.peekVersion(reader));
+        }
+        assertEquals(1, new FileSaver(config(true)).getTasks().size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SnapshotCodec.class, names = {"GZIP", "DEFLATE"})
+    void testCompressedSnapshotIsReadableAfterSwitchingCodecs(SnapshotCodec codec) throws IOException {
+        FileSaver plain = new FileSaver(config(false));
+        plain.addTask(new Task(0, Status.NOT_DONE, "Written as plain JSON"));
+
+        FileSaver compressed = new FileSaver(config(false, codec));
+        assertEquals(1, compressed.getTasks().size());
+        compressed.addTask(new Task(0, Status.DONE, "Written compressed"));
+        assertFalse(Files.readString(dataFile, StandardCharsets.ISO_8859_1).contains("Written compressed"));
+
+        FileSaver reopened = new FileSaver(config(false));
+        assertEquals("Written compressed", reopened.getTask(2).getTask());
+        assertEquals(Status.DONE, reopened.getTask(2).getStatus());
+    }
+
+    @Test
+    void testStatusFilterFollowsUpdates() throws IOException {
+        FileSaver saver = new FileSaver(config(true));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Pending"));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Finished"));
+
+        saver.updateTask(saver.getTask(2).withStatus(Status.DONE));
+
+        assertEquals(List.of(1), saver.getTasksByStatus(Status.NOT_DONE).stream().map(Task::getId).toList());
+        assertEquals(List.of(2), saver.getTasksByStatus(Status.DONE).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testConcurrentWritersAndReaders() throws Exception {
+        FileSaver saver = new FileSaver(config(true));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int writer = 0; writer < 4; writer++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    saver.addTask(new Task(0, Status.NOT_DONE, "Concurrent"));
+                }
+            }));
+        }
+        for (int reader = 0; reader < 4; reader++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    for (Task task : saver.getTasks()) {
+                        assertEquals(task, saver.getTask(task.getId()));
+                    }
+                    saver.getTasksByStatus(Status.NOT_DONE);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(200, saver.getTasks().size());
+        assertEquals(200, new FileSaver(config(true)).getTasks().size());
+    }
+}
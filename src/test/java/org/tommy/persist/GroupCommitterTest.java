@@ -0,0 +1,111 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitterTest {
+
+    private final List<List<GroupCommitter.Mutation>> batches = new ArrayList<>();
+    private final List<Boolean> fsyncs = new ArrayList<>();
+    private boolean failing;
+
+    private GroupCommitter committer(long window, int maxBatch, Durability durability, PersistenceMetrics metrics) {
+        return new GroupCommitter(this, (mutations, nextId, fsync) -> {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            batches.add(new ArrayList<>(mutations));
+            fsyncs.add(fsync);
+        }, window, maxBatch, durability, metrics);
+    }
+
+    private static GroupCommitter.Mutation update(int id, String text) {
+        return new GroupCommitter.Mutation(TaskJournal.Operation.UPDATE, id, new Task(id, Status.NOT_DONE, text));
+    }
+
+    @Test
+    void testRepeatedUpdatesCollapseIntoOneBatch() throws IOException {
+        PersistenceMetrics metrics = new PersistenceMetrics(Durability.BATCH);
+        GroupCommitter committer = committer(60_000, 100, Durability.BATCH, metrics);
+        committer.submit(update(1, "first"), 2);
+        committer.submit(update(1, "second"), 2);
+        committer.submit(update(2, "other"), 3);
+        assertTrue(batches.isEmpty());
+
+        committer.close();
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals("second", batches.get(0).get(0).task().getTask());
+        assertEquals(List.of(true), fsyncs);
+        assertEquals(3, metrics.getMutations());
+        assertEquals(1, metrics.getCoalesced());
+        assertEquals(1, metrics.getFsyncs());
+    }
+
+    @Test
+    void testMaxBatchForcesWrite() throws IOException {
+        GroupCommitter committer = committer(60_000, 2, Durability.OS, new PersistenceMetrics(Durability.OS));
+        committer.submit(update(1, "a"), 2);
+        committer.submit(update(2, "b"), 3);
+
+        assertEquals(1, batches.size());
+        assertEquals(List.of(false), fsyncs);
+        committer.close();
+    }
+
+    @Test
+    void testAlwaysWritesEveryMutation() throws IOException {
+        GroupCommitter committer = committer(60_000, 100, Durability.ALWAYS, new PersistenceMetrics(Durability.ALWAYS));
+        committer.submit(update(1, "a"), 2);
+        committer.submit(update(1, "b"), 2);
+
+        assertEquals(2, batches.size());
+        assertEquals(List.of(true, true), fsyncs);
+        committer.close();
+    }
+
+    @Test
+    void testWindowFlushesInBackground() throws Exception {
+        GroupCommitter committer = committer(10, 100, Durability.OS, new PersistenceMetrics(Durability.OS));
+        committer.submit(update(1, "a"), 2);
+        for (int i = 0; i < 200 && committer.hasPending(); i++) {
+            Thread.sleep(10);
+        }
+        synchronized (this) {
+            assertEquals(1, batches.size());
+        }
+        committer.close();
+    }
+
+    @Test
+    void testBackgroundFailureIsReportedBeforeQueuing() throws Exception {
+        PersistenceMetrics metrics = new PersistenceMetrics(Durability.OS);
+        GroupCommitter committer = committer(10, 100, Durability.OS, metrics);
+        synchronized (this) {
+            failing = true;
+        }
+        committer.submit(update(1, "a"), 2);
+        for (int i = 0; i < 200 && metrics.getFailures() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(IOException.class, () -> committer.submit(update(2, "rejected"), 3));
+        synchronized (this) {
+            failing = false;
+        }
+        committer.submit(update(3, "c"), 4);
+        committer.close();
+
+        synchronized (this) {
+            assertEquals(List.of(1), batches.get(0).stream().map(GroupCommitter.Mutation::taskId).toList());
+            assertTrue(batches.stream().flatMap(List::stream).noneMatch(m -> m.taskId() == 2));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private AppConfig config() {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        return AppConfig.fromProperties(properties);
+    }
+
+    @Test
+    void testCrudAndStatusFilter() {
+        JdbcSaver saver = new JdbcSaver(config());
+        Task first = saver.addTask(new Task(0, Status.NOT_DONE, "Write SQL"));
+        Task second = saver.addTask(new Task(0, Status.NOT_DONE, "Index it"));
+        saver.addTask(new Task(0, Status.NOT_DONE, "Delete me"));
+
+        Task updated = saver.updateTask(saver.getTask(second.getId()).withStatus(Status.DONE));
+        assertEquals(Status.DONE, updated.getStatus());
+        assertEquals(first.getCreatedAt(), saver.getTask(first.getId()).getCreatedAt());
+
+        saver.deleteTask(3);
+        assertThrows(NoSuchElementException.class, () -> saver.getTask(3));
+        assertThrows(PersistenceException.class, () -> saver.deleteTask(3));
+
+        List<Task> done = saver.getTasksByStatus(Status.DONE);
+        assertEquals(1, done.size());
+        assertEquals(second.getId(), done.get(0).getId());
+        assertEquals(1, saver.getTasksByStatus(Status.NOT_DONE).size());
+        saver.close();
+
+        JdbcSaver reopened = new JdbcSaver(config());
+        assertEquals(2, reopened.getTasks().size());
+        assertEquals(4, reopened.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void testBulkOperationsRollBackTogether() {
+        JdbcSaver saver = new JdbcSaver(config());
+        saver.addTasks(List.of(new Task(0, Status.NOT_DONE, "One"), new Task(0, Status.NOT_DONE, "Two")));
+
+        assertThrows(PersistenceException.class, () -> saver.updateStatus(Status.DONE, 1, 2, 3));
+        assertThrows(PersistenceException.class, () -> saver.deleteTasks(1, 3));
+        assertTrue(saver.getTasksByStatus(Status.DONE).isEmpty());
+        assertEquals(2, saver.getTasks().size());
+
+        assertEquals(2, saver.updateStatus(Status.DONE, 1, 2).size());
+        assertEquals(2, saver.deleteTasks(1, 2));
+        assertTrue(saver.getTasks().isEmpty());
+        assertEquals(3, saver.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+        saver.close();
+    }
+
+    @Test
+    void testMigratesExistingJsonFile() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 10, "tasks": [
+                  {"id": 4, "status": "IN_PROGRESS", "task": "Migrated", "createdAt": "2025-07-13T09:20:18.9920509"}
+                ]}""");
+        JdbcSaver saver = new JdbcSaver(config());
+
+        assertEquals("Migrated", saver.getTask(4).getTask());
+        assertEquals(1, saver.getTasksByStatus(Status.IN_PROGRESS).size());
+        assertEquals(10, saver.addTask(new Task(0, Status.NOT_DONE, "After migration")).getId());
+        saver.close();
+    }
+
+    @Test
+    void testDeletedTasksAreNotMigratedAgain() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 3, "tasks": [{"id": 1, "status": "NOT_DONE", "task": "First"},
+                                        {"id": 2, "status": "DONE", "task": "Second"}]}""");
+        JdbcSaver saver = new JdbcSaver(config());
+        assertEquals(2, saver.deleteTasks(1, 2));
+        saver.close();
+
+        JdbcSaver reopened = new JdbcSaver(config());
+        assertTrue(reopened.getTasks().isEmpty());
+        assertEquals(3, reopened.addTask(new Task(0, Status.NOT_DONE, "Third")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void testSearchMatchesWholeWordsLikeTheTextIndex() {
+        JdbcSaver saver = new JdbcSaver(config());
+        saver.addTasks(List.of(new Task(0, Status.NOT_DONE, "Buy milk and bread"),
+                new Task(0, Status.NOT_DONE, "Buy buttermilk"),
+                new Task(0, Status.NOT_DONE, "Milk the milk cow"),
+                new Task(0, Status.NOT_DONE, "Groceries")));
+
+        assertEquals(List.of(3, 1), saver.search("milk").stream().map(Task::getId).toList());
+        assertEquals(List.of(1), saver.search("MILK bread").stream().map(Task::getId).toList());
+        assertEquals(List.of(1, 4), saver.search("bread OR groc*").stream().map(Task::getId).toList());
+        assertEquals(new TaskStore(0, saver.getTasks()).search("buy OR cow"), saver.search("buy OR cow"));
+        saver.close();
+    }
+
+    @Test
+    void testTimeQueriesMatchTheTaskStore() {
+        JdbcSaver saver = new JdbcSaver(config());
+        saver.addTasks(List.of(new Task(0, Status.NOT_DONE, "First"),
+                new Task(0, Status.NOT_DONE, "Second"),
+                new Task(0, Status.NOT_DONE, "Third")));
+        saver.updateTask(new Task(1, Status.DONE, "First"));
+        TaskStore store = new TaskStore(0, saver.getTasks());
+        LocalDateTime from = saver.getTask(2).getCreatedAt();
+
+        assertEquals(store.getTasksCreatedBetween(from, null), saver.getTasksCreatedBetween(from, null));
+        assertEquals(store.getTasksUpdatedBetween(null, null), saver.getTasksUpdatedBetween(null, null));
+        assertEquals(1, saver.getRecentlyUpdated(2).get(0).getId());
+        assertEquals(store.getRecentlyUpdated(2), saver.getRecentlyUpdated(2));
+        assertTrue(saver.getTasksUpdatedBetween(null, from).stream().allMatch(t -> t.getUpdatedAt().isBefore(from)));
+        saver.close();
+    }
+}
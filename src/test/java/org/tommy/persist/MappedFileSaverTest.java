@@ -0,0 +1,118 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MappedFileSaverTest {
+
+    /** Writes to this device fail with "no space left", reads return zeros. */
+    private static final Path FULL_DEVICE = Path.of("/dev/full");
+
+    @TempDir
+    Path dir;
+
+    private AppConfig config() {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        return AppConfig.fromProperties(properties);
+    }
+
+    @Test
+    void testAddUpdateDeleteAndReopen() {
+        MappedFileSaver saver = new MappedFileSaver(config());
+        Task first = saver.addTask(new Task(0, Status.NOT_DONE, "Map the file"));
+        Task second = saver.addTask(new Task(0, Status.NOT_DONE, "Remove me"));
+
+        saver.updateTask(saver.getTask(first.getId()).withStatus(Status.DONE));
+        saver.updateTask(saver.getTask(first.getId()).withTask("Map the file twice"));
+        saver.deleteTask(second.getId());
+        saver.close();
+
+        MappedFileSaver reopened = new MappedFileSaver(config());
+        Task read = reopened.getTask(first.getId());
+        assertEquals(Status.DONE, read.getStatus());
+        assertEquals("Map the file twice", read.getTask());
+        assertEquals(first.getCreatedAt(), read.getCreatedAt());
+        assertThrows(NoSuchElementException.class, () -> reopened.getTask(second.getId()));
+        assertThrows(PersistenceException.class, () -> reopened.deleteTask(second.getId()));
+        assertEquals(3, reopened.addTask(new Task(0, Status.NOT_DONE, "Third")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        MappedFileSaver saver = new MappedFileSaver(config());
+        for (int i = 0; i < 1500; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        assertEquals("Task 1499", saver.getTask(1500).getTask());
+        assertEquals(1500, saver.getTasks().size());
+        saver.close();
+    }
+
+    @Test
+    void testMigratesExistingJsonFile() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 5, "tasks": [
+                  {"id": 2, "status": "IN_PROGRESS", "task": "Migrated",
+                   "createdAt": "2025-07-13T09:20:18.9920509", "updatedAt": "2025-07-13T10:30:03.6181404"}
+                ]}""");
+        MappedFileSaver saver = new MappedFileSaver(config());
+
+        assertEquals("Migrated", saver.getTask(2).getTask());
+        assertEquals(Status.IN_PROGRESS, saver.getTask(2).getStatus());
+        assertEquals(5, saver.addTask(new Task(0, Status.NOT_DONE, "After migration")).getId());
+        saver.close();
+    }
+
+    @Test
+    void testInterruptedMigrationIsStartedOver() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 3, "tasks": [{"id": 1, "status": "NOT_DONE", "task": "First"},
+                                        {"id": 2, "status": "DONE", "task": "Second"}]}""");
+        Files.write(dir.resolve("data.json.slots"), new byte[MappedFileSaver.HEADER_SIZE + 4096]);
+        Files.writeString(dir.resolve("data.json.slots.text"), "First");
+
+        MappedFileSaver saver = new MappedFileSaver(config());
+        assertEquals("First", saver.getTask(1).getTask());
+        assertEquals("Second", saver.getTask(2).getTask());
+        assertEquals(3, saver.addTask(new Task(0, Status.NOT_DONE, "Third")).getId());
+        saver.close();
+    }
+
+    @Test
+    void testFailedBatchLeavesNoTaskChanged() throws IOException {
+        assumeTrue(Files.exists(FULL_DEVICE), "needs a device that fails every write");
+        MappedFileSaver saver = new MappedFileSaver(config());
+        Task blank = saver.addTask(new Task(0, Status.NOT_DONE, null));
+        Task named = saver.addTask(new Task(0, Status.NOT_DONE, "Named"));
+        saver.close();
+        Path heap = dir.resolve("data.json.slots.text");
+        Files.delete(heap);
+        Files.createSymbolicLink(heap, FULL_DEVICE);
+
+        MappedFileSaver failing = new MappedFileSaver(config());
+        assertThrows(PersistenceException.class, () -> failing.addTasks(List.of(
+                new Task(0, Status.NOT_DONE, null), new Task(0, Status.NOT_DONE, "Cannot be written"))));
+        assertThrows(NoSuchElementException.class, () -> failing.getTask(3));
+        assertThrows(PersistenceException.class, () -> failing.updateTasks(List.of(
+                blank.withStatus(Status.DONE), named.withTask("Cannot be written"))));
+        assertEquals(Status.NOT_DONE, failing.getTask(blank.getId()).getStatus());
+        assertEquals(3, failing.addTask(new Task(0, Status.NOT_DONE, null)).getId());
+        assertEquals(new TaskStats(3, 3, 0, 0, 3, 0), failing.getStats());
+    }
+}
@@ -0,0 +1,128 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private AppConfig config() {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        return AppConfig.fromProperties(properties);
+    }
+
+    @Test
+    void testAddUpdateDeleteAndReopen() {
+        OffHeapSaver saver = new OffHeapSaver(config());
+        Task first = saver.addTask(new Task(0, Status.NOT_DONE, "Keep me off the heap"));
+        Task second = saver.addTask(new Task(0, Status.NOT_DONE, "Remove me"));
+
+        saver.updateTask(saver.getTask(first.getId()).withStatus(Status.DONE).withTask("Kept off the heap"));
+        saver.deleteTask(second.getId());
+        saver.close();
+
+        OffHeapSaver reopened = new OffHeapSaver(config());
+        Task read = reopened.getTask(first.getId());
+        assertEquals(Status.DONE, read.getStatus());
+        assertEquals("Kept off the heap", read.getTask());
+        assertEquals(first.getCreatedAt(), read.getCreatedAt());
+        assertThrows(NoSuchElementException.class, () -> reopened.getTask(second.getId()));
+        assertThrows(PersistenceException.class, () -> reopened.deleteTask(second.getId()));
+        assertEquals(3, reopened.addTask(new Task(0, Status.NOT_DONE, "Third")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void testJournalIsReplayedWithoutClose() throws Exception {
+        OffHeapSaver saver = new OffHeapSaver(config());
+        saver.addTask(new Task(0, Status.NOT_DONE, "Survive a crash"));
+        assertTrue(Files.size(dir.resolve("data.json.journal")) > 0);
+
+        Files.copy(dir.resolve("data.json.journal"), dir.resolve("crashed.journal"));
+        saver.close();
+        Files.move(dir.resolve("crashed.journal"), dir.resolve("data.json.journal"));
+        Files.delete(dir.resolve("data.json"));
+
+        OffHeapSaver reopened = new OffHeapSaver(config());
+        assertEquals("Survive a crash", reopened.getTask(1).getTask());
+        reopened.close();
+    }
+
+    @Test
+    void testGrowsAndFiltersByStatus() {
+        OffHeapSaver saver = new OffHeapSaver(config());
+        long initial = saver.getOffHeapBytes();
+        for (int i = 0; i < 1500; i++) {
+            Task task = saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+            if (i % 3 == 0) {
+                saver.updateTask(task.withStatus(Status.IN_PROGRESS));
+            }
+        }
+        assertTrue(saver.getOffHeapBytes() > initial);
+        assertEquals(1500, saver.getTasks().size());
+        assertEquals(500, saver.getTasksByStatus(Status.IN_PROGRESS).size());
+        assertEquals("Task 1499", saver.getTask(1500).getTask());
+        saver.close();
+    }
+
+    @Test
+    void testSecondSaverIsRejectedWhileOpen() {
+        OffHeapSaver saver = new OffHeapSaver(config());
+        assertThrows(PersistenceException.class, () -> new OffHeapSaver(config()));
+        saver.close();
+    }
+
+    @Test
+    void testBulkOperationsAppendOneBatch() throws Exception {
+        OffHeapSaver saver = new OffHeapSaver(config());
+        saver.addTasks(List.of(new Task(0, Status.NOT_DONE, "One"), new Task(0, Status.NOT_DONE, "Two"),
+                new Task(0, Status.NOT_DONE, "Three")));
+        saver.updateStatus(Status.IN_PROGRESS, 1, 3);
+        assertThrows(PersistenceException.class, () -> saver.deleteTasks(2, 7));
+        assertEquals(1, saver.deleteTasks(2, 2));
+
+        assertEquals(6, Files.readAllLines(dir.resolve("data.json" + FileSaver.JOURNAL_SUFFIX)).size());
+        assertEquals(2, saver.getTasksByStatus(Status.IN_PROGRESS).size());
+        saver.close();
+    }
+
+    @Test
+    void testFailedCompactionKeepsTheMutation() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        properties.setProperty("journal.compaction.threshold.bytes", "1");
+        AppConfig compacting = AppConfig.fromProperties(properties);
+        Path temp = dir.resolve("data.json.tmp");
+        Files.createDirectories(temp.resolve("blocker"));
+
+        OffHeapSaver saver = new OffHeapSaver(compacting);
+        Task first = saver.addTask(new Task(0, Status.NOT_DONE, "Acknowledged"));
+        assertEquals(1, saver.getMetrics().getCompactionFailures());
+        assertEquals("Acknowledged", saver.getTask(first.getId()).getTask());
+
+        Files.delete(temp.resolve("blocker"));
+        Files.delete(temp);
+        assertEquals(2, saver.addTask(new Task(0, Status.NOT_DONE, "Second")).getId());
+        assertFalse(Files.exists(dir.resolve("data.json" + FileSaver.COMPACTING_SUFFIX)));
+        saver.close();
+
+        OffHeapSaver reopened = new OffHeapSaver(compacting);
+        assertEquals(2, reopened.getTasks().size());
+        reopened.close();
+    }
+}
@@ -0,0 +1,179 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tommy.base.Status;
+import org.tommy.configuration.AppConfig;
+import org.tommy.exception.PersistenceException;
+import org.tommy.models.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedFileSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private AppConfig config() {
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        properties.setProperty("segment.size", "10");
+        return AppConfig.fromProperties(properties);
+    }
+
+    private Path segment(int number) {
+        return dir.resolve("data.json.segments").resolve("segment-" + number + ".json");
+    }
+
+    @Test
+    void testMutationRewritesOnlyOwningSegment() throws IOException {
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        for (int i = 1; i <= 25; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        assertEquals(3, saver.getSegmentCount());
+        String untouched = Files.readString(segment(1));
+
+        saver.updateTask(saver.getTask(5).withStatus(Status.DONE));
+        saver.deleteTask(22);
+
+        assertEquals(untouched, Files.readString(segment(1)));
+        assertTrue(Files.readString(segment(0)).contains("DONE"));
+        assertFalse(Files.readString(segment(2)).contains("Task 22"));
+    }
+
+    @Test
+    void testReloadsAllSegmentsInParallel() {
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        for (int i = 1; i <= 35; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        saver.deleteTask(35);
+
+        SegmentedFileSaver reopened = new SegmentedFileSaver(config());
+        assertEquals(34, reopened.getTasks().size());
+        assertEquals("Task 17", reopened.getTask(17).getTask());
+        assertThrows(NoSuchElementException.class, () -> reopened.getTask(35));
+        assertEquals(36, reopened.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+    }
+
+    @Test
+    void testSplitsExistingJsonFile() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 16, "tasks": [
+                  {"id": 3, "status": "NOT_DONE", "task": "Low"},
+                  {"id": 15, "status": "DONE", "task": "High"}
+                ]}""");
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+
+        assertTrue(Files.exists(segment(0)));
+        assertTrue(Files.exists(segment(1)));
+        assertEquals("High", saver.getTask(15).getTask());
+        assertEquals(16, saver.addTask(new Task(0, Status.NOT_DONE, "New")).getId());
+    }
+
+    @Test
+    void testInterruptedSplitIsRepeated() throws IOException {
+        Files.writeString(dir.resolve("data.json"), """
+                {"nextId": 16, "tasks": [
+                  {"id": 3, "status": "NOT_DONE", "task": "Low"},
+                  {"id": 15, "status": "DONE", "task": "High"}
+                ]}""");
+        Files.createDirectories(segment(0).getParent());
+        Files.writeString(segment(0), """
+                {"nextId": 16, "tasks": [{"id": 3, "status": "NOT_DONE", "task": "Low"}]}""");
+        Files.writeString(segment(0).resolveSibling("migrating"), "");
+
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        assertEquals("High", saver.getTask(15).getTask());
+        assertFalse(Files.exists(segment(0).resolveSibling("migrating")));
+        assertEquals(2, new SegmentedFileSaver(config()).getTasks().size());
+    }
+
+    @Test
+    void testSplitReplaysTheJournal() throws IOException {
+        Files.writeString(dir.resolve("data.json"), "");
+        Properties properties = new Properties();
+        properties.setProperty("json.file.path", dir.resolve("data.json").toString());
+        properties.setProperty("journal.enabled", "true");
+        properties.setProperty("journal.compaction.threshold.bytes", String.valueOf(Long.MAX_VALUE));
+        FileSaver journaled = new FileSaver(AppConfig.fromProperties(properties));
+        journaled.addTask(new Task(0, Status.NOT_DONE, "Only in the journal"));
+        journaled.addTask(new Task(0, Status.NOT_DONE, "Deleted in the journal"));
+        journaled.deleteTask(2);
+        journaled.close();
+
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        assertEquals("Only in the journal", saver.getTask(1).getTask());
+        assertThrows(NoSuchElementException.class, () -> saver.getTask(2));
+        assertEquals(3, saver.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+    }
+
+    @Test
+    void testEmptyJsonFileKeepsItsNextId() throws IOException {
+        Files.writeString(dir.resolve("data.json"), "");
+        FileSaver json = new FileSaver(config());
+        json.addTask(new Task(0, Status.NOT_DONE, "Deleted"));
+        json.addTask(new Task(0, Status.NOT_DONE, "Deleted too"));
+        json.deleteTask(1);
+        json.deleteTask(2);
+        json.close();
+
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        assertEquals(3, saver.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+        assertEquals(4, new SegmentedFileSaver(config()).addTask(new Task(0, Status.NOT_DONE, "After")).getId());
+    }
+
+    @Test
+    void testSlotArraysAreSizedBySegment() {
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        for (int i = 1; i <= 2000; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, "Task " + i));
+        }
+        assertTrue(saver.getSegment(199).slotCapacity() <= 64);
+
+        SegmentedFileSaver reopened = new SegmentedFileSaver(config());
+        assertEquals("Task 1995", reopened.getTask(1995).getTask());
+        assertTrue(reopened.getSegment(199).slotCapacity() <= 64);
+    }
+
+    @Test
+    void testBulkOperationsWriteEachSegmentOnce() throws IOException {
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        saver.addTasks(IntStream.rangeClosed(1, 25)
+                .mapToObj(i -> new Task(0, Status.NOT_DONE, "Task " + i)).toList());
+        assertEquals(3, saver.getSegmentCount());
+        String untouched = Files.readString(segment(1));
+
+        saver.updateStatus(Status.DONE, 2, 4, 21);
+        assertThrows(PersistenceException.class, () -> saver.deleteTasks(3, 99));
+
+        assertEquals(untouched, Files.readString(segment(1)));
+        SegmentedFileSaver reopened = new SegmentedFileSaver(config());
+        assertEquals(25, reopened.getTasks().size());
+        assertEquals(Status.DONE, reopened.getTask(21).getStatus());
+        assertEquals(3, reopened.getTasksByStatus(Status.DONE).size());
+        assertEquals(2, reopened.deleteTasks(1, 25, 1));
+        assertEquals(26, reopened.addTask(new Task(0, Status.NOT_DONE, "Next")).getId());
+    }
+
+    @Test
+    void testSearchRanksMatchesOfAllSegmentsTogether() {
+        SegmentedFileSaver saver = new SegmentedFileSaver(config());
+        for (int i = 1; i <= 25; i++) {
+            saver.addTask(new Task(0, Status.NOT_DONE, i % 10 == 0 ? "report report" : "Task " + i));
+        }
+        saver.updateTask(saver.getTask(7).withTask("report"));
+
+        assertEquals(List.of(20, 10, 7), saver.search("report").stream().map(Task::getId).toList());
+        assertEquals(new TaskStore(0, saver.getTasks()).search("task OR report"), saver.search("task OR report"));
+    }
+}
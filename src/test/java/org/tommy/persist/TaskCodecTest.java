@@ -0,0 +1,87 @@
+package org.tommy.persist;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCodecTest {
+
+    @Test
+    void testReadsExistingFileFormat() {
+        String json = """
+                {
+                  "nextId": 3,
+                  "tasks": [
+                    {
+                      "id": 1,
+                      "status": "IN_PROGRESS",
+                      "task": "may be",
+                      "createdAt": "2025-07-13T09:20:18.9920509",
+                      "updatedAt": "2025-07-13T10:30:03.6181404",
+                      "unknown": {"ignored": true}
+                    }
+                  ]
+                }""";
+        TaskStore store = TaskCodec.create(true).fromJson(json, TaskStore.class);
+
+        assertEquals(3, store.getNextId());
+        Task task = store.getTasks().get(0);
+        assertEquals(Status.IN_PROGRESS, task.getStatus());
+        assertEquals("may be", task.getTask());
+        assertEquals(LocalDateTime.parse("2025-07-13T09:20:18.9920509"), task.getCreatedAt());
+    }
+
+    @Test
+    void testCompactRoundTrip() {
+        Task task = new Task(7, Status.DONE, "Ship \"codec\"")
+                .withCreatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 5))
+                .withUpdatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 6, 7000));
+        Gson gson = TaskCodec.create(false);
+
+        String json = gson.toJson(new TaskStore(8, List.of(task)));
+        assertFalse(json.contains("\n"));
+
+        TaskStore store = gson.fromJson(json, TaskStore.class);
+        Task read = store.getTasks().get(0);
+        assertEquals(8, store.getNextId());
+        assertEquals(task.getTask(), read.getTask());
+        assertEquals(task.getCreatedAt(), read.getCreatedAt());
+        assertEquals(task.getUpdatedAt(), read.getUpdatedAt());
+    }
+
+    @Test
+    void testRepeatedDescriptionsAreWrittenOnce() {
+        List<Task> tasks = List.of(
+                new Task(1, Status.NOT_DONE, "Deploy service X"),
+                new Task(2, Status.NOT_DONE, "Unique"),
+                new Task(3, Status.DONE, "Deploy service X"));
+        Gson gson = TaskCodec.create(false);
+
+        String json = gson.toJson(new TaskStore(4, tasks));
+        assertEquals(json.indexOf("Deploy service X"), json.lastIndexOf("Deploy service X"));
+        assertTrue(json.contains("\"task\":\"Unique\""));
+
+        TaskStore store = gson.fromJson(json, TaskStore.class);
+        assertEquals("Deploy service X", store.getTask(1).getTask());
+        assertEquals("Unique", store.getTask(2).getTask());
+        assertSame(store.getTask(1).getTask(), store.getTask(3).getTask());
+    }
+
+    @Test
+    void testUnknownDescriptionReferenceIsRejected() {
+        String json = "{\"nextId\":2,\"tasks\":[{\"id\":1,\"taskRef\":0}]}";
+        assertThrows(JsonSyntaxException.class, () -> TaskCodec.create(false).fromJson(json, TaskStore.class));
+    }
+
+    @Test
+    void testEmptyDocumentReadsAsNull() {
+        assertNull(TaskCodec.create(false).fromJson("", TaskStore.class));
+    }
+}
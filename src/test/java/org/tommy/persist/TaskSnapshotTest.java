@@ -0,0 +1,57 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.Test;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSnapshotTest {
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterChanges() {
+        TaskStore store = new TaskStore(1, List.of());
+        for (int id = 1; id <= 200; id++) {
+            store.addTask(new Task(id, Status.NOT_DONE, "Task " + id));
+        }
+        TaskSnapshot before = store.snapshot();
+
+        store.replaceTask(store.getTask(5).withStatus(Status.DONE));
+        store.deleteTask(new Task(6));
+        store.addTask(new Task(201, Status.NOT_DONE, "Task 201"));
+
+        assertEquals(200, before.size());
+        assertEquals(Status.NOT_DONE, before.getTask(5).getStatus());
+        assertNotNull(before.getTask(6));
+        assertNull(before.getTask(201));
+
+        TaskSnapshot after = store.snapshot();
+        assertEquals(200, after.size());
+        assertEquals(Status.DONE, after.getTask(5).getStatus());
+        assertNull(after.getTask(6));
+    }
+
+    @Test
+    void testUnchangedTasksAreShared() {
+        TaskSnapshot first = TaskSnapshot.of(List.of(new Task(1, Status.NOT_DONE, "One"),
+                new Task(100, Status.NOT_DONE, "Hundred")));
+        TaskSnapshot second = first.with(new Task(2, Status.DONE, "Two"));
+
+        assertSame(first.getTask(100), second.getTask(100));
+        assertEquals(List.of(1, 2, 100), second.stream().map(Task::getId).toList());
+        assertSame(first, first.without(50));
+    }
+
+    @Test
+    void testSparseIds() {
+        TaskSnapshot snapshot = TaskSnapshot.EMPTY
+                .with(new Task(Integer.MAX_VALUE, Status.NOT_DONE, "Far"))
+                .with(new Task(-1, Status.NOT_DONE, "Negative"))
+                .with(new Task(3, Status.NOT_DONE, "Near"));
+
+        assertEquals(List.of(-1, 3, Integer.MAX_VALUE), snapshot.stream().map(Task::getId).toList());
+        assertEquals(2, snapshot.without(-1).size());
+    }
+}
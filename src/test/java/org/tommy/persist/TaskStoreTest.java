@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.tommy.base.Status;
 import org.tommy.models.Task;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,4 +34,136 @@ class TaskStoreTest {
         store.setNextId(5);
         assertEquals(5, store.getNextId());
     }
+
+    @Test
+    void testLookupById() {
+        for (int id = 1; id <= 100; id++) {
+            store.addTask(new Task(id, Status.NOT_DONE, "Task " + id));
+        }
+        store.deleteTask(new Task(42));
+
+        assertEquals("Task 7", store.getTask(7).getTask());
+        assertNull(store.getTask(42));
+        assertNull(store.getTask(101));
+        assertEquals(99, store.size());
+        assertFalse(store.addTask(new Task(7, Status.DONE, "Duplicate")));
+    }
+
+    @Test
+    void testSparseIdsAreKeptInIdOrder() {
+        store.addTask(new Task(Integer.MAX_VALUE, Status.NOT_DONE, "Far away"));
+        store.addTask(new Task(-3, Status.NOT_DONE, "Negative"));
+        store.addTask(new Task(2, Status.NOT_DONE, "Near"));
+
+        assertEquals("Far away", store.getTask(Integer.MAX_VALUE).getTask());
+        assertEquals(List.of(-3, 2, Integer.MAX_VALUE), store.view().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testViewIsReadOnlyAndSharedUntilChanged() {
+        store.addTask(new Task(1, Status.NOT_DONE, "One"));
+        List<Task> view = store.view();
+
+        assertSame(view, store.view());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new Task(2)));
+        store.addTask(new Task(2, Status.NOT_DONE, "Two"));
+        assertEquals(2, store.view().size());
+    }
+
+    @Test
+    void testStatusIndexFollowsChanges() {
+        store.addTask(new Task(1, Status.NOT_DONE, "One"));
+        store.addTask(new Task(2, Status.NOT_DONE, "Two"));
+        store.addTask(new Task(3, Status.DONE, "Three"));
+
+        Task task = store.getTask(1).withStatus(Status.DONE);
+        store.replaceTask(task);
+        store.deleteTask(new Task(3));
+
+        assertEquals(List.of(task), store.getTasksByStatus(Status.DONE));
+        assertEquals(List.of(2), store.getTasksByStatus(Status.NOT_DONE).stream().map(Task::getId).toList());
+        assertTrue(store.getTasksByStatus(Status.IN_PROGRESS).isEmpty());
+    }
+
+    @Test
+    void testTimeRangeAndRecentQueries() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int id = 1; id <= 10; id++) {
+            store.addTask(new Task(id, Status.NOT_DONE, "Task " + id)
+                    .withCreatedAt(start.plusHours(id))
+                    .withUpdatedAt(start.plusHours(id)));
+        }
+        store.replaceTask(store.getTask(2).withUpdatedAt(start.plusDays(1)));
+
+        assertEquals(List.of(4, 5, 6), ids(store.getTasksUpdatedBetween(start.plusHours(4), start.plusHours(7))));
+        assertEquals(List.of(1, 2), ids(store.getTasksCreatedBetween(null, start.plusHours(3))));
+        assertEquals(List.of(2, 10, 9), ids(store.getRecentlyUpdated(3)));
+    }
+
+    @Test
+    void testEqualDescriptionsShareOneString() {
+        store.addTask(new Task(1, Status.NOT_DONE, new String("Deploy service X")));
+        store.addTask(new Task(2, Status.NOT_DONE, new String("Deploy service X")));
+        store.replaceTask(store.getTask(2).withTask(new String("Deploy service Y")));
+        store.addTask(new Task(3, Status.NOT_DONE, new String("Deploy service Y")));
+
+        assertSame(store.getTask(2).getTask(), store.getTask(3).getTask());
+        assertNotSame(store.getTask(1).getTask(), store.getTask(2).getTask());
+        assertEquals(2, store.getDescriptionPool().getHits());
+    }
+
+    @Test
+    void testPagesFollowTheIdCursor() {
+        for (int id : new int[] {-4, 1, 2, 3, 5, 8, 1_000_000}) {
+            store.addTask(new Task(id, Status.NOT_DONE, "Task " + id));
+        }
+
+        assertEquals(List.of(-4, 1, 2), ids(store.getTasks(Integer.MIN_VALUE, 3)));
+        assertEquals(List.of(3, 5, 8), ids(store.getTasks(2, 3)));
+        assertEquals(List.of(1_000_000), ids(store.getTasks(8, 3)));
+        assertTrue(store.getTasks(1_000_000, 3).isEmpty());
+        assertTrue(store.getTasks(Integer.MAX_VALUE, 3).isEmpty());
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void testStatsFollowChanges() {
+        long now = Task.now();
+        long yesterday = now - 86_400_000_000_000L;
+        store.addTask(new Task(1, Status.NOT_DONE, "Today", now, now));
+        store.addTask(new Task(2, Status.DONE, "Done yesterday", yesterday, yesterday));
+        store.addTask(new Task(3, Status.IN_PROGRESS, "Old", yesterday, yesterday));
+
+        assertEquals(new TaskStats(3, 1, 1, 1, 1, 0), store.getStats());
+
+        store.replaceTask(store.getTask(3).withStatus(Status.DONE).withTimes(yesterday, now));
+        assertEquals(new TaskStats(3, 1, 0, 2, 1, 1), store.getStats());
+
+        store.deleteTask(store.getTask(1));
+        assertEquals(new TaskStats(2, 0, 0, 2, 0, 1), store.getStats());
+
+        store.setTasks(List.of(new Task(5, Status.DONE, "Reloaded", now, now)));
+        assertEquals(new TaskStats(1, 0, 0, 1, 1, 1), store.getStats());
+    }
+
+    @Test
+    void testEditingADoneTaskKeepsItsCompletionDay() {
+        long now = Task.now();
+        long yesterday = now - 86_400_000_000_000L;
+        store.addTask(new Task(1, Status.DONE, "Done yesterday", yesterday, yesterday));
+        store.addTask(new Task(2, Status.DONE, "Also done yesterday", yesterday, yesterday));
+
+        store.replaceTask(store.getTask(1).withTask("Reworded").withTimes(yesterday, now));
+        assertEquals(new TaskStats(2, 0, 0, 2, 0, 0), store.getStats());
+
+        store.deleteTask(store.getTask(1));
+        assertEquals(new TaskStats(1, 0, 0, 1, 0, 0), store.getStats());
+
+        store.replaceTask(store.getTask(2).withStatus(Status.NOT_DONE).withTimes(yesterday, now));
+        store.replaceTask(store.getTask(2).withStatus(Status.DONE).withTimes(yesterday, now));
+        assertEquals(new TaskStats(1, 0, 0, 1, 0, 1), store.getStats());
+    }
 }
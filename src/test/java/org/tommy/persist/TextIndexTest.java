@@ -0,0 +1,62 @@
+package org.tommy.persist;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tommy.base.Status;
+import org.tommy.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    private TextIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new TextIndex();
+        index.add(1, "Buy milk and bread");
+        index.add(2, "Buy groceries");
+        index.add(3, "Milk the cow, milk the goat");
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("fix", "bug", "42", "in", "parser"), TextIndex.tokenize("Fix bug #42 in Parser!"));
+    }
+
+    @Test
+    void testAndOrAndPrefixQueries() {
+        assertEquals(Map.of(1, 2), index.search("milk bread"));
+        assertEquals(Map.of(1, 1, 2, 1), index.search("bread OR groceries"));
+        assertEquals(Map.of(2, 1), index.search("groc*"));
+        assertTrue(index.search("milk tea").isEmpty());
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        index.add(2, "Buy milk");
+        index.remove(3);
+
+        assertTrue(index.search("groceries").isEmpty());
+        assertEquals(Map.of(1, 1, 2, 1), index.search("milk"));
+    }
+
+    @Test
+    void testStoreRanksByMatchCountThenUpdatedAt() {
+        TaskStore store = new TaskStore(1, List.of());
+        LocalDateTime now = LocalDateTime.now();
+        store.addTask(task(1, "Milk", now.minusDays(2)));
+        store.addTask(task(2, "Milk", now));
+        store.addTask(task(3, "Milk and more milk", now.minusDays(5)));
+
+        assertEquals(List.of(3, 2, 1), store.search("milk").stream().map(Task::getId).toList());
+    }
+
+    private static Task task(int id, String description, LocalDateTime updatedAt) {
+        return new Task(id, Status.NOT_DONE, description).withUpdatedAt(updatedAt);
+    }
+}